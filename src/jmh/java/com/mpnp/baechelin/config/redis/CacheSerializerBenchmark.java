@@ -0,0 +1,60 @@
+package com.mpnp.baechelin.config.redis;
+
+import com.mpnp.baechelin.store.dto.StoreDetailResponseDto;
+import com.mpnp.baechelin.user.dto.UserResponseDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 캐시 값 직렬화 비교 - JDK 직렬화 vs Smile(압축 임계값 1KB)
+ * 값 크기는 Setup에서 한 번 출력하고, 인코딩/디코딩 시간은 벤치마크로 측정한다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CacheSerializerBenchmark {
+
+    @Param({"jdk", "smile"})
+    private String serializerName;
+
+    @Param({"store", "user"})
+    private String payload;
+
+    private RedisSerializer<Object> serializer;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        serializer = "jdk".equals(serializerName) ? new JdkSerializationRedisSerializer() : new SmileRedisSerializer(1024);
+        value = "store".equals(payload) ? storeDetail() : new UserResponseDto("배리어프리", "user@baechelin.com", "https://example.com/profile.png");
+        encoded = serializer.serialize(value);
+        System.out.printf("%n[%s/%s] payload size = %d bytes%n", serializerName, payload, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(encoded);
+    }
+
+    private static StoreDetailResponseDto storeDetail() {
+        List<String> images = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            images.add("https://baechelin.s3.ap-northeast-2.amazonaws.com/review/" + i + "_image.jpg");
+        }
+        return new StoreDetailResponseDto(1234567L, "음식점", "배리어프리 식당", new BigDecimal("37.5665350000000000000000"),
+                new BigDecimal("126.9779690000000000000000"), "서울특별시 중구 세종대로 110", "Y", "Y", "N",
+                "02-120", "Y", "N", images, 42, "N", 4.5);
+    }
+}
@@ -0,0 +1,36 @@
+package com.mpnp.baechelin.api.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 카카오 로컬 API 응답 캐시 - 같은 주소, 좌표를 다시 조회할 때 HTTP 호출 없이 저장된 응답을 사용
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(indexes = @Index(name = "idx_kakao_lookup_expires_at", columnList = "expiresAt"))
+public class KakaoLookup {
+    // 조회 종류 + 정규화한 조회 조건의 SHA-256
+    @Id
+    @Column(length = 64)
+    private String lookupKey;
+
+    // 응답 JSON - 결과가 없으면(negative) null
+    @Lob
+    @Column(columnDefinition = "MEDIUMTEXT")
+    private String body;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    public KakaoLookup(String lookupKey, String body, LocalDateTime expiresAt) {
+        this.lookupKey = lookupKey;
+        this.body = body;
+        this.expiresAt = expiresAt;
+    }
+}
@@ -1,5 +1,6 @@
 package com.mpnp.baechelin.api.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -14,6 +15,8 @@ public class LocationKeywordSearchForm {
     public static class Meta{
         private int total_count;
         private int pageable_count;
+        // lombok 접근자가 is_end(), set_end()라서 JSON 이름을 직접 지정
+        @JsonProperty("is_end")
         private boolean is_end;
         private SameInfo same_name;
     }
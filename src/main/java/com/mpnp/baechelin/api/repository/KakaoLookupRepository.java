@@ -0,0 +1,23 @@
+package com.mpnp.baechelin.api.repository;
+
+import com.mpnp.baechelin.api.domain.KakaoLookup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface KakaoLookupRepository extends JpaRepository<KakaoLookup, String> {
+    // 같은 키를 동시에 저장해도 중복 키 오류가 나지 않도록 upsert
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO kakao_lookup (lookup_key, body, expires_at) VALUES (:lookupKey, :body, :expiresAt) AS new " +
+            "ON DUPLICATE KEY UPDATE body = new.body, expires_at = new.expires_at", nativeQuery = true)
+    void upsert(@Param("lookupKey") String lookupKey, @Param("body") String body, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM KakaoLookup k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,169 @@
+package com.mpnp.baechelin.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+import com.mpnp.baechelin.api.domain.KakaoLookup;
+import com.mpnp.baechelin.api.model.LocationAddressSearchForm;
+import com.mpnp.baechelin.api.model.LocationKeywordSearchForm;
+import com.mpnp.baechelin.api.repository.KakaoLookupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.transaction.Transactional;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 카카오 로컬 API 조회 결과를 DB(kakao_lookup)에 보관해서 수집을 반복할 때 같은 주소, 좌표는 HTTP 호출 없이 처리
+ * - 결과가 있는 응답 : ttl-days 동안 보관
+ * - 결과가 없는 응답(negative) : 새 업장이 등록될 수 있으므로 negative-ttl-hours 동안만 보관
+ * - 호출 실패(예외)는 저장하지 않는다
+ */
+@Slf4j
+@Component
+public class KakaoLookupCache {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final KakaoLookupRepository kakaoLookupRepository;
+    private final long ttlDays;
+    private final long negativeTtlHours;
+
+    public KakaoLookupCache(KakaoLookupRepository kakaoLookupRepository,
+                            @Value("${kakao.lookup-cache.ttl-days:30}") long ttlDays,
+                            @Value("${kakao.lookup-cache.negative-ttl-hours:24}") long negativeTtlHours) {
+        this.kakaoLookupRepository = kakaoLookupRepository;
+        this.ttlDays = ttlDays;
+        this.negativeTtlHours = negativeTtlHours;
+    }
+
+    /**
+     * @return 주소(키워드) -> 좌표 조회 키
+     */
+    public static String addressKey(String address) {
+        return "address:" + normalizeText(address);
+    }
+
+    /**
+     * @return 좌표 주변 키워드 + 카테고리 검색 조회 키
+     */
+    public static String keywordKey(String lat, String lng, String query, String cateCode, int page) {
+        return "keyword:" + normalizeCoordinate(lat) + ":" + normalizeCoordinate(lng) + ":" + normalizeText(query) + ":" + cateCode + ":" + page;
+    }
+
+    /**
+     * @return 좌표 -> 주소 조회 키
+     */
+    public static String coordinateKey(String lat, String lng) {
+        return "coord2address:" + normalizeCoordinate(lat) + ":" + normalizeCoordinate(lng);
+    }
+
+    /**
+     * @param key     조회 키
+     * @param type    응답 타입
+     * @param isEmpty 결과가 없는 응답인지 - negative TTL 적용
+     * @param loader  캐시에 없을 때 호출할 API
+     * @return 저장된 응답 또는 API 응답 - negative 캐시면 null
+     */
+    public <T> T get(String key, Class<T> type, Predicate<T> isEmpty, Supplier<T> loader) {
+        Optional<Hit<T>> hit = read(key, type);
+        if (hit.isPresent()) return hit.get().value;
+        T value = loader.get();
+        write(key, value, isEmpty);
+        return value;
+    }
+
+    /**
+     * WebClient 파이프라인용 - DB 조회, 저장은 boundedElastic 스케줄러에서 실행
+     */
+    public <T> Mono<T> getAsync(String key, Class<T> type, Predicate<T> isEmpty, Supplier<Mono<T>> loader) {
+        return Mono.fromCallable(() -> read(key, type))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(hit -> hit.isPresent() ? Mono.justOrEmpty(hit.get().value) : loader.get()
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .flatMap(value -> Mono.fromRunnable(() -> write(key, value.orElse(null), isEmpty))
+                                .subscribeOn(Schedulers.boundedElastic())
+                                .then(Mono.justOrEmpty(value))));
+    }
+
+    public static boolean hasNoDocuments(LocationKeywordSearchForm form) {
+        return form.getDocuments() == null || form.getDocuments().length == 0;
+    }
+
+    public static boolean hasNoDocuments(LocationAddressSearchForm form) {
+        return form.getDocuments() == null || form.getDocuments().length == 0;
+    }
+
+    @Scheduled(cron = "${kakao.lookup-cache.purge-cron:0 30 4 * * *}")
+    @Transactional
+    public void deleteExpired() {
+        int deleted = kakaoLookupRepository.deleteExpired(LocalDateTime.now());
+        log.info("KAKAO LOOKUP CACHE PURGED - {} rows", deleted);
+    }
+
+    private <T> Optional<Hit<T>> read(String key, Class<T> type) {
+        try {
+            Optional<KakaoLookup> lookup = kakaoLookupRepository.findById(hash(key))
+                    .filter(l -> l.getExpiresAt().isAfter(LocalDateTime.now()));
+            if (lookup.isEmpty()) return Optional.empty();
+            String body = lookup.get().getBody();
+            return Optional.of(new Hit<>(body == null ? null : OBJECT_MAPPER.readValue(body, type)));
+        } catch (JsonProcessingException | RuntimeException e) {
+            // 응답 형식이 바뀌었거나 DB 오류면 캐시가 없는 것으로 보고 API를 호출
+            log.warn("카카오 조회 캐시를 읽지 못했습니다 - {}", key, e);
+            return Optional.empty();
+        }
+    }
+
+    private <T> void write(String key, T value, Predicate<T> isEmpty) {
+        try {
+            boolean negative = value == null || isEmpty.test(value);
+            LocalDateTime expiresAt = negative
+                    ? LocalDateTime.now().plusHours(negativeTtlHours)
+                    : LocalDateTime.now().plusDays(ttlDays);
+            String body = value == null ? null : OBJECT_MAPPER.writeValueAsString(value);
+            kakaoLookupRepository.upsert(hash(key), body, expiresAt);
+        } catch (JsonProcessingException | RuntimeException e) {
+            // 캐시 저장 실패는 조회 결과에 영향을 주지 않는다
+            log.debug("카카오 조회 캐시를 저장하지 못했습니다 - {}", key, e);
+        }
+    }
+
+    private static String hash(String key) {
+        return Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString();
+    }
+
+    // 앞뒤 공백 제거, 연속 공백은 하나로
+    private static String normalizeText(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ");
+    }
+
+    // "37.50"과 "37.5"가 같은 키가 되도록
+    private static String normalizeCoordinate(String coordinate) {
+        if (coordinate == null) return "";
+        try {
+            return new BigDecimal(coordinate.trim()).stripTrailingZeros().toPlainString();
+        } catch (NumberFormatException e) {
+            return coordinate.trim();
+        }
+    }
+
+    private static final class Hit<T> {
+        private final T value;
+
+        Hit(T value) {
+            this.value = value;
+        }
+    }
+}
@@ -10,7 +10,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.transaction.Transactional;
@@ -24,6 +24,8 @@ import static com.mpnp.baechelin.common.DataClarification.categoryFilter;
 @RequiredArgsConstructor
 @Transactional
 public class LocationServiceRT implements LocationService {
+    private final WebClient webClient;
+    private final KakaoLookupCache kakaoLookupCache;
 
     @Value("${kakao.api.key}")
     private String kakaoApiKey;
@@ -43,10 +45,15 @@ public class LocationServiceRT implements LocationService {
 
     /**
      * @param address 변환할 주소
-     * @return RestTemplate를 이용해 변환한 위도, 경도
+     * @return 공용 WebClient를 이용해 변환한 위도, 경도
      * 위도/경도 -> 주소 이므로 <<1개 반환>>
      */
     private LocationKeywordSearchForm getLatLngByAddress(String address) {
+        return kakaoLookupCache.get(KakaoLookupCache.addressKey(address), LocationKeywordSearchForm.class,
+                KakaoLookupCache::hasNoDocuments, () -> requestLatLngByAddress(address));
+    }
+
+    private LocationKeywordSearchForm requestLatLngByAddress(String address) {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
         headers.setContentType(MediaType.APPLICATION_JSON);
@@ -60,11 +67,11 @@ public class LocationServiceRT implements LocationService {
                 .build()
                 .toUri();
 
-        RestTemplate restTemplate = new RestTemplate();
-        ResponseEntity<LocationKeywordSearchForm> resultRe = restTemplate.exchange(
-                uri, HttpMethod.GET, new HttpEntity<>(headers), LocationKeywordSearchForm.class
-        );
-        return resultRe.getBody();
+        return webClient.get().uri(uri)
+                .headers(httpHeaders -> httpHeaders.addAll(headers))
+                .retrieve()
+                .bodyToMono(LocationKeywordSearchForm.class)
+                .block();
     }
     // 주소 넣는 것으로 바꾸기
     // 주소 넣는 것으로 바꾸기
@@ -91,6 +98,11 @@ public class LocationServiceRT implements LocationService {
      * @return 위도, 경도, 업장명, 카테고리 코드 조건에 맞는 정보를 리턴
      */
     private LocationKeywordSearchForm getCategoryByCode(String lat, String lng, String storeName, String cateCode, int page) {
+        return kakaoLookupCache.get(KakaoLookupCache.keywordKey(lat, lng, storeName, cateCode, page), LocationKeywordSearchForm.class,
+                KakaoLookupCache::hasNoDocuments, () -> requestCategoryByCode(lat, lng, storeName, cateCode, page));
+    }
+
+    private LocationKeywordSearchForm requestCategoryByCode(String lat, String lng, String storeName, String cateCode, int page) {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
         headers.setContentType(MediaType.APPLICATION_JSON);
@@ -108,11 +120,11 @@ public class LocationServiceRT implements LocationService {
                 .build()
                 .toUri();
 
-        RestTemplate restTemplate = new RestTemplate();
-        ResponseEntity<LocationKeywordSearchForm> resultRe = restTemplate.exchange(
-                uri, HttpMethod.GET, new HttpEntity<>(headers), LocationKeywordSearchForm.class
-        );
-        return resultRe.getBody();
+        return webClient.get().uri(uri)
+                .headers(httpHeaders -> httpHeaders.addAll(headers))
+                .retrieve()
+                .bodyToMono(LocationKeywordSearchForm.class)
+                .block();
     }
 
     /**
@@ -176,15 +188,21 @@ public class LocationServiceRT implements LocationService {
                     }
                 }
             }
-        } while (locationKeywordSearchForm.getMeta().is_end()); // 마지막 페이지까지 검사
+        } while (!locationKeywordSearchForm.getMeta().is_end()); // 마지막 페이지까지 검사
     }
 
     /**
      * @param lat 위도
      * @param lng 경도
-     * @return 위도, 경도를 카카오맵 API(RestTemplate)를 통해 주소로 변환 후 DTO로 반환
+     * @return 위도, 경도를 카카오맵 API(공용 WebClient)를 통해 주소로 변환 후 DTO로 반환
      */
     public LocationPartDto.Address convertGeoToAddress(String lat, String lng) {
+        LocationAddressSearchForm locationAddressSearchForm = kakaoLookupCache.get(KakaoLookupCache.coordinateKey(lat, lng),
+                LocationAddressSearchForm.class, KakaoLookupCache::hasNoDocuments, () -> requestGeoToAddress(lat, lng));
+        return LocationPartDto.Address.formToDto(locationAddressSearchForm);
+    }
+
+    private LocationAddressSearchForm requestGeoToAddress(String lat, String lng) {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
         headers.setContentType(MediaType.APPLICATION_JSON);
@@ -197,11 +215,10 @@ public class LocationServiceRT implements LocationService {
                 .build()
                 .toUri();
 
-        RestTemplate restTemplate = new RestTemplate();
-        ResponseEntity<LocationAddressSearchForm> resultRe = restTemplate.exchange(
-                uri, HttpMethod.GET, new HttpEntity<>(headers), LocationAddressSearchForm.class
-        );
-        LocationAddressSearchForm locationKeywordSearchForm = resultRe.getBody();
-        return LocationPartDto.Address.formToDto(locationKeywordSearchForm);
+        return webClient.get().uri(uri)
+                .headers(httpHeaders -> httpHeaders.addAll(headers))
+                .retrieve()
+                .bodyToMono(LocationAddressSearchForm.class)
+                .block();
     }
 }
@@ -5,13 +5,11 @@ import com.mpnp.baechelin.api.dto.LocationPartDto;
 import com.mpnp.baechelin.api.model.LocationAddressSearchForm;
 import com.mpnp.baechelin.api.model.LocationKeywordSearchForm;
 import com.mpnp.baechelin.common.DataClarification;
-import com.mpnp.baechelin.common.httpclient.HttpConfig;
 import com.mpnp.baechelin.store.domain.Category;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
-import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 
@@ -26,7 +24,8 @@ import java.util.List;
 @RequiredArgsConstructor
 @Transactional
 public class LocationServiceWC implements LocationService {
-    private final HttpConfig httpConfig;
+    private final WebClient webClient;
+    private final KakaoLookupCache kakaoLookupCache;
 
     @Value("${kakao.api.key}")
     private String kakaoApiKey;
@@ -51,12 +50,12 @@ public class LocationServiceWC implements LocationService {
 
 
     private LocationKeywordSearchForm getLatLngByAddress(String address) {
-        WebClient client = WebClient.builder()
-                .baseUrl("https://dapi.kakao.com/v2/local/search/keyword.json")
-                .defaultUriVariables(Collections.singletonMap("url", "https://dapi.kakao.com/v2/local/search/keyword.json"))
-                .clientConnector(new ReactorClientHttpConnector(httpConfig.httpClient())) // 위의 타임아웃 적용
-                .build();
-        return client.get().uri(uriBuilder
+        return kakaoLookupCache.get(KakaoLookupCache.addressKey(address), LocationKeywordSearchForm.class,
+                KakaoLookupCache::hasNoDocuments, () -> requestLatLngByAddress(address));
+    }
+
+    private LocationKeywordSearchForm requestLatLngByAddress(String address) {
+        return webClient.get().uri("https://dapi.kakao.com/v2/local/search/keyword.json", uriBuilder
                         -> uriBuilder.queryParam("query", address)
 //                        .queryParam("category_group_code", "FD6") // 음식점으로 특정 - FD6
                         .queryParam("page", 1)
@@ -86,12 +85,12 @@ public class LocationServiceWC implements LocationService {
      * @return 위도, 경도, 업장명을 만족하는 장소 찾기
      */
     private LocationKeywordSearchForm getCategoryByCode(String lat, String lng, String storeName, String cateCode, int page) {
-        WebClient client = WebClient.builder()
-                .baseUrl("https://dapi.kakao.com/v2/local/search/keyword.json")
-                .defaultUriVariables(Collections.singletonMap("url", "https://dapi.kakao.com/v2/local/search/keyword.json"))
-                .clientConnector(new ReactorClientHttpConnector(httpConfig.httpClient())) // 위의타임아웃 적용
-                .build();
-        return client.get().uri(uriBuilder
+        return kakaoLookupCache.get(KakaoLookupCache.keywordKey(lat, lng, storeName, cateCode, page), LocationKeywordSearchForm.class,
+                KakaoLookupCache::hasNoDocuments, () -> requestCategoryByCode(lat, lng, storeName, cateCode, page));
+    }
+
+    private LocationKeywordSearchForm requestCategoryByCode(String lat, String lng, String storeName, String cateCode, int page) {
+        return webClient.get().uri("https://dapi.kakao.com/v2/local/search/keyword.json", uriBuilder
                         -> uriBuilder.queryParam("query", storeName)
 //                        .queryParam("category_group_code", "FD6") // 음식점으로 특정 - FD6
                         .queryParam("x", lng)//위도, 경도 지정
@@ -158,18 +157,13 @@ public class LocationServiceWC implements LocationService {
                     }
                 }
             }
-        } while (locationKeywordSearchForm.getMeta().is_end()); // 마지막 페이지까지 검사
+        } while (!locationKeywordSearchForm.getMeta().is_end()); // 마지막 페이지까지 검사
     }
 
 
 
     public LocationPartDto.Address convertGeoToAddress(String lat, String lng) {
-        WebClient client = WebClient.builder()
-                .baseUrl("https://dapi.kakao.com/v2/local/geo/coord2address.json")
-                .defaultUriVariables(Collections.singletonMap("url", "https://dapi.kakao.com/v2/local/geo/coord2address.json"))
-                .clientConnector(new ReactorClientHttpConnector(httpConfig.httpClient())) // 위의 타임아웃 적용
-                .build();
-        LocationAddressSearchForm locationAddressSearchForm = client.get().uri(uriBuilder
+        LocationAddressSearchForm locationAddressSearchForm = webClient.get().uri("https://dapi.kakao.com/v2/local/geo/coord2address.json", uriBuilder
                         -> uriBuilder
                         .queryParam("x", lng)//위도, 경도 지정
                         .queryParam("y", lat)
@@ -7,7 +7,11 @@ import com.mpnp.baechelin.exception.CustomException;
 import com.mpnp.baechelin.exception.ErrorCode;
 import com.mpnp.baechelin.store.domain.Category;
 import com.mpnp.baechelin.store.domain.Store;
+import com.mpnp.baechelin.store.index.StoreGridIndex;
+import com.mpnp.baechelin.store.index.StoreSearchIndex;
+import com.mpnp.baechelin.store.repository.StoreBulkRepository;
 import com.mpnp.baechelin.store.repository.StoreRepository;
+import com.mpnp.baechelin.store.service.StoreDetailCache;
 import com.mpnp.baechelin.store.service.StoreImageService;
 import com.mpnp.baechelin.store.service.StoreService;
 import lombok.RequiredArgsConstructor;
@@ -15,7 +19,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
 import software.amazon.ion.Decimal;
 
@@ -29,13 +33,25 @@ import java.util.stream.Collectors;
 @Slf4j
 public class PublicApiService {
     private final StoreRepository storeRepository;
+    private final StoreBulkRepository storeBulkRepository;
     private final LocationService locationService;
     private final StoreImageService storeImageService;
+    private final WebClient webClient;
+    private final StoreSearchIndex storeSearchIndex;
+    private final StoreGridIndex storeGridIndex;
+    private final StoreDetailCache storeDetailCache;
 
-    public PublicApiService(StoreRepository storeRepository, LocationServiceRT locationService, StoreImageService storeImageService) {
+    public PublicApiService(StoreRepository storeRepository, StoreBulkRepository storeBulkRepository, LocationServiceRT locationService,
+                            StoreImageService storeImageService, StoreSearchIndex storeSearchIndex, StoreGridIndex storeGridIndex,
+                            StoreDetailCache storeDetailCache, WebClient webClient) {
         this.storeRepository = storeRepository;
+        this.storeBulkRepository = storeBulkRepository;
         this.locationService = locationService;
         this.storeImageService = storeImageService;
+        this.storeSearchIndex = storeSearchIndex;
+        this.storeGridIndex = storeGridIndex;
+        this.storeDetailCache = storeDetailCache;
+        this.webClient = webClient;
     }
 
     @Value("${public.api.v1.key}")
@@ -56,11 +72,11 @@ public class PublicApiService {
                         publicApiRequestDto.getEndIndex())
                 .encode()
                 .toUri();
-        RestTemplate restTemplate = new RestTemplate();
-        ResponseEntity<PublicApiV1Form> resultRe = restTemplate.exchange(
-                uri, HttpMethod.GET, new HttpEntity<>(headers), PublicApiV1Form.class
-        );
-        PublicApiV1Form result = resultRe.getBody();
+        PublicApiV1Form result = webClient.get().uri(uri)
+                .headers(httpHeaders -> httpHeaders.addAll(headers))
+                .retrieve()
+                .bodyToMono(PublicApiV1Form.class)
+                .block();
         if (result == null) {
             return;
         }
@@ -119,16 +135,23 @@ public class PublicApiService {
     public void saveValidStores(List<PublicApiV1Form.Row> rows) {
         List<Store> storeList = rows.stream().filter(PublicApiV1Form.Row::validation)
                 .map(Store::new).collect(Collectors.toList());
-        // storeRepository 구현 시 save 호출하기
-        for (Store store : storeList) {
-            if (!storeRepository.existsById(store.getId())) {
-                saveStore(store);
-            }
-        }
+        saveStores(storeList);
+    }
+
+    /**
+     * 행마다 존재 여부를 확인하지 않고 JDBC 배치 upsert로 한 번에 저장 - 이미지는 새로 추가된 업장만 수집
+     * @param storeList 저장할 업장
+     */
+    public void saveStores(List<Store> storeList) {
+        if (storeList.isEmpty()) return;
+        List<Long> newStoreIds = storeBulkRepository.upsert(storeList);
+        newStoreIds.forEach(storeImageService::saveImage);
+        storeList.forEach(storeSearchIndex::upsert);
+        // 기존 업장도 이름, 주소, 좌표, 시설이 덮어써지므로 상세 캐시를 비우고 공간 인덱스를 다시 만든다 (거리순 조회 캐시도 함께 비워진다)
+        storeDetailCache.evictAll(storeList.stream().map(Store::getId).collect(Collectors.toList()));
+        storeGridIndex.refresh();
     }
-    @Transactional
     public void saveStore(Store store) {
-        storeRepository.save(store);
-        storeImageService.saveImage(store.getId());
+        saveStores(List.of(store));
     }
 }
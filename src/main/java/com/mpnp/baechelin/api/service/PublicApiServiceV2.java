@@ -5,8 +5,12 @@ import com.mpnp.baechelin.api.model.PublicApiCategoryForm;
 import com.mpnp.baechelin.api.model.PublicApiV2Form;
 import com.mpnp.baechelin.common.DataClarification;
 import com.mpnp.baechelin.store.domain.Store;
+import com.mpnp.baechelin.store.index.StoreGridIndex;
+import com.mpnp.baechelin.store.index.StoreSearchIndex;
+import com.mpnp.baechelin.store.repository.StoreBulkRepository;
 import com.mpnp.baechelin.api.dto.LocationInfoDto;
 import com.mpnp.baechelin.store.repository.StoreRepository;
+import com.mpnp.baechelin.store.service.StoreDetailCache;
 import com.mpnp.baechelin.store.service.StoreImageService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,7 +18,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.util.ResourceUtils;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.transaction.Transactional;
@@ -31,13 +35,25 @@ import java.util.stream.Collectors;
  */
 public class PublicApiServiceV2 {
     private final StoreRepository storeRepository;
+    private final StoreBulkRepository storeBulkRepository;
     private final LocationService locationService;
     private final StoreImageService storeImageService;
+    private final WebClient webClient;
+    private final StoreSearchIndex storeSearchIndex;
+    private final StoreGridIndex storeGridIndex;
+    private final StoreDetailCache storeDetailCache;
 
-    public PublicApiServiceV2(StoreRepository storeRepository, LocationServiceRT locationService, StoreImageService storeImageService) {
+    public PublicApiServiceV2(StoreRepository storeRepository, StoreBulkRepository storeBulkRepository, LocationServiceRT locationService,
+                              StoreImageService storeImageService, StoreSearchIndex storeSearchIndex, StoreGridIndex storeGridIndex,
+                              StoreDetailCache storeDetailCache, WebClient webClient) {
         this.storeRepository = storeRepository;
+        this.storeBulkRepository = storeBulkRepository;
         this.locationService = locationService;
         this.storeImageService = storeImageService;
+        this.storeSearchIndex = storeSearchIndex;
+        this.storeGridIndex = storeGridIndex;
+        this.storeDetailCache = storeDetailCache;
+        this.webClient = webClient;
     }
 
     @Value("${public.api.v2.key}")
@@ -78,12 +94,12 @@ public class PublicApiServiceV2 {
                 .build()
                 .toUri();
 
-        RestTemplate restTemplate = new RestTemplate();
         log.warn(uri.toString());
-        ResponseEntity<PublicApiV2Form> resultRe = restTemplate.exchange(
-                uri, HttpMethod.GET, new HttpEntity<>(headers), PublicApiV2Form.class
-        );
-        PublicApiV2Form result = resultRe.getBody();
+        PublicApiV2Form result = webClient.get().uri(uri)
+                .headers(httpHeaders -> httpHeaders.addAll(headers))
+                .retrieve()
+                .bodyToMono(PublicApiV2Form.class)
+                .block();
         if (result == null) // 결과가 없으면 false 리턴
             return;
         processForm(result);
@@ -131,11 +147,7 @@ public class PublicApiServiceV2 {
                 locationService.convertGeoAndStoreNameToKeyword(servList.getFaclLat(), servList.getFaclLng(), servList.getFaclNm());
         if (resultDto == null)
             return false;
-        Store nStore = new Store(resultDto, servList, barrierTagList);
-        if (!storeRepository.existsById(nStore.getId())) {
-            storeRepository.saveAndFlush(nStore);
-            storeImageService.saveImage(nStore.getId());
-        }
+        saveStores(List.of(new Store(resultDto, servList, barrierTagList)));
         return true;
     }
 
@@ -143,20 +155,27 @@ public class PublicApiServiceV2 {
      * @param servList       대상 Row
      * @param barrierTagList 배리어 태그 리스트
      */
-    @Transactional
     public void searchWithAddress(PublicApiV2Form.ServList servList, List<String> barrierTagList) {
         List<LocationInfoDto.LocationResponse> locationResponseMapList = locationService
                 .convertGeoAndAddressToKeyword(servList.getFaclLat(), servList.getFaclLng(), DataClarification.clarifyString(servList.getLcMnad()));
 
-        for (LocationInfoDto.LocationResponse locationResponse : locationResponseMapList) {
-            Store nStore = new Store(locationResponse, servList, barrierTagList);
+        saveStores(locationResponseMapList.stream()
+                .map(locationResponse -> new Store(locationResponse, servList, barrierTagList))
+                .collect(Collectors.toList()));
+    }
 
-            // ID 값으로 store 중복 검사해 중복되지 않을 시에만 리스트에 저장
-            if (!storeRepository.existsById(nStore.getId())) {
-                storeRepository.saveAndFlush(nStore);
-                storeImageService.saveImage(nStore.getId());
-            }
-        }
+    /**
+     * 행마다 existsById + saveAndFlush 하지 않고 JDBC 배치 upsert로 한 번에 저장 - 이미지는 새로 추가된 업장만 수집
+     * @param storeList 저장할 업장
+     */
+    private void saveStores(List<Store> storeList) {
+        if (storeList.isEmpty()) return;
+        List<Long> newStoreIds = storeBulkRepository.upsert(storeList);
+        newStoreIds.forEach(storeImageService::saveImage);
+        storeList.forEach(storeSearchIndex::upsert);
+        // 기존 업장도 이름, 주소, 좌표, 시설이 덮어써지므로 상세 캐시를 비우고 공간 인덱스를 다시 만든다 (거리순 조회 캐시도 함께 비워진다)
+        storeDetailCache.evictAll(storeList.stream().map(Store::getId).collect(Collectors.toList()));
+        storeGridIndex.refresh();
     }
 
     /**
@@ -174,12 +193,12 @@ public class PublicApiServiceV2 {
                 .encode()
                 .toUri();
 
-        RestTemplate restTemplate = new RestTemplate();
         log.warn(uri.toString());
-        ResponseEntity<PublicApiCategoryForm> resultRe = restTemplate.exchange(
-                uri, HttpMethod.GET, new HttpEntity<>(headers), PublicApiCategoryForm.class
-        );
-        PublicApiCategoryForm result = resultRe.getBody();
+        PublicApiCategoryForm result = webClient.get().uri(uri)
+                .headers(httpHeaders -> httpHeaders.addAll(headers))
+                .retrieve()
+                .bodyToMono(PublicApiCategoryForm.class)
+                .block();
         return mapTags(result);
     }
 
@@ -11,6 +11,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,4 +24,13 @@ public interface BookmarkRepository extends CrudRepository<Bookmark, Integer> {
 
     @Query(value = "select b.store_id from bookmark b where b.folder_id=:folderId order by b.created_at desc limit 1;", nativeQuery = true)
     Long findLatestStore(@Param("folderId") int folderId);
-}
\ No newline at end of file
+
+    @Query("select b.storeId.id from Bookmark b where b.userId = :user")
+    List<Long> findStoreIdsByUserId(@Param("user") User user);
+
+    @Query("select b.storeId.id from Bookmark b where b.userId = :user and b.storeId.id in :storeIds")
+    List<Long> findStoreIdsByUserIdAndStoreIdIn(@Param("user") User user, @Param("storeIds") Collection<Long> storeIds);
+
+    @Query("select b.storeId.id from Bookmark b where b.folderId = :folder")
+    List<Long> findStoreIdsByFolderId(@Param("folder") Folder folder);
+}
@@ -36,6 +36,7 @@ public class BookmarkService {
     private final StoreRepository storeRepository;
     private final UserRepository userRepository;
     private final StoreService storeService;
+    private final BookmarkedStoreCache bookmarkedStoreCache;
 
     @Transactional
     public void bookmark(BookmarkRequestDto bookmarkRequestDto, String socialId) {
@@ -56,7 +57,8 @@ public class BookmarkService {
 
         if (!bookmarkRepository.existsByStoreIdAndUserId(store, user)) {
             bookmarkRepository.save(bookmark);
-            storeService.updateBookmarkCnt(store, socialId);
+            bookmarkedStoreCache.add(user, store.getId());
+            storeService.addBookmarkCount(store, 1);
         }
     }
 
@@ -70,7 +72,8 @@ public class BookmarkService {
         Bookmark bookmark = bookmarkRepository.findByStoreIdAndUserId(store, user).orElseThrow(() -> new CustomException(ErrorCode.NO_BOOKMARK_FOUND));
         store.removeBookmark(bookmark);
         bookmarkRepository.delete(bookmark);
-        storeService.updateBookmarkCnt(store, socialId);
+        bookmarkedStoreCache.remove(user, store.getId());
+        storeService.addBookmarkCount(store, -1);
     }
 
 
@@ -0,0 +1,136 @@
+package com.mpnp.baechelin.bookmark.service;
+
+import com.mpnp.baechelin.bookmark.repository.BookmarkRepository;
+import com.mpnp.baechelin.config.redis.RedisKV;
+import com.mpnp.baechelin.user.domain.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+/**
+ * 유저별 북마크한 업장 id를 Redis Set으로 캐싱
+ * 업장 카드 목록에서 카드마다 북마크 여부를 조회하지 않고, 한 번에 확인하기 위해 사용
+ * 북마크가 바뀌면 Set을 고치지 않고 비우며, 유저별 버전으로 DB 읽기와 캐시 비우기의 순서가 뒤바뀌는 경우를 막는다
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookmarkedStoreCache {
+    // DB에서 전체를 읽어 채운 Set에만 들어있는 값 - 북마크 추가로 일부만 생긴 Set과 구분하기 위해 사용
+    private static final String LOADED = "loaded";
+
+    // KEYS[1] = Set, KEYS[2] = 버전 / ARGV[1] = 읽기 전 버전, ARGV[2] = TTL(초), ARGV[3..] = 값
+    // 그 사이 버전이 바뀌지 않았을 때만 Set을 교체한다
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+            "if (redis.call('GET', KEYS[2]) or '') ~= ARGV[1] then return 0 end " +
+                    "redis.call('DEL', KEYS[1]) " +
+                    "redis.call('SADD', KEYS[1], unpack(ARGV, 3)) " +
+                    "redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+                    "return 1", Long.class);
+    // KEYS[1] = Set, KEYS[2] = 버전 / ARGV[1] = TTL(초)
+    private static final RedisScript<Long> EVICT_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('INCR', KEYS[2]) " +
+                    "redis.call('EXPIRE', KEYS[2], ARGV[1]) " +
+                    "redis.call('DEL', KEYS[1]) " +
+                    "return 1", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final BookmarkRepository bookmarkRepository;
+
+    /**
+     * @param user     현재 접근하고 있는 유저
+     * @param storeIds 확인할 업장 id 리스트
+     * @return storeIds 중 유저가 북마크한 업장 id
+     */
+    public Set<Long> findBookmarkedStoreIds(User user, Collection<Long> storeIds) {
+        if (user == null || storeIds.isEmpty()) return Collections.emptySet();
+        Set<String> members;
+        try {
+            members = getOrLoad(user);
+        } catch (DataAccessException e) {
+            log.warn("BOOKMARK CACHE UNAVAILABLE - {}", e.getMessage());
+            return new HashSet<>(bookmarkRepository.findStoreIdsByUserIdAndStoreIdIn(user, storeIds));
+        }
+        Set<Long> result = new HashSet<>();
+        for (Long storeId : storeIds) {
+            if (members.contains(String.valueOf(storeId))) result.add(storeId);
+        }
+        return result;
+    }
+
+    /**
+     * 북마크 저장 트랜잭션이 커밋된 후 유저의 캐시를 비운다
+     */
+    public void add(User user, long storeId) {
+        evict(user);
+    }
+
+    /**
+     * 북마크 삭제 트랜잭션이 커밋된 후 유저의 캐시를 비운다
+     */
+    public void remove(User user, long storeId) {
+        evict(user);
+    }
+
+    /**
+     * 커밋된 후 유저의 버전을 올리고 Set을 삭제 - 버전을 먼저 올려야 진행 중인 적재가 이전 데이터를 다시 넣지 못한다
+     */
+    public void evict(User user) {
+        afterCommit(() -> stringRedisTemplate.execute(EVICT_SCRIPT, List.of(key(user), versionKey(user)),
+                String.valueOf(RedisKV.BOOKMARKED_STORE.getDuration().getSeconds())));
+    }
+
+    private Set<String> getOrLoad(User user) {
+        String key = key(user);
+        Set<String> members = stringRedisTemplate.opsForSet().members(key);
+        if (members != null && members.contains(LOADED)) return members;
+
+        // DB를 읽기 전의 버전 - 읽는 동안 북마크가 바뀌었으면 적재하지 않고 이번 조회에만 사용한다
+        String version = stringRedisTemplate.opsForValue().get(versionKey(user));
+        List<String> args = new ArrayList<>();
+        args.add(version == null ? "" : version);
+        args.add(String.valueOf(RedisKV.BOOKMARKED_STORE.getDuration().getSeconds()));
+        args.add(LOADED);
+        for (Long storeId : bookmarkRepository.findStoreIdsByUserId(user)) {
+            args.add(String.valueOf(storeId));
+        }
+        stringRedisTemplate.execute(LOAD_SCRIPT, List.of(key, versionKey(user)), args.toArray());
+        return new HashSet<>(args.subList(2, args.size()));
+    }
+
+    private void afterCommit(Runnable runnable) {
+        Runnable safeRunnable = () -> {
+            try {
+                runnable.run();
+            } catch (DataAccessException e) {
+                log.warn("BOOKMARK CACHE UPDATE FAILED - {}", e.getMessage());
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            safeRunnable.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                safeRunnable.run();
+            }
+        });
+    }
+
+    private String key(User user) {
+        return RedisKV.BOOKMARKED_STORE.getName() + "::" + user.getId();
+    }
+
+    private String versionKey(User user) {
+        return RedisKV.BOOKMARKED_STORE.getName() + "::version::" + user.getId();
+    }
+}
@@ -13,12 +13,14 @@ import com.mpnp.baechelin.exception.ErrorCode;
 import com.mpnp.baechelin.store.domain.Store;
 import com.mpnp.baechelin.store.domain.StoreImage;
 import com.mpnp.baechelin.store.repository.StoreRepository;
+import com.mpnp.baechelin.store.service.StoreDetailCache;
 import com.mpnp.baechelin.user.domain.User;
 import com.mpnp.baechelin.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -32,6 +34,8 @@ public class FolderService {
     private final UserRepository userRepository;
     private final BookmarkRepository bookmarkRepository;
     private final StoreRepository storeRepository;
+    private final BookmarkedStoreCache bookmarkedStoreCache;
+    private final StoreDetailCache storeDetailCache;
 
     /**
      * 폴더 생성
@@ -53,7 +57,17 @@ public class FolderService {
     /**
      * 폴더 삭제
      */
+    @Transactional
     public void folderDelete(int folderId) {
+        // 폴더 안의 북마크도 함께 삭제되므로 유저의 북마크 캐시를 비우고 업장의 북마크 수를 줄인다
+        folderRepository.findById(folderId).ifPresent(folder -> {
+            bookmarkedStoreCache.evict(folder.getUserId());
+            List<Long> storeIds = bookmarkRepository.findStoreIdsByFolderId(folder);
+            if (!storeIds.isEmpty()) {
+                storeRepository.addBookmarkCount(storeIds, -1, LocalDateTime.now());
+                storeDetailCache.evictAll(storeIds);
+            }
+        });
         folderRepository.deleteById(folderId);
     }
 
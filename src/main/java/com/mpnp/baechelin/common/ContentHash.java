@@ -0,0 +1,37 @@
+package com.mpnp.baechelin.common;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * API에서 받아오는 업장 컬럼의 64비트 지문 - store_api_update와 store의 값이 바뀌었는지 컬럼 하나로 비교
+ * 문자열은 앞뒤 공백을 빼고 null은 빈 문자열, 좌표는 소수점 7자리(약 1cm)로 반올림하고 끝자리 0을 빼서 계산한다
+ * - 저장하면서 DECIMAL 자릿수에 맞게 반올림된 값으로 다시 계산해도 같은 지문이 나오도록
+ */
+public class ContentHash {
+    // 필드 경계 - ("ab", "c")와 ("a", "bc")가 같은 값이 되지 않게
+    private static final char SEPARATOR = '\u001F';
+    private static final int COORDINATE_SCALE = 7;
+
+    public static long of(String category, String name, BigDecimal latitude, BigDecimal longitude, String address,
+                          String elevator, String toilet, String parking, String phoneNumber, String heightDifferent, String approach) {
+        Hasher hasher = Hashing.farmHashFingerprint64().newHasher();
+        for (Object field : new Object[]{category, name, latitude, longitude, address,
+                elevator, toilet, parking, phoneNumber, heightDifferent, approach}) {
+            hasher.putString(normalize(field), StandardCharsets.UTF_8).putChar(SEPARATOR);
+        }
+        return hasher.hash().asLong();
+    }
+
+    private static String normalize(Object field) {
+        if (field == null) return "";
+        if (field instanceof BigDecimal) {
+            return ((BigDecimal) field).setScale(COORDINATE_SCALE, RoundingMode.HALF_UP).stripTrailingZeros().toPlainString();
+        }
+        return field.toString().trim();
+    }
+}
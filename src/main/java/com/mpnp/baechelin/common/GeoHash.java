@@ -0,0 +1,58 @@
+package com.mpnp.baechelin.common;
+
+/**
+ * Geohash - 위도/경도를 2^n 격자로 나눈 칸의 이름
+ * 정밀도 p의 칸은 경도 ceil(5p/2)비트, 위도 floor(5p/2)비트로 나눈다 (p = 6 이면 약 1.2km x 0.6km)
+ */
+public class GeoHash {
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    public static String encode(double lat, double lng, int precision) {
+        double latMin = -90, latMax = 90, lngMin = -180, lngMax = 180;
+        StringBuilder sb = new StringBuilder(precision);
+        boolean lngBit = true;
+        int bit = 0, ch = 0;
+        while (sb.length() < precision) {
+            if (lngBit) {
+                double mid = (lngMin + lngMax) / 2;
+                if (lng >= mid) {
+                    ch = (ch << 1) | 1;
+                    lngMin = mid;
+                } else {
+                    ch <<= 1;
+                    lngMax = mid;
+                }
+            } else {
+                double mid = (latMin + latMax) / 2;
+                if (lat >= mid) {
+                    ch = (ch << 1) | 1;
+                    latMin = mid;
+                } else {
+                    ch <<= 1;
+                    latMax = mid;
+                }
+            }
+            lngBit = !lngBit;
+            if (++bit == 5) {
+                sb.append(BASE32[ch]);
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return 정밀도 p 칸의 위도 방향 크기(도)
+     */
+    public static double latHeight(int precision) {
+        return 180.0 / (1L << (5 * precision / 2));
+    }
+
+    /**
+     * @return 정밀도 p 칸의 경도 방향 크기(도)
+     */
+    public static double lngWidth(int precision) {
+        return 360.0 / (1L << ((5 * precision + 1) / 2));
+    }
+}
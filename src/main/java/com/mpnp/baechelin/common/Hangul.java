@@ -0,0 +1,51 @@
+package com.mpnp.baechelin.common;
+
+/**
+ * 한글 음절을 자모로 분해 - 입력 중인 글자(ex. "뱁" -> "배ㅂ")도 접두어로 비교할 수 있게 한다
+ * 겹모음, 겹받침도 낱자로 나눠서 "과" = ㄱㅗㅏ, "닭" = ㄷㅏㄹㄱ 으로 만든다
+ */
+public class Hangul {
+    private static final char SYLLABLE_START = 0xAC00;
+    private static final char SYLLABLE_END = 0xD7A3;
+    private static final char COMPATIBILITY_JAMO_START = 0x3131;
+    private static final char COMPATIBILITY_JAMO_END = 0x3163;
+
+    private static final String[] CHOSEONG = {
+            "ㄱ", "ㄱㄱ", "ㄴ", "ㄷ", "ㄷㄷ", "ㄹ", "ㅁ", "ㅂ", "ㅂㅂ", "ㅅ", "ㅅㅅ", "ㅇ", "ㅈ", "ㅈㅈ", "ㅊ", "ㅋ", "ㅌ", "ㅍ", "ㅎ"
+    };
+    private static final String[] JUNGSEONG = {
+            "ㅏ", "ㅐ", "ㅑ", "ㅒ", "ㅓ", "ㅔ", "ㅕ", "ㅖ", "ㅗ", "ㅗㅏ", "ㅗㅐ", "ㅗㅣ", "ㅛ", "ㅜ", "ㅜㅓ", "ㅜㅔ", "ㅜㅣ", "ㅠ", "ㅡ", "ㅡㅣ", "ㅣ"
+    };
+    private static final String[] JONGSEONG = {
+            "", "ㄱ", "ㄱㄱ", "ㄱㅅ", "ㄴ", "ㄴㅈ", "ㄴㅎ", "ㄷ", "ㄹ", "ㄹㄱ", "ㄹㅁ", "ㄹㅂ", "ㄹㅅ", "ㄹㅌ", "ㄹㅍ", "ㄹㅎ",
+            "ㅁ", "ㅂ", "ㅂㅅ", "ㅅ", "ㅅㅅ", "ㅇ", "ㅈ", "ㅊ", "ㅋ", "ㅌ", "ㅍ", "ㅎ"
+    };
+    // 호환용 자모(ㄱ ~ ㅣ)를 낱자로 - 쌍자음, 겹받침, 겹모음만 두 글자가 된다
+    private static final String[] COMPATIBILITY_JAMO = {
+            "ㄱ", "ㄱㄱ", "ㄱㅅ", "ㄴ", "ㄴㅈ", "ㄴㅎ", "ㄷ", "ㄷㄷ", "ㄹ", "ㄹㄱ", "ㄹㅁ", "ㄹㅂ", "ㄹㅅ", "ㄹㅌ", "ㄹㅍ", "ㄹㅎ",
+            "ㅁ", "ㅂ", "ㅂㅂ", "ㅂㅅ", "ㅅ", "ㅅㅅ", "ㅇ", "ㅈ", "ㅈㅈ", "ㅊ", "ㅋ", "ㅌ", "ㅍ", "ㅎ",
+            "ㅏ", "ㅐ", "ㅑ", "ㅒ", "ㅓ", "ㅔ", "ㅕ", "ㅖ", "ㅗ", "ㅗㅏ", "ㅗㅐ", "ㅗㅣ", "ㅛ", "ㅜ", "ㅜㅓ", "ㅜㅔ", "ㅜㅣ", "ㅠ", "ㅡ", "ㅡㅣ", "ㅣ"
+    };
+
+    /**
+     * @param text 분해할 문자열 - 한글이 아닌 글자는 소문자로만 바꾼다
+     * @return 자모로 분해한 문자열
+     */
+    public static String decompose(String text) {
+        StringBuilder sb = new StringBuilder(text.length() * 3);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= SYLLABLE_START && c <= SYLLABLE_END) {
+                int offset = c - SYLLABLE_START;
+                sb.append(CHOSEONG[offset / (21 * 28)])
+                        .append(JUNGSEONG[offset % (21 * 28) / 28])
+                        .append(JONGSEONG[offset % 28]);
+            } else if (c >= COMPATIBILITY_JAMO_START && c <= COMPATIBILITY_JAMO_END) {
+                sb.append(COMPATIBILITY_JAMO[c - COMPATIBILITY_JAMO_START]);
+            } else {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+}
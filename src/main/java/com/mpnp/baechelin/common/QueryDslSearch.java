@@ -13,15 +13,6 @@ import static com.mpnp.baechelin.store.domain.QStore.store;
 
 public class QueryDslSearch {
 
-    public static BooleanExpression matchAddressWithSido(String sido) {
-        if (StringUtils.isEmpty(sido)) {
-            return null;
-        }
-
-        return Expressions.numberTemplate(
-                Integer.class,
-                "function('match', {0}, {1}, {2})", store.address, store.address, sido).gt(0);
-    }
     private static BooleanExpression matchAddressWithSidoAndSigungu(String sido, String sigungu) {
 
         // sido가 null이면 sigungu는 무조건 null
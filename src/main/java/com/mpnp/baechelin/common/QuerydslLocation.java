@@ -1,11 +1,8 @@
 package com.mpnp.baechelin.common;
 
-import com.mpnp.baechelin.exception.CustomException;
-import com.mpnp.baechelin.exception.ErrorCode;
 import com.mpnp.baechelin.store.domain.Category;
+import com.mpnp.baechelin.store.domain.Facility;
 import com.querydsl.core.BooleanBuilder;
-import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.core.types.dsl.StringPath;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
@@ -15,32 +12,27 @@ import java.util.Locale;
 import static com.mpnp.baechelin.store.domain.QStore.store;
 
 public class QuerydslLocation {
+    // 위도, 경도를 백만 배 한 정수(마이크로도) - 조회 조건은 DECIMAL 컬럼 대신 Store.latE6, lngE6 정수 컬럼을 사용
+    public static final double E6 = 1_000_000d;
+
+    public static int toE6(double degree) {
+        return (int) Math.round(degree * E6);
+    }
+
     public static BooleanBuilder locationBuilder(BigDecimal latStart, BigDecimal latEnd, BigDecimal lngStart, BigDecimal lngEnd) {
         BooleanBuilder builder = new BooleanBuilder();
-        builder.and(latStart == null ? null : store.latitude.goe(latStart));
-        builder.and(latEnd == null ? null : store.latitude.loe(latEnd));
-        builder.and(lngStart == null ? null : store.longitude.goe(lngStart));
-        builder.and(lngEnd == null ? null : store.longitude.loe(lngEnd));
+        builder.and(latStart == null ? null : store.latE6.goe(toE6(latStart.doubleValue())));
+        builder.and(latEnd == null ? null : store.latE6.loe(toE6(latEnd.doubleValue())));
+        builder.and(lngStart == null ? null : store.lngE6.goe(toE6(lngStart.doubleValue())));
+        builder.and(lngEnd == null ? null : store.lngE6.loe(toE6(lngEnd.doubleValue())));
         return builder;
     }
 
-    private static BooleanExpression facilityTF(String facility) {
-        if (facility == null || facility.isEmpty()) return null;
-        return givePath(facility).eq("Y");
-    }
-
-    private static StringPath givePath(String dbFacility) {
-        if (dbFacility.equals("elevator"))
-            return store.elevator;
-        if (dbFacility.equals("heightDifferent"))
-            return store.heightDifferent;
-        if (dbFacility.equals("parking"))
-            return store.parking;
-        if (dbFacility.equals("approach"))
-            return store.approach;
-        if (dbFacility.equals("toilet"))
-            return store.toilet;
-        throw new CustomException(ErrorCode.INVALID_BARRIER_TAG);
+    public static BooleanBuilder locationBuilder(int latStartE6, int latEndE6, int lngStartE6, int lngEndE6) {
+        BooleanBuilder builder = new BooleanBuilder();
+        builder.and(store.latE6.between(latStartE6, latEndE6));
+        builder.and(store.lngE6.between(lngStartE6, lngEndE6));
+        return builder;
     }
 
     public static BooleanBuilder locAndConditions(BigDecimal latStart, BigDecimal latEnd, BigDecimal lngStart, BigDecimal lngEnd, String category, List<String> facility) {
@@ -48,11 +40,16 @@ public class QuerydslLocation {
         return getBooleanBuilder(category, facility, builder);
     }
 
+    public static BooleanBuilder locAndConditions(int latStartE6, int latEndE6, int lngStartE6, int lngEndE6, String category, List<String> facility) {
+        BooleanBuilder builder = locationBuilder(latStartE6, latEndE6, lngStartE6, lngEndE6);
+        return getBooleanBuilder(category, facility, builder);
+    }
+
 
     public static BooleanBuilder locTwoPointAndConditions(BigDecimal latitude, BigDecimal longitude, String category, List<String> facility) {
         BooleanBuilder builder = new BooleanBuilder();
         if (latitude != null && longitude != null) {
-            BigDecimal[] location = getRange(latitude, longitude, 3);
+            int[] location = getRangeE6(latitude.doubleValue(), longitude.doubleValue(), 3);
             builder = locationBuilder(location[0], location[1], location[2], location[3]);
         }
         return getBooleanBuilder(category, facility, builder);
@@ -60,23 +57,23 @@ public class QuerydslLocation {
 
     public static BooleanBuilder getBooleanBuilder(String category, List<String> facility, BooleanBuilder builder) {
         builder.and((category == null || category.equalsIgnoreCase("ALL")) ? null : store.category.eq(Category.giveCategoryDesc(category.toUpperCase())));
-        if (facility != null && facility.size() > 0) {
-            for (String fac : facility) {
-                builder.and(facilityTF(fac));
-            }
-        }
+        // 시설마다 문자열 비교를 하지 않고, 필요한 시설을 모두 가진 비트마스크 값들 중 하나인지 한 번에 확인
+        int required = Facility.maskOf(facility);
+        if (required != 0) builder.and(store.facilityMask.in(Facility.supersetsOf(required)));
         return builder;
     }
 
-    public static BigDecimal[] getRange(BigDecimal lat, BigDecimal lng, int km) {
+    /**
+     * @param km 반경
+     * @return 남서, 북동 {위도 시작, 위도 끝, 경도 시작, 경도 끝} - 마이크로도 단위
+     */
+    public static int[] getRangeE6(double lat, double lng, int km) {
         // km->lat,lng로 변환하기
-        if (lat == null || lng == null) return null;
-        final BigDecimal latitude = BigDecimal.valueOf(km / 110.569); // 반경
-        final BigDecimal longitude = BigDecimal.valueOf(km / 111.322);
-        // 남서, 북동으로 받아오기
-        // start lat-lng, end lat-lng으로 Array 받아오기
-        return new BigDecimal[]{lat.subtract(latitude), lat.add(latitude),
-                lng.subtract(longitude), lng.add(longitude)};
+        int latitude = (int) Math.round(km / 110.569 * E6);
+        int longitude = (int) Math.round(km / 111.322 * E6);
+        int latE6 = toE6(lat);
+        int lngE6 = toE6(lng);
+        return new int[]{latE6 - latitude, latE6 + latitude, lngE6 - longitude, lngE6 + longitude};
     }
 
 
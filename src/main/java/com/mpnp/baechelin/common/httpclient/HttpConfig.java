@@ -1,25 +1,113 @@
 package com.mpnp.baechelin.common.httpclient;
 
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.logging.LoggingMeterRegistry;
+import io.micrometer.core.instrument.logging.LoggingRegistryConfig;
 import io.netty.channel.ChannelOption;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutHandler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.stereotype.Component;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.time.Duration;
 import java.util.concurrent.TimeUnit;
-@Component
+
+/**
+ * 외부 API(카카오, 공공 데이터) 호출용 공용 클라이언트 - 호출하는 곳마다 RestTemplate, WebClient를 새로 만들지 않고 주입받아 사용
+ * - 커넥션 풀은 호스트별로 만들어지고 max-connections는 호스트 하나당 최대 커넥션 수
+ * - keep-alive, gzip 응답 압축 사용
+ * - 호스트(remote.address), 경로(uri)별 요청 시간, 풀 사용량은 reactor.netty.* 지표로 기록하고 http.metrics.log-step(기본 1분)마다 로그로 출력
+ * - 호스트별 요청 속도, 동시 요청 수 제한과 재시도는 UpstreamThrottleFilter
+ */
+@Configuration
 public class HttpConfig {
+    // 공공 API 시설 1000건 XML 응답이 기본 버퍼(256KB)보다 크다
+    private static final int MAX_IN_MEMORY_SIZE = 16 * 1024 * 1024;
+
+    @Value("${http.client.max-connections:50}")
+    private int maxConnections;
+    @Value("${http.client.pending-acquire-timeout:10000}")
+    private long pendingAcquireTimeout;
+    @Value("${http.client.max-idle-time:30000}")
+    private long maxIdleTime;
+    @Value("${http.client.connect-timeout:5000}")
+    private int connectTimeout;
+    @Value("${http.client.response-timeout:5000}")
+    private long responseTimeout;
+    @Value("${http.metrics.log-step:PT1M}")
+    private Duration metricsLogStep;
+
+    /**
+     * reactor-netty는 지표를 Metrics.globalRegistry에 등록하는데, actuator가 없으면 그 아래 실제 레지스트리가 없어 어디에도 남지 않는다
+     * reactor.netty.* 지표만 받는 로깅 레지스트리를 붙여서 "reactor.netty.http.client.response.time{remote.address=dapi.kakao.com:443, ...}" 형태로 로그에 출력
+     */
+    @Bean(destroyMethod = "close")
+    public LoggingMeterRegistry outboundMeterRegistry() {
+        LoggingMeterRegistry registry = new LoggingMeterRegistry(new LoggingRegistryConfig() {
+            @Override
+            public String get(String key) {
+                return null;
+            }
+
+            @Override
+            public Duration step() {
+                return metricsLogStep;
+            }
+        }, Clock.SYSTEM);
+        registry.config()
+                .meterFilter(MeterFilter.acceptNameStartsWith("reactor.netty"))
+                .meterFilter(MeterFilter.deny());
+        Metrics.addRegistry(registry);
+        return registry;
+    }
+
+    // 풀 지표가 등록되기 전에 로깅 레지스트리가 붙어 있도록 outboundMeterRegistry를 먼저 만든다
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider outboundConnectionProvider(LoggingMeterRegistry outboundMeterRegistry) {
+        return ConnectionProvider.builder("outbound")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeout))
+                // 서버가 먼저 끊은 유휴 커넥션을 재사용하지 않도록 주기적으로 정리
+                .maxIdleTime(Duration.ofMillis(maxIdleTime))
+                .evictInBackground(Duration.ofMillis(maxIdleTime))
+                .metrics(true)
+                .build();
+    }
+
     @Bean
-    public HttpClient httpClient(){
+    public HttpClient httpClient(ConnectionProvider outboundConnectionProvider) {
         // 타임아웃 설정
-        return HttpClient.create()
-                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000)
-                .responseTimeout(Duration.ofMillis(5000))
+        return HttpClient.create(outboundConnectionProvider)
+                .keepAlive(true)
+                .compress(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
+                .responseTimeout(Duration.ofMillis(responseTimeout))
+                // 쿼리스트링(서비스 키, 검색어)은 지표 태그에서 제외
+                .metrics(true, uri -> {
+                    int query = uri.indexOf('?');
+                    return query < 0 ? uri : uri.substring(0, query);
+                })
                 .doOnConnected(conn ->
-                        conn.addHandlerLast(new ReadTimeoutHandler(5000, TimeUnit.MILLISECONDS))
-                                .addHandlerLast(new WriteTimeoutHandler(5000, TimeUnit.MILLISECONDS)));
+                        conn.addHandlerLast(new ReadTimeoutHandler(responseTimeout, TimeUnit.MILLISECONDS))
+                                .addHandlerLast(new WriteTimeoutHandler(responseTimeout, TimeUnit.MILLISECONDS)));
+    }
+
+    @Bean
+    public WebClient outboundWebClient(HttpClient httpClient, UpstreamThrottleFilter upstreamThrottleFilter) {
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(upstreamThrottleFilter)
+                .exchangeStrategies(ExchangeStrategies.builder()
+                        .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(MAX_IN_MEMORY_SIZE))
+                        .build())
+                .build();
     }
 }
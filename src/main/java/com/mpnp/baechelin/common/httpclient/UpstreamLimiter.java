@@ -0,0 +1,100 @@
+package com.mpnp.baechelin.common.httpclient;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 외부 API 호스트 하나에 대한 요청 제한
+ * - 토큰 버킷 : 초당 ratePerSecond 개까지 요청 시작 (최대 ratePerSecond 개까지 몰아서 사용 가능)
+ * - AIMD 동시 요청 수 : 성공하면 한 창(limit 개)마다 1씩 늘리고, 과부하(429, 503, 연결 실패)면 절반으로 줄인다
+ * 허가를 못 받은 요청은 스레드를 막지 않고 Mono.delay로 기다렸다가 다시 시도
+ */
+@Slf4j
+public class UpstreamLimiter {
+    // 동시 요청 수 제한에 걸렸을 때 다시 확인하는 간격
+    private static final long CONCURRENCY_POLL_NANOS = Duration.ofMillis(20).toNanos();
+    // 한 번 과부하가 나면 이 시간 동안 들어온 과부하 응답으로는 다시 줄이지 않는다 - 동시에 실패한 요청들이 limit을 한꺼번에 1까지 떨어뜨리지 않도록
+    private static final long DECREASE_COOLDOWN_NANOS = Duration.ofSeconds(1).toNanos();
+    private static final int MIN_CONCURRENCY = 1;
+
+    private final String host;
+    private final double ratePerSecond;
+    private final double burst;
+    private final int maxConcurrency;
+
+    private double tokens;
+    private long refilledAt;
+    private double limit;
+    private int inFlight;
+    private long decreasedAt;
+
+    /**
+     * @param ratePerSecond  초당 요청 수
+     * @param maxConcurrency 동시 요청 수 상한 - 절반에서 시작해서 응답에 따라 조절
+     */
+    public UpstreamLimiter(String host, double ratePerSecond, int maxConcurrency) {
+        this.host = host;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = Math.max(1, ratePerSecond);
+        this.maxConcurrency = Math.max(MIN_CONCURRENCY, maxConcurrency);
+        this.tokens = burst;
+        this.refilledAt = System.nanoTime();
+        this.limit = Math.max(MIN_CONCURRENCY, this.maxConcurrency / 2.0);
+        this.decreasedAt = refilledAt - DECREASE_COOLDOWN_NANOS;
+    }
+
+    /**
+     * @param call       허가를 받은 뒤 실행할 요청
+     * @param isOverload 실패 중 동시 요청 수를 줄여야 하는 실패인지
+     */
+    public <T> Mono<T> execute(Supplier<Mono<T>> call, Predicate<Throwable> isOverload) {
+        return Mono.usingWhen(acquire(),
+                permit -> call.get(),
+                permit -> Mono.fromRunnable(() -> release(false)),
+                (permit, e) -> Mono.fromRunnable(() -> release(isOverload.test(e))),
+                permit -> Mono.fromRunnable(() -> release(false)));
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    // 허가를 못 받으면 기다린 뒤 빈 값으로 끝내고 repeatWhenEmpty로 다시 구독
+    private Mono<Boolean> acquire() {
+        return Mono.defer(() -> {
+            long waitNanos = tryAcquire();
+            return waitNanos == 0 ? Mono.just(true) : Mono.delay(Duration.ofNanos(waitNanos)).then(Mono.<Boolean>empty());
+        }).repeatWhenEmpty(repeats -> repeats);
+    }
+
+    /**
+     * @return 0이면 허가 획득, 아니면 다시 시도하기까지 기다릴 시간(ns)
+     */
+    private synchronized long tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - refilledAt) / 1e9 * ratePerSecond);
+        refilledAt = now;
+        if (inFlight >= (int) limit) return CONCURRENCY_POLL_NANOS;
+        if (tokens < 1) return Math.max(1, (long) ((1 - tokens) / ratePerSecond * 1e9));
+        tokens -= 1;
+        inFlight++;
+        return 0;
+    }
+
+    private synchronized void release(boolean overload) {
+        inFlight--;
+        long now = System.nanoTime();
+        if (overload) {
+            if (now - decreasedAt < DECREASE_COOLDOWN_NANOS) return;
+            decreasedAt = now;
+            limit = Math.max(MIN_CONCURRENCY, limit / 2);
+            log.warn("UPSTREAM OVERLOADED - {} concurrency limit -> {}", host, (int) limit);
+        } else {
+            limit = Math.min(maxConcurrency, limit + 1 / limit);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.mpnp.baechelin.common.httpclient;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.*;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 공용 WebClient 필터 - 요청 호스트별 UpstreamLimiter로 요청 속도, 동시 요청 수를 제한하고 429/5xx, 연결 실패는 지터를 준 지수 백오프로 재시도
+ * 재시도를 모두 실패하면 마지막 예외(WebClientResponseException 등)를 그대로 던진다
+ * 동시 요청 수는 응답 헤더를 받을 때까지만 센다
+ */
+@Component
+public class UpstreamThrottleFilter implements ExchangeFilterFunction {
+    private static final String KAKAO_HOST = "dapi.kakao.com";
+    private static final String PUBLIC_DATA_HOST = "apis.data.go.kr";
+    private static final double JITTER = 0.5;
+
+    private final Map<String, UpstreamLimiter> limiters = new ConcurrentHashMap<>();
+    private final Retry retry;
+
+    @Value("${http.upstream.kakao.rate:30}")
+    private double kakaoRate;
+    @Value("${http.upstream.kakao.max-concurrency:16}")
+    private int kakaoMaxConcurrency;
+    @Value("${http.upstream.public-data.rate:10}")
+    private double publicDataRate;
+    @Value("${http.upstream.public-data.max-concurrency:8}")
+    private int publicDataMaxConcurrency;
+    @Value("${http.upstream.default.rate:50}")
+    private double defaultRate;
+    @Value("${http.upstream.default.max-concurrency:32}")
+    private int defaultMaxConcurrency;
+
+    public UpstreamThrottleFilter(@Value("${http.upstream.max-retries:3}") int maxRetries,
+                                  @Value("${http.upstream.min-backoff:200}") long minBackoff,
+                                  @Value("${http.upstream.max-backoff:5000}") long maxBackoff) {
+        this.retry = Retry.backoff(maxRetries, Duration.ofMillis(minBackoff))
+                .maxBackoff(Duration.ofMillis(maxBackoff))
+                .jitter(JITTER)
+                .filter(UpstreamThrottleFilter::isRetryable)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        UpstreamLimiter limiter = limiters.computeIfAbsent(request.url().getHost(), this::createLimiter);
+        return limiter.execute(() -> next.exchange(request).flatMap(UpstreamThrottleFilter::failOnRetryableStatus),
+                        UpstreamThrottleFilter::isOverload)
+                .retryWhen(retry);
+    }
+
+    private UpstreamLimiter createLimiter(String host) {
+        if (KAKAO_HOST.equals(host)) return new UpstreamLimiter(host, kakaoRate, kakaoMaxConcurrency);
+        if (PUBLIC_DATA_HOST.equals(host)) return new UpstreamLimiter(host, publicDataRate, publicDataMaxConcurrency);
+        return new UpstreamLimiter(host, defaultRate, defaultMaxConcurrency);
+    }
+
+    // 재시도할 응답은 본문을 읽어 커넥션을 반납하고 예외로 바꾼다
+    private static Mono<ClientResponse> failOnRetryableStatus(ClientResponse response) {
+        int status = response.rawStatusCode();
+        if (status == 429 || status >= 500) return response.createException().flatMap(Mono::error);
+        return Mono.just(response);
+    }
+
+    private static boolean isRetryable(Throwable e) {
+        if (e instanceof WebClientResponseException) {
+            int status = ((WebClientResponseException) e).getRawStatusCode();
+            return status == 429 || status >= 500;
+        }
+        return e instanceof WebClientRequestException;
+    }
+
+    private static boolean isOverload(Throwable e) {
+        if (e instanceof WebClientResponseException) {
+            int status = ((WebClientResponseException) e).getRawStatusCode();
+            return status == 429 || status == 503;
+        }
+        return e instanceof WebClientRequestException;
+    }
+}
@@ -12,11 +12,17 @@ import com.mpnp.baechelin.api.service.LocationServiceRT;
 import com.mpnp.baechelin.common.DataClarification;
 import com.mpnp.baechelin.config.batch.requestDto.JsonDTO;
 import com.mpnp.baechelin.config.batch.requestDto.StoreDTO;
-import com.mpnp.baechelin.config.batch.util.ApiUpdateThread;
+import com.mpnp.baechelin.config.batch.util.StoreApiCrawler;
+import com.mpnp.baechelin.config.batch.util.StoreIdRangePartitioner;
 import com.mpnp.baechelin.exception.CustomException;
 import com.mpnp.baechelin.exception.ErrorCode;
 import com.mpnp.baechelin.store.domain.Store;
+import com.mpnp.baechelin.store.index.StoreGridIndex;
+import com.mpnp.baechelin.store.index.StoreRegionIndex;
+import com.mpnp.baechelin.store.index.StoreSearchIndex;
+import com.mpnp.baechelin.store.repository.StoreBulkRepository;
 import com.mpnp.baechelin.store.repository.StoreRepository;
+import com.mpnp.baechelin.store.service.StoreDetailCache;
 import com.mpnp.baechelin.store.service.StoreImageService;
 import com.mpnp.baechelin.storeApiUpdate.StoreApiUpdate;
 import com.mpnp.baechelin.storeApiUpdate.repository.StoreApiUpdateRepository;
@@ -25,25 +31,34 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.*;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.listener.JobExecutionListenerSupport;
+import org.springframework.batch.core.partition.support.TaskExecutorPartitionHandler;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.database.JdbcPagingItemReader;
 import org.springframework.batch.item.database.JpaItemWriter;
 import org.springframework.batch.item.database.JpaPagingItemReader;
+import org.springframework.batch.item.database.Order;
+import org.springframework.batch.item.database.builder.JdbcPagingItemReaderBuilder;
 import org.springframework.batch.item.database.builder.JpaPagingItemReaderBuilder;
 import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.batch.repeat.RepeatStatus;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.http.*;
 import org.springframework.scheduling.quartz.QuartzJobBean;
 import org.springframework.util.ResourceUtils;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
 import software.amazon.ion.Decimal;
 
 import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
 import javax.transaction.Transactional;
 import java.io.*;
 import java.net.URI;
@@ -61,11 +76,20 @@ public class BatchConfiguration {
     @Qualifier("locationServiceRT")
     private final LocationServiceRT        locationServiceRT;
     private final StoreRepository          storeRepository;
+    private final StoreBulkRepository      storeBulkRepository;
     private final JobBuilderFactory        jobBuilderFactory;   //Job 생성자
     private final StepBuilderFactory       stepBuilderFactory;  //Step 생성자
     private final EntityManagerFactory     entityManagerFactory;
     private final StoreApiUpdateRepository storeApiUpdateRepository;
     private final StoreImageService        storeImageService;
+    private final StoreRegionIndex         storeRegionIndex;
+    private final StoreSearchIndex         storeSearchIndex;
+    private final StoreGridIndex           storeGridIndex;
+    private final StoreDetailCache         storeDetailCache;
+    private final StoreApiCrawler          storeApiCrawler;
+    private final WebClient                webClient;
+    private final DataSource               dataSource;
+    private final StoreIdRangePartitioner  storeIdRangePartitioner;
 
 
 
@@ -73,129 +97,129 @@ public class BatchConfiguration {
 
     private static int STORE_SIZE = 0; //쓰기 단위인 청크사이즈
 
+    @Value("${store.sync.partitions:0}")
+    private int partitions;
+
 
 
     @Bean
     public Job JpaPageJob1_storeApiUpdate() throws JsonProcessingException{
         return jobBuilderFactory.get("JpaPageJob1_storeApiUpdate")
-//                .start(JpaPageJob1_step1()) // store_api_update API 응답데이터 받기
-                .start(jpaPageJob1_step2())  // 추가된 업장이 있으면 store 테이블에 INSERT
+                .start(jpaPageJob1_step1())  // store_api_update API 응답데이터 받기
+                .next(jpaPageJob1_step2())   // 추가된 업장이 있으면 store 테이블에 INSERT
 //                .start(JpaPageJob4_step1())  // 사라진 업장이 있으면 store 테이블에 DELETE
                 .next(JpaPageJob1_step4()) // 수정된 업장이 있다면 store 테이블에 UPDATE
+                .listener(storeRegionRefreshListener())
                 .build();
     }
 
+    /**
+     * 업장 이름, 주소가 바뀌었을 수 있으므로 Job이 끝나면 시/군/구 사전(자동완성 사전은 뒤따라 갱신), 검색 색인, 공간 인덱스를 다시 만들고 상세 캐시를 비운다
+     */
+    private JobExecutionListener storeRegionRefreshListener() {
+        return new JobExecutionListenerSupport() {
+            @Override
+            public void afterJob(JobExecution jobExecution) {
+                storeRegionIndex.refresh();
+                storeSearchIndex.refresh();
+                // 공간 인덱스를 다시 만들면 거리순 조회 캐시도 함께 비워진다
+                storeGridIndex.refresh();
+                storeDetailCache.clear();
+            }
+        };
+    }
 
 
 
-//    @Bean
-//    public Step JpaPageJob1_step1() throws JsonProcessingException{
-//
-//        return stepBuilderFactory.get("JpaPageJob2_step1")
-//                //청크사이즈 설정
-//                .<StoreApiUpdate, StoreApiUpdate>chunk(CHUNKSIZE)
-//                .reader(jpaPageJob1_ItemReader())
-//                .processor(jpaPageJob1_Processor())
-//                .writer(jpaPageJob1_dbItemWriter())
-//                .build();
-//
-//    }
-//
-//        @Bean
-//        public ListItemReader<StoreApiUpdate> jpaPageJob1_ItemReader() throws JsonProcessingException{
-//
-//            // System.currentTimeMillis(); --- 현재 시간을 밀리초(ms, 천분의 일초) 단위로 반환
-//            long sTime = System.currentTimeMillis(); // 시작시간
-//            Double sec = (System.currentTimeMillis() - sTime) / 1000.0;
-//            System.out.printf("시작 --- (%.2f초)%n", sec);
-//
-//
-//
-//            List<StoreApiUpdate> storeApiUpdateList = new ArrayList<>();
-//
-//            List<List<String>> csvList = readCSVFile("src/main/resources/static/sigungu.csv");
-//            List<List<List<String>>> csvListList = Lists.partition(csvList, csvList.size()/30);
-//
-//            System.out.println("Thred 갯수 -- >: "+ csvListList.size());
-//            List<ApiUpdateThread> apiUpdateThreadList = new ArrayList<>();
-//            int index = 1;
-//            for(List<List<String>> csvListAvg: csvListList){
-//                ApiUpdateThread apiUpdateThread = new ApiUpdateThread(csvListAvg, storeApiUpdateList, 1, publicV2Key, kokoaApiKey, index);
-//                apiUpdateThread.start();
-//                apiUpdateThreadList.add(apiUpdateThread);
-//                index ++;
-//            }
-//
-//            try {
-//                for (ApiUpdateThread apiUpdateThread: apiUpdateThreadList){
-//                    apiUpdateThread.join();
-//
-//                }
-//            } catch(Exception e){
-//                e.printStackTrace();
-//            }
-//
-//            log.info("store SIZE --> "+ storeApiUpdateList.size());
-//
-//            HttpHeaders  headers = new HttpHeaders();
-//            RestTemplate rest    = new RestTemplate();
-//            String body          = "";
-//
-//            HttpEntity<String>      requestEntity  = new HttpEntity<String>(body, headers);
-//            ResponseEntity<String>  responseEntity = rest.exchange("http://openapi.seoul.go.kr:8088/5274616b45736f7933376e6c525658/json/touristFoodInfo/1/1000/", HttpMethod.GET, requestEntity, String.class);
-//            HttpStatus              httpStatus     = responseEntity.getStatusCode();
-//            String                  response       = responseEntity.getBody();
-//
-//
-//            JsonDTO jsonDTO = new Gson().fromJson(response, JsonDTO.class);  //conversion using Gson Library.
-//            setInfos(jsonDTO);
-//
-//            storeApiUpdateList.addAll(saveValidStores(jsonDTO.getTouristFoodInfo().getRow()));
-//
-//
-//            log.info("store SIZE --> "+ storeApiUpdateList.size());
-//
-//            STORE_SIZE = storeApiUpdateList.size();
-//
-//            sec = (System.currentTimeMillis() - sTime) / 1000.0;
-//            System.out.printf("소요시간 --- (%.2f초)%n", sec);
-//            return new ListItemReader<>(storeApiUpdateList);
-//
-//
-//        }
-//
-//        private ItemProcessor<StoreApiUpdate, StoreApiUpdate> jpaPageJob1_Processor() {
-//            return storeApiUpdate -> {
-//
-//                log.info("********** This is jpaPageJob1_Processor");
-//                return storeApiUpdate;
-//
-//            };
-//        }
-//        @Bean
-//        public ItemWriter<StoreApiUpdate> jpaPageJob1_dbItemWriter(){
-//
-//            log.info("********** This is jpaPageJob1_dbItemWriter");
-//
-//            return list -> {
-//                for(StoreApiUpdate storeApiUpdate: list){
-//                    if(!storeApiUpdateRepository.existsById(storeApiUpdate.getId())){
-//                        storeImageService.saveImage(storeApiUpdate.getId());
-//                    }
-//                }
-//                storeApiUpdateRepository.saveAll(list);
-//            };
-//
-//        }
+
+    /**
+     * 파티션 수 - 0이면 CPU 코어 수
+     */
+    private int partitionCount() {
+        return partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * id 구간마다 workerStep을 별도 스레드에서 실행 - 동시에 도는 구간은 파티션 수까지
+     * executor는 빈으로 등록하지 않는다 - TaskExecutor 빈이 있으면 부트 기본 applicationTaskExecutor가 만들어지지 않는다
+     * 스레드는 구간마다 만들고 구간이 끝나면 사라지므로 따로 종료할 풀이 없다
+     */
+    private TaskExecutorPartitionHandler partitionHandler(Step workerStep) {
+        SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("store-sync-");
+        taskExecutor.setConcurrencyLimit(partitionCount());
+        TaskExecutorPartitionHandler partitionHandler = new TaskExecutorPartitionHandler();
+        partitionHandler.setStep(workerStep);
+        partitionHandler.setTaskExecutor(taskExecutor);
+        partitionHandler.setGridSize(partitionCount());
+        return partitionHandler;
+    }
+
+    /**
+     * id 구간 안에서 id 순으로 읽는 keyset 페이징 reader - 페이지마다 OFFSET 없이 "id > 마지막으로 읽은 id" 조건으로 다음 페이지를 읽는다
+     * 구간 밖의 join 대상과 섞이지 않도록 store 조건은 EXISTS 서브쿼리로 건다
+     */
+    private JdbcPagingItemReader<StoreApiUpdate> storeApiUpdateKeysetReader(String name, String condition, Long minId, Long maxId) {
+        Map<String, Object> parameterValues = new HashMap<>();
+        parameterValues.put(StoreIdRangePartitioner.MIN_ID, minId);
+        parameterValues.put(StoreIdRangePartitioner.MAX_ID, maxId);
+        return new JdbcPagingItemReaderBuilder<StoreApiUpdate>()
+                .name(name)
+                .dataSource(dataSource)
+                .pageSize(CHUNKSIZE)
+                .fetchSize(CHUNKSIZE)
+                .selectClause("id, category, name, latitude, longitude, address, elevator, toilet, parking, " +
+                        "phone_number, height_different, approach, content_hash")
+                .fromClause("store_api_update a")
+                .whereClause("id BETWEEN :minId AND :maxId AND " + condition)
+                .parameterValues(parameterValues)
+                .sortKeys(Map.of("id", Order.ASCENDING))
+                .rowMapper((rs, rowNum) -> StoreApiUpdate.builder()
+                        .id(rs.getLong("id"))
+                        .category(rs.getString("category"))
+                        .name(rs.getString("name"))
+                        .latitude(rs.getBigDecimal("latitude"))
+                        .longitude(rs.getBigDecimal("longitude"))
+                        .address(rs.getString("address"))
+                        .elevator(rs.getString("elevator"))
+                        .toilet(rs.getString("toilet"))
+                        .parking(rs.getString("parking"))
+                        .phoneNumber(rs.getString("phone_number"))
+                        .heightDifferent(rs.getString("height_different"))
+                        .approach(rs.getString("approach"))
+                        .contentHash(rs.getObject("content_hash", Long.class))
+                        .build())
+                .build();
+    }
+
+    /**
+     * 전국 시/군/구의 공공 API + 카카오 검색 결과를 store_api_update에 upsert
+     */
+    @Bean
+    public Step jpaPageJob1_step1() {
+        return stepBuilderFactory.get("jpaPageJob1_step1")
+                .tasklet((contribution, chunkContext) -> {
+                    contribution.incrementWriteCount((int) storeApiCrawler.crawl());
+                    return RepeatStatus.FINISHED;
+                })
+                .build();
+    }
 
 
 
     @Bean
-    public Step jpaPageJob1_step2() throws JsonProcessingException {
+    public Step jpaPageJob1_step2() {
         return stepBuilderFactory.get("jpaPageJob1_step2")
+                .partitioner("jpaPageJob1_step2_worker", storeIdRangePartitioner)
+                .partitionHandler(partitionHandler(jpaPageJob1_step2_worker()))
+                .build();
+    }
+
+    @Bean
+    public Step jpaPageJob1_step2_worker() {
+        return stepBuilderFactory.get("jpaPageJob1_step2_worker")
                 //청크사이즈 설정
                 .<StoreApiUpdate, Store>chunk(CHUNKSIZE)
-                .reader(jpaPageJob1_step2_ItemReader())
+                .reader(jpaPageJob1_step2_ItemReader(null, null))
                 .processor(jpaPageJob1_step2_Processor())
                 .writer(jpaPageJob1_step2_dbItemWriter())
                 .build();
@@ -203,15 +227,14 @@ public class BatchConfiguration {
     }
 
         @Bean
-        public JpaPagingItemReader<StoreApiUpdate> jpaPageJob1_step2_ItemReader() throws JsonProcessingException {
-
-            log.info("********** This is jpaPageJob1_step2_ItemReader");
-            return new JpaPagingItemReaderBuilder<StoreApiUpdate>()
-                    .name("jpaPageJob3_dbItemReader")
-                    .entityManagerFactory(entityManagerFactory)
-                    .pageSize(CHUNKSIZE)
-                    .queryString("select a from Store_api_update a left join Store b on a.id = b.id where b.id is null order by a.id asc")
-                    .build();
+        @StepScope
+        public JdbcPagingItemReader<StoreApiUpdate> jpaPageJob1_step2_ItemReader(@Value("#{stepExecutionContext['minId']}") Long minId,
+                                                                                  @Value("#{stepExecutionContext['maxId']}") Long maxId) {
+
+            log.info("********** This is jpaPageJob1_step2_ItemReader {} ~ {}", minId, maxId);
+            // store에 아직 없는 업장
+            return storeApiUpdateKeysetReader("jpaPageJob1_step2_ItemReader",
+                    "NOT EXISTS (SELECT 1 FROM store b WHERE b.id = a.id)", minId, maxId);
         }
 
 
@@ -226,11 +249,10 @@ public class BatchConfiguration {
 
         private ItemWriter<Store> jpaPageJob1_step2_dbItemWriter() {
             log.info("********** This is jpaPageJob1_step2_dbItemWriter");
+            // 청크 단위 JDBC 배치 upsert - 새로 추가된 업장만 이미지 수집
             return list -> {
-                for(Store store: list){
-                    System.out.println(store.getId());
-                }
-
+                List<Long> newStoreIds = storeBulkRepository.upsert(new ArrayList<>(list));
+                newStoreIds.forEach(storeImageService::saveImage);
             };
 
 //            JpaItemWriter<Store> jpaItemWriter = new JpaItemWriter<>();
@@ -292,11 +314,19 @@ public class BatchConfiguration {
 
 
     @Bean
-    public Step JpaPageJob1_step4() throws JsonProcessingException {
+    public Step JpaPageJob1_step4() {
         return stepBuilderFactory.get("JpaPageJob1_step4")
+                .partitioner("JpaPageJob1_step4_worker", storeIdRangePartitioner)
+                .partitionHandler(partitionHandler(JpaPageJob1_step4_worker()))
+                .build();
+    }
+
+    @Bean
+    public Step JpaPageJob1_step4_worker() {
+        return stepBuilderFactory.get("JpaPageJob1_step4_worker")
                 //청크사이즈 설정
                 .<StoreApiUpdate, Store>chunk(CHUNKSIZE)
-                .reader(JpaPageJob1_step4_ItemReader())
+                .reader(JpaPageJob1_step4_ItemReader(null, null))
                 .processor(JpaPageJob1_step4_Processor())
                 .writer(JpaPageJob1_step4_dbItemWriter())
                 .build();
@@ -305,49 +335,29 @@ public class BatchConfiguration {
 
 
         @Bean
-        public JpaPagingItemReader<StoreApiUpdate> JpaPageJob1_step4_ItemReader() throws JsonProcessingException {
-
-            log.info("********** This is JpaPageJob1_step4_ItemReader");
-            return new JpaPagingItemReaderBuilder<StoreApiUpdate>()
-                    .name("jpaPageJob5_dbItemReader")
-                    .entityManagerFactory(entityManagerFactory)
-                    .pageSize(CHUNKSIZE)
-                    .queryString("select a from Store_api_update a join Store b on a.id = b.id where a.id = b.id \n" +
-                            "and a.approach != b.approach \n" +
-                            "or a.address != b.address \n" +
-                            "or a.elevator != b.elevator  \n" +
-                            "or a.latitude != b.latitude \n" +
-                            "or a.longitude != b.longitude \n" +
-                            "or a.name != b.name \n" +
-                            "or a.parking != b.parking \n" +
-                            "or a.phoneNumber != b.phoneNumber\n" +
-                            "or a.heightDifferent != b.heightDifferent \n" +
-                            "or a.toilet != b.toilet order by a.id asc")
-                    .build();
+        @StepScope
+        public JdbcPagingItemReader<StoreApiUpdate> JpaPageJob1_step4_ItemReader(@Value("#{stepExecutionContext['minId']}") Long minId,
+                                                                                  @Value("#{stepExecutionContext['maxId']}") Long maxId) {
+
+            log.info("********** This is JpaPageJob1_step4_ItemReader {} ~ {}", minId, maxId);
+            // 컬럼마다 비교하지 않고 지문 하나만 비교 - store 쪽이 null이면 지문 계산 전에 저장된 행이므로 한 번 다시 저장
+            return storeApiUpdateKeysetReader("JpaPageJob1_step4_ItemReader",
+                    "EXISTS (SELECT 1 FROM store b WHERE b.id = a.id AND (b.content_hash IS NULL OR b.content_hash <> a.content_hash))",
+                    minId, maxId);
         }
 
 
         private ItemProcessor<StoreApiUpdate, Store> JpaPageJob1_step4_Processor() {
             log.info("********** This is JpaPageJob1_step4_Processor");
-            return storeApiUpdate -> {
-
-                Optional<Store> store = storeRepository.findById(storeApiUpdate.getId());
-                store.get().apiUpdate(storeApiUpdate);
-
-                return store.get();
-            };
+            // 영속 엔티티를 조회해 수정하면 커밋 때 행마다 UPDATE가 나가므로, 준영속 객체를 만들어 writer의 upsert로 한 번에 반영
+            return Store::new;
         }
 
 
         private ItemWriter<Store> JpaPageJob1_step4_dbItemWriter() {
             log.info("********** This is JpaPageJob1_step4_dbItemWriter"+ "  STORE_SIZE -->"+ STORE_SIZE);
 
-            return list -> {
-                for(Store store: list){
-                    System.out.println(store.getId());
-                }
-
-            };
+            return list -> storeBulkRepository.upsert(new ArrayList<>(list));
 
     //        return ((List<? extends Store> storeList) -> storeRepository.saveAll(storeList));
 //            JpaItemWriter<Store> jpaItemWriter = new JpaItemWriter<>();
@@ -393,12 +403,12 @@ public class BatchConfiguration {
                 .encode()
                 .toUri();
 
-        RestTemplate restTemplate = new RestTemplate();
         log.warn(uri.toString());
-        ResponseEntity<PublicApiCategoryForm> resultRe = restTemplate.exchange(
-                uri, HttpMethod.GET, new HttpEntity<>(headers), PublicApiCategoryForm.class
-        );
-        PublicApiCategoryForm result = resultRe.getBody();
+        PublicApiCategoryForm result = webClient.get().uri(uri)
+                .headers(httpHeaders -> httpHeaders.addAll(headers))
+                .retrieve()
+                .bodyToMono(PublicApiCategoryForm.class)
+                .block();
         return mapTags(result);
     }
 
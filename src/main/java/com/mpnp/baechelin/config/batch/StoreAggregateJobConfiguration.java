@@ -0,0 +1,110 @@
+package com.mpnp.baechelin.config.batch;
+
+import com.mpnp.baechelin.store.repository.StoreNearQueryCache;
+import com.mpnp.baechelin.store.repository.StoreRepository;
+import com.mpnp.baechelin.store.service.StoreDetailCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.listener.JobExecutionListenerSupport;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.database.JdbcPagingItemReader;
+import org.springframework.batch.item.database.Order;
+import org.springframework.batch.item.database.builder.JdbcPagingItemReaderBuilder;
+import org.springframework.batch.item.database.support.MySqlPagingQueryProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 업장 리뷰, 북마크 집계 정합성 보정 Job
+ * 리뷰, 북마크 쓰기 때 증감으로 유지되는 집계를 리뷰, 북마크 테이블 기준으로 다시 계산한다
+ * - reader : 업장 id만 id 순서(keyset)로 읽는다 - 마지막으로 읽은 id가 ExecutionContext에 남아 중단된 지점부터 재시작 가능
+ * - writer : 청크의 id 묶음을 UPDATE ... JOIN (SELECT store_id, SUM, COUNT ... GROUP BY) 한 번으로 갱신
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Configuration
+public class StoreAggregateJobConfiguration {
+    public static final String JOB_NAME = "storeAggregateJob";
+    // 이 시각 이후 집계가 바뀐 업장만 대상 - 빈 문자열이면 전체 업장
+    public static final String SINCE = "since";
+    // 실행을 시작한 시각 - 완료되면 다음 실행의 since가 된다
+    public static final String UNTIL = "until";
+
+    private static final int CHUNKSIZE = 500;
+
+    private final JobBuilderFactory   jobBuilderFactory;
+    private final StepBuilderFactory  stepBuilderFactory;
+    private final DataSource          dataSource;
+    private final StoreRepository     storeRepository;
+    private final StoreDetailCache    storeDetailCache;
+    private final StoreNearQueryCache storeNearQueryCache;
+
+    @Bean
+    public Job storeAggregateJob() {
+        return jobBuilderFactory.get(JOB_NAME)
+                .start(storeAggregateStep())
+                .listener(new JobExecutionListenerSupport() {
+                    @Override
+                    public void afterJob(JobExecution jobExecution) {
+                        storeNearQueryCache.invalidateAll();
+                    }
+                })
+                .build();
+    }
+
+    @Bean
+    public Step storeAggregateStep() {
+        return stepBuilderFactory.get("storeAggregateStep")
+                .<Long, Long>chunk(CHUNKSIZE)
+                .reader(storeAggregateReader(null))
+                .writer(storeAggregateWriter())
+                .build();
+    }
+
+    @Bean
+    @StepScope
+    public JdbcPagingItemReader<Long> storeAggregateReader(@Value("#{jobParameters['" + SINCE + "']}") String since) {
+        MySqlPagingQueryProvider queryProvider = new MySqlPagingQueryProvider();
+        queryProvider.setSelectClause("select id");
+        queryProvider.setFromClause("from store");
+        queryProvider.setSortKeys(Collections.singletonMap("id", Order.ASCENDING));
+
+        JdbcPagingItemReaderBuilder<Long> builder = new JdbcPagingItemReaderBuilder<Long>()
+                .name("storeAggregateReader")
+                .dataSource(dataSource)
+                .pageSize(CHUNKSIZE)
+                .rowMapper((rs, rowNum) -> rs.getLong("id"))
+                .queryProvider(queryProvider);
+
+        if (StringUtils.hasText(since)) {
+            queryProvider.setWhereClause("where aggregate_modified_at >= :since");
+            builder.parameterValues(Collections.singletonMap(SINCE, Timestamp.valueOf(LocalDateTime.parse(since))));
+        }
+        log.info("********** storeAggregateReader - since {}", StringUtils.hasText(since) ? since : "(all stores)");
+        return builder.build();
+    }
+
+    @Bean
+    public ItemWriter<Long> storeAggregateWriter() {
+        return storeIds -> {
+            List<Long> ids = new ArrayList<>(storeIds);
+            storeRepository.reconcileAggregates(ids);
+            storeDetailCache.evictAll(ids);
+        };
+    }
+}
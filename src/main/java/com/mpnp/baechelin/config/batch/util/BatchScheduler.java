@@ -3,21 +3,25 @@ package com.mpnp.baechelin.config.batch.util;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.mpnp.baechelin.config.batch.BatchConfiguration;
+import com.mpnp.baechelin.config.batch.StoreAggregateJobConfiguration;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.javacrumbs.shedlock.spring.annotation.EnableSchedulerLock;
 import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
-import org.springframework.batch.core.JobParameter;
-import org.springframework.batch.core.JobParameters;
-import org.springframework.batch.core.JobParametersInvalidException;
+import org.springframework.batch.core.*;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
 import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -27,9 +31,82 @@ import java.util.Map;
 @EnableSchedulerLock(defaultLockAtMostFor = "PT10S")
 public class BatchScheduler {
 
+    // 이 시간 동안 청크 커밋이 없었던 실행만 죽은 서버의 실행으로 본다 - 락이 먼저 풀려 다른 서버가 들어와도 살아있는 실행은 건드리지 않는다
+    private static final String LOCK_AT_MOST_FOR = "PT58M";
+
     private final BatchConfiguration batchConfiguration;
+    private final StoreAggregateJobConfiguration storeAggregateJobConfiguration;
 
     private final JobLauncher jobLauncher;
+    private final JobExplorer jobExplorer;
+    private final JobRepository jobRepository;
+
+    /**
+     * 업장 리뷰, 북마크 집계 정합성 보정 - 지난 실행이 끝난 뒤 집계가 바뀐 업장만 다시 계산한다
+     * 지난 실행이 실패했거나 서버가 죽어서 끝나지 못했다면 같은 파라미터로 재실행해 마지막 커밋 청크 다음부터 이어간다
+     */
+    @Scheduled(cron = "0 0 0-23 * * *") // 1시간에 한 번
+    @SchedulerLock(name = "storeAggregateScheduler", lockAtLeastFor = "PT50M", lockAtMostFor = LOCK_AT_MOST_FOR)
+    public void storeAggregateJob() {
+        JobInstance lastInstance = jobExplorer.getLastJobInstance(StoreAggregateJobConfiguration.JOB_NAME);
+        JobExecution lastExecution = lastInstance == null ? null : jobExplorer.getLastJobExecution(lastInstance);
+
+        JobParameters jobParameters;
+        if (lastExecution != null && lastExecution.getStatus() != BatchStatus.COMPLETED) {
+            if (lastExecution.isRunning()) {
+                // 실행이 lockAtMostFor보다 길어지면 락을 잡았어도 다른 서버의 실행이 아직 살아있을 수 있다
+                if (!isStale(lastExecution)) {
+                    log.info("STORE AGGREGATE JOB - execution {} is still running, skipped", lastExecution.getId());
+                    return;
+                }
+                abandon(lastExecution);
+            }
+            jobParameters = lastExecution.getJobParameters();
+        } else {
+            String since = lastExecution == null ? "" : lastExecution.getJobParameters().getString(StoreAggregateJobConfiguration.UNTIL);
+            jobParameters = new JobParametersBuilder()
+                    .addString(StoreAggregateJobConfiguration.SINCE, since)
+                    // 실행 중에 커밋되는 쓰기를 놓치지 않도록 다음 기준 시각을 조금 앞당겨 둔다
+                    .addString(StoreAggregateJobConfiguration.UNTIL, LocalDateTime.now().minusMinutes(5).toString())
+                    .toJobParameters();
+        }
+
+        try {
+            JobExecution execution = jobLauncher.run(storeAggregateJobConfiguration.storeAggregateJob(), jobParameters);
+            log.info("STORE AGGREGATE JOB - {} {}", execution.getStatus(), jobParameters);
+        } catch (JobExecutionAlreadyRunningException
+                 | JobInstanceAlreadyCompleteException
+                 | JobParametersInvalidException
+                 | JobRestartException e) {
+            log.error(e.getMessage());
+        }
+    }
+
+    /**
+     * @return Job, Step 실행의 마지막 갱신(청크 커밋)이 lockAtMostFor보다 오래되었는지
+     */
+    private boolean isStale(JobExecution execution) {
+        long lastUpdated = execution.getLastUpdated() == null ? 0 : execution.getLastUpdated().getTime();
+        for (StepExecution stepExecution : execution.getStepExecutions()) {
+            if (stepExecution.getLastUpdated() != null)
+                lastUpdated = Math.max(lastUpdated, stepExecution.getLastUpdated().getTime());
+        }
+        return System.currentTimeMillis() - lastUpdated > Duration.parse(LOCK_AT_MOST_FOR).toMillis();
+    }
+
+    private void abandon(JobExecution execution) {
+        Date now = new Date();
+        for (StepExecution stepExecution : execution.getStepExecutions()) {
+            if (stepExecution.getStatus().isRunning()) {
+                stepExecution.setStatus(BatchStatus.FAILED);
+                stepExecution.setEndTime(now);
+                jobRepository.update(stepExecution);
+            }
+        }
+        execution.setStatus(BatchStatus.FAILED);
+        execution.setEndTime(now);
+        jobRepository.update(execution);
+    }
 
 //    @Scheduled(cron = "0 30 4 1 1/1 ? *",zone = "Asia/Seoul")
 //    @SchedulerLock(name = "updateScheduler", lockAtLeastFor = "PT58M", lockAtMostFor = "PT59M")
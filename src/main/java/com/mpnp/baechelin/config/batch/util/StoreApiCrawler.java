@@ -0,0 +1,282 @@
+package com.mpnp.baechelin.config.batch.util;
+
+import com.mpnp.baechelin.api.dto.LocationInfoDto;
+import com.mpnp.baechelin.api.model.BarrierCode;
+import com.mpnp.baechelin.api.model.LocationKeywordSearchForm;
+import com.mpnp.baechelin.api.model.PublicApiCategoryForm;
+import com.mpnp.baechelin.api.model.PublicApiV2Form;
+import com.mpnp.baechelin.api.service.KakaoLookupCache;
+import com.mpnp.baechelin.common.DataClarification;
+import com.mpnp.baechelin.store.domain.Category;
+import com.mpnp.baechelin.store.domain.Store;
+import com.mpnp.baechelin.storeApiUpdate.StoreApiUpdate;
+import com.mpnp.baechelin.storeApiUpdate.repository.StoreApiUpdateBulkRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * static/sigungu.csv의 시/군/구 전체를 돌며 공공 API(배리어 프리 시설) -> 카카오 키워드 검색으로 업장을 찾아 store_api_update에 저장
+ * 지역 목록 조회 -> 시설 태그 조회 -> 카카오 검색 단계마다 동시 요청 수의 상한을 두고(flatMap concurrency),
+ * 실제 요청 속도, 동시 요청 수와 429/5xx 재시도는 공용 WebClient의 UpstreamThrottleFilter가 호스트별로 조절한다
+ * 결과는 하나의 Flux로 모아 BATCH_SIZE 묶음마다 순서대로 upsert 한다 - 공유 리스트, 스레드별 락 없이 저장 속도만큼만 요청이 진행된다
+ */
+@Slf4j
+@Component
+public class StoreApiCrawler {
+    private static final String SIGUNGU_CSV = "static/sigungu.csv";
+    private static final String FACILITY_LIST_URI = "http://apis.data.go.kr/B554287/DisabledPersonConvenientFacility/getDisConvFaclList";
+    private static final String FACILITY_EVAL_URI = "http://apis.data.go.kr/B554287/DisabledPersonConvenientFacility/getFacInfoOpenApiJpEvalInfoList";
+    private static final String KAKAO_KEYWORD_URI = "https://dapi.kakao.com/v2/local/search/keyword.json";
+    // 음식점, 카페
+    private static final List<String> CATEGORY_CODES = List.of("FD6", "CE7");
+    private static final int NUM_OF_ROWS = 1000;
+    // 카카오 키워드 검색이 허용하는 최대 페이지
+    private static final int KAKAO_MAX_PAGE = 45;
+
+    private final WebClient webClient;
+    private final StoreApiUpdateBulkRepository storeApiUpdateBulkRepository;
+    private final KakaoLookupCache kakaoLookupCache;
+    private final String publicKey;
+    private final String kakaoApiKey;
+    private final int publicApiConcurrency;
+    private final int kakaoConcurrency;
+
+    /**
+     * @param publicApiConcurrency 공공 API 단계(지역 목록, 시설 태그)마다 동시에 보낼 요청 수
+     * @param kakaoConcurrency     동시에 카카오 검색을 진행할 시설 수
+     */
+    public StoreApiCrawler(WebClient webClient,
+                           StoreApiUpdateBulkRepository storeApiUpdateBulkRepository,
+                           KakaoLookupCache kakaoLookupCache,
+                           @Value("${public.api.v2.key}") String publicKey,
+                           @Value("${kakao.api.key}") String kakaoApiKey,
+                           @Value("${store.crawler.public-api-concurrency:8}") int publicApiConcurrency,
+                           @Value("${store.crawler.kakao-concurrency:16}") int kakaoConcurrency) {
+        this.webClient = webClient;
+        this.storeApiUpdateBulkRepository = storeApiUpdateBulkRepository;
+        this.kakaoLookupCache = kakaoLookupCache;
+        this.publicKey = publicKey;
+        this.kakaoApiKey = kakaoApiKey;
+        this.publicApiConcurrency = publicApiConcurrency;
+        this.kakaoConcurrency = kakaoConcurrency;
+    }
+
+    /**
+     * @return store_api_update에 저장한 업장 수
+     */
+    public long crawl() {
+        long start = System.currentTimeMillis();
+        List<String[]> regions = readRegions();
+        Long saved = Flux.fromIterable(regions)
+                .flatMap(region -> fetchFacilities(region[0], region[1]), publicApiConcurrency)
+                .filter(PublicApiV2Form.ServList::validateServList)
+                .flatMap(servList -> fetchTags(servList.getWfcltId())
+                        .filter(tags -> !tags.isEmpty())
+                        .map(tags -> new TaggedFacility(servList, tags)), publicApiConcurrency)
+                .flatMap(this::searchStores, kakaoConcurrency)
+                // 같은 건물의 여러 시설에서 같은 업장이 중복으로 나온다
+                .distinct(StoreApiUpdate::getId)
+                .buffer(StoreApiUpdateBulkRepository.BATCH_SIZE)
+                .concatMap(chunk -> Mono.fromCallable(() -> {
+                    storeApiUpdateBulkRepository.upsert(chunk);
+                    return (long) chunk.size();
+                }).subscribeOn(Schedulers.boundedElastic()))
+                .reduce(0L, Long::sum)
+                .block();
+        log.info("STORE API CRAWL FINISHED - {} regions, {} stores, {}ms", regions.size(), saved, System.currentTimeMillis() - start);
+        return saved == null ? 0 : saved;
+    }
+
+    /**
+     * @return [시/도, 시/군/구] 목록
+     */
+    private List<String[]> readRegions() {
+        List<String[]> regions = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                new ClassPathResource(SIGUNGU_CSV).getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] lineContents = line.split(",", -1);
+                if (lineContents.length < 2 || lineContents[0].isBlank()) continue;
+                regions.add(new String[]{lineContents[0].trim(), lineContents[1].trim()});
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return regions;
+    }
+
+    /**
+     * @return 지역의 모든 페이지의 시설 - 첫 페이지의 totalCount로 나머지 페이지 수를 정한다
+     */
+    private Flux<PublicApiV2Form.ServList> fetchFacilities(String siDoNm, String cggNm) {
+        return fetchFacilityPage(siDoNm, cggNm, 1)
+                .flatMapMany(first -> {
+                    int pages = (first.getTotalCount() + NUM_OF_ROWS - 1) / NUM_OF_ROWS;
+                    return Flux.concat(Mono.just(first), Flux.range(2, Math.max(0, pages - 1))
+                            .concatMap(pageNo -> fetchFacilityPage(siDoNm, cggNm, pageNo)));
+                })
+                .flatMapIterable(form -> form.getServList() == null ? List.of() : Arrays.asList(form.getServList()))
+                .onErrorResume(e -> {
+                    log.warn("시설 목록 조회 실패 - {} {}", siDoNm, cggNm, e);
+                    return Flux.empty();
+                });
+    }
+
+    private Mono<PublicApiV2Form> fetchFacilityPage(String siDoNm, String cggNm, int pageNo) {
+        return webClient.get()
+                .uri(FACILITY_LIST_URI, uriBuilder -> uriBuilder
+                        .queryParam("serviceKey", publicKey)
+                        .queryParam("numOfRows", NUM_OF_ROWS)
+                        .queryParam("pageNo", pageNo)
+                        .queryParam("siDoNm", siDoNm)
+                        .queryParam("cggNm", cggNm)
+                        .queryParam("faclTyCd", "UC0B01")
+                        .build())
+                .accept(MediaType.APPLICATION_XML)
+                .retrieve()
+                .bodyToMono(PublicApiV2Form.class);
+    }
+
+    /**
+     * @param sisulNum 시설 고유 번호
+     * @return 시설의 배리어 프리 태그 - 조회에 실패하면 빈 리스트
+     */
+    private Mono<List<String>> fetchTags(String sisulNum) {
+        return webClient.get()
+                .uri(FACILITY_EVAL_URI, uriBuilder -> uriBuilder
+                        .queryParam("serviceKey", publicKey)
+                        .queryParam("wfcltId", sisulNum)
+                        .build())
+                .accept(MediaType.APPLICATION_XML)
+                .retrieve()
+                .bodyToMono(PublicApiCategoryForm.class)
+                .map(this::mapTags)
+                .onErrorResume(e -> {
+                    log.warn("시설 태그 조회 실패 - {}", sisulNum, e);
+                    return Mono.just(List.of());
+                });
+    }
+
+    /**
+     * @return 시설 주소 + 위/경도로 찾은 건물 안의 음식점, 카페
+     */
+    private Flux<StoreApiUpdate> searchStores(TaggedFacility facility) {
+        PublicApiV2Form.ServList servList = facility.servList;
+        String address = DataClarification.clarifyString(servList.getLcMnad());
+        return Flux.fromIterable(CATEGORY_CODES)
+                .concatMap(cateCode -> searchByCategory(servList.getFaclLat(), servList.getFaclLng(), address, cateCode))
+                .map(locationResponse -> new StoreApiUpdate(new Store(locationResponse, servList, facility.tags)));
+    }
+
+    /**
+     * 마지막 페이지(is_end)까지 한 페이지씩 차례로 조회
+     */
+    private Flux<LocationInfoDto.LocationResponse> searchByCategory(String lat, String lng, String address, String cateCode) {
+        return Flux.range(1, KAKAO_MAX_PAGE)
+                // 결과가 없는 페이지(negative 캐시 포함)는 meta가 없는 빈 응답으로 바꿔 다음 페이지를 조회하지 않게 한다
+                .concatMap(page -> fetchKakaoPage(lat, lng, address, cateCode, page).defaultIfEmpty(new LocationKeywordSearchForm()))
+                .takeUntil(form -> form.getMeta() == null || form.getMeta().is_end())
+                .flatMapIterable(this::toLocationResponses)
+                .onErrorResume(e -> {
+                    log.warn("카카오 검색 실패 - {} {}", address, cateCode, e);
+                    return Flux.empty();
+                });
+    }
+
+    /**
+     * 이전 수집에서 조회한 주소, 좌표는 카카오 조회 캐시에서 바로 꺼낸다
+     */
+    private Mono<LocationKeywordSearchForm> fetchKakaoPage(String lat, String lng, String address, String cateCode, int page) {
+        return kakaoLookupCache.getAsync(KakaoLookupCache.keywordKey(lat, lng, address, cateCode, page), LocationKeywordSearchForm.class,
+                KakaoLookupCache::hasNoDocuments, () -> requestKakaoPage(lat, lng, address, cateCode, page));
+    }
+
+    private Mono<LocationKeywordSearchForm> requestKakaoPage(String lat, String lng, String address, String cateCode, int page) {
+        return webClient.get()
+                .uri(KAKAO_KEYWORD_URI, uriBuilder -> uriBuilder
+                        .queryParam("query", address)
+                        .queryParam("x", lng)//위도, 경도 지정
+                        .queryParam("y", lat)
+                        .queryParam("category_group_code", cateCode) // 카테고리 그룹을 설정
+                        .queryParam("radius", 20)
+                        .queryParam("page", page)
+                        .queryParam("size", 15)
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .header("Authorization", kakaoApiKey)
+                .retrieve()
+                .bodyToMono(LocationKeywordSearchForm.class);
+    }
+
+    private List<LocationInfoDto.LocationResponse> toLocationResponses(LocationKeywordSearchForm form) {
+        List<LocationInfoDto.LocationResponse> resultList = new ArrayList<>();
+        if (form.getDocuments() == null) return resultList;
+        for (LocationKeywordSearchForm.Documents latLngDoc : form.getDocuments()) {
+            if (latLngDoc == null) continue;
+            LocationInfoDto.LocationResponse newResult = LocationInfoDto.LocationResponse.builder()
+                    .latitude(latLngDoc.getY())
+                    .longitude(latLngDoc.getX())
+                    .category(categoryFilter(latLngDoc.getCategory_name()))
+                    .storeName(latLngDoc.getPlace_name())
+                    .storeId(Long.parseLong(latLngDoc.getId()))
+                    .phoneNumber(latLngDoc.getPhone())
+                    .build();
+            if (newResult.validate()) {
+                resultList.add(newResult);
+            }
+        }
+        return resultList;
+    }
+
+    private String categoryFilter(String category) {
+        if (category == null) {
+            return Category.ETC.getDesc();
+        } else if (category.contains(">")) {
+            return Category.giveCategory(category.split(" > ")[1]).getDesc();
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * @param result API 결과로 나온 리스트
+     * @return DB에 맞게 리스트를 변환 - Input 한 개당 하나의 배리어 프리 정보가 생성되므로 첫 번째만 사용
+     */
+    private List<String> mapTags(PublicApiCategoryForm result) {
+        if (result == null || result.getServList() == null) return List.of();
+        PublicApiCategoryForm.ServList first = result.getServList().stream().findFirst().orElse(null);
+        if (first == null || !first.validation()) return List.of();
+        return Arrays.stream(first.getEvalInfo().split(","))
+                .map(BarrierCode::getColumnFromDesc)
+                .filter(code -> code != null && !code.equals(""))
+                .collect(Collectors.toList());
+    }
+
+    private static final class TaggedFacility {
+        private final PublicApiV2Form.ServList servList;
+        private final List<String> tags;
+
+        TaggedFacility(PublicApiV2Form.ServList servList, List<String> tags) {
+            this.servList = servList;
+            this.tags = tags;
+        }
+    }
+}
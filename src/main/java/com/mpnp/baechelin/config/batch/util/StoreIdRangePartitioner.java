@@ -0,0 +1,57 @@
+package com.mpnp.baechelin.config.batch.util;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * store_api_update를 행 수가 고른 gridSize 개의 id 구간으로 나눈다 - 구간마다 [minId, maxId]를 읽는 worker step이 병렬로 실행된다
+ * 업장 id(카카오 장소 id)는 띄엄띄엄 몰려 있어서 MIN ~ MAX를 같은 폭으로 자르면 한 구간에 행이 쏠린다
+ * id 순서로 step 번째마다 id를 뽑아(분위수) 구간의 시작 id로 쓴다
+ */
+@Component
+@RequiredArgsConstructor
+public class StoreIdRangePartitioner implements Partitioner {
+    public static final String MIN_ID = "minId";
+    public static final String MAX_ID = "maxId";
+
+    private static final String BOUNDS_SQL = "SELECT COUNT(*) AS row_count, MAX(id) AS max_id FROM store_api_update";
+    // 1, step + 1, 2 * step + 1 ... 번째 id - 구간마다 step 개의 행
+    private static final String BOUNDARY_SQL = "SELECT id FROM (SELECT id, ROW_NUMBER() OVER (ORDER BY id) AS rn FROM store_api_update) ranked " +
+            "WHERE MOD(rn - 1, ?) = 0 ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, Object> bounds = jdbcTemplate.queryForMap(BOUNDS_SQL);
+        long rowCount = ((Number) bounds.get("row_count")).longValue();
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        if (rowCount == 0) {
+            // 빈 테이블 - 아무것도 읽지 않는 구간 하나
+            partitions.put("partition0", range(0, -1));
+            return partitions;
+        }
+        long maxId = ((Number) bounds.get("max_id")).longValue();
+        long step = (rowCount + Math.max(1, gridSize) - 1) / Math.max(1, gridSize);
+        List<Long> boundaries = jdbcTemplate.queryForList(BOUNDARY_SQL, Long.class, step);
+        for (int i = 0; i < boundaries.size(); i++) {
+            long to = i + 1 < boundaries.size() ? boundaries.get(i + 1) - 1 : maxId;
+            partitions.put("partition" + i, range(boundaries.get(i), to));
+        }
+        return partitions;
+    }
+
+    private static ExecutionContext range(long minId, long maxId) {
+        ExecutionContext context = new ExecutionContext();
+        context.putLong(MIN_ID, minId);
+        context.putLong(MAX_ID, maxId);
+        return context;
+    }
+}
@@ -53,17 +53,30 @@ public class RedisConfig {
         return redisTemplate;
     }
 
+    /**
+     * 캐시 값 직렬화 방식 - smile(기본, 압축 포함) 또는 jdk
+     */
+    @Bean
+    public RedisSerializer<Object> cacheValueSerializer(@Value("${cache.redis.serializer:smile}") String serializer,
+                                                        @Value("${cache.redis.compress-threshold:1024}") int compressThreshold) {
+        if ("jdk".equalsIgnoreCase(serializer)) {
+            return new JdkSerializationRedisSerializer();
+        }
+        return new SmileRedisSerializer(compressThreshold);
+    }
+
     @Bean(name = "cacheManager")
-    public RedisCacheManager redisCacheManager(RedisConnectionFactory redisConnectionFactory){
+    public RedisCacheManager redisCacheManager(RedisConnectionFactory redisConnectionFactory, RedisSerializer<Object> cacheValueSerializer){
 
         RedisCacheConfiguration redisCacheConfiguration =
                 RedisCacheConfiguration.defaultCacheConfig()
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new JdkSerializationRedisSerializer()));
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(cacheValueSerializer));
 
+        // 캐시별 설정은 기본 설정에서 TTL만 바꿔서 직렬화 설정을 그대로 가져간다
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
-        cacheConfigurations.put(RedisKV.USER.getName(), RedisCacheConfiguration.defaultCacheConfig().entryTtl(RedisKV.USER.getDuration()));
-        cacheConfigurations.put(RedisKV.STORE.getName(), RedisCacheConfiguration.defaultCacheConfig().entryTtl(RedisKV.STORE.getDuration()));
+        cacheConfigurations.put(RedisKV.USER.getName(), redisCacheConfiguration.entryTtl(RedisKV.USER.getDuration()));
+        cacheConfigurations.put(RedisKV.STORE.getName(), redisCacheConfiguration.entryTtl(RedisKV.STORE.getDuration()));
 
         return RedisCacheManager.RedisCacheManagerBuilder.fromConnectionFactory(redisConnectionFactory).cacheDefaults(redisCacheConfiguration)
                 .withInitialCacheConfigurations(cacheConfigurations).build();
@@ -6,7 +6,8 @@ import java.time.Duration;
 @Getter
 public enum RedisKV {
     USER("user", Duration.ofSeconds(200)),
-    STORE("store", Duration.ofSeconds(60));
+    STORE("store", Duration.ofMinutes(10)),
+    BOOKMARKED_STORE("bookmarkedStore", Duration.ofMinutes(30));
 
     RedisKV(String name, Duration duration) {
         this.name = name;
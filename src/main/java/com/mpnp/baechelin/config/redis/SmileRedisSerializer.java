@@ -0,0 +1,98 @@
+package com.mpnp.baechelin.config.redis;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 캐시 값 직렬화 - JDK 직렬화 대신 Jackson Smile(바이너리 JSON)을 사용
+ * 첫 바이트로 압축 여부를 표시하고, compressThreshold 바이트를 넘는 값만 Deflate로 압축한다
+ */
+public class SmileRedisSerializer implements RedisSerializer<Object> {
+    private static final byte PLAIN = 0;
+    private static final byte DEFLATED = 1;
+    // 배포 전에 JDK 직렬화로 저장된 값은 캐시 미스로 처리한다
+    private static final byte JDK_STREAM_MAGIC = (byte) 0xAC;
+
+    private final ObjectMapper objectMapper;
+    private final int compressThreshold;
+
+    /**
+     * @param compressThreshold 이 크기(바이트)를 넘는 값만 압축 - 0 이하면 압축하지 않음
+     */
+    public SmileRedisSerializer(int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+        this.objectMapper = createObjectMapper();
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) return new byte[0];
+        try {
+            byte[] smile = objectMapper.writeValueAsBytes(value);
+            boolean compress = compressThreshold > 0 && smile.length > compressThreshold;
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compress ? smile.length / 2 : smile.length + 1);
+            out.write(compress ? DEFLATED : PLAIN);
+            if (compress) {
+                try (DeflaterOutputStream deflater = new DeflaterOutputStream(out, new Deflater(Deflater.BEST_SPEED))) {
+                    deflater.write(smile);
+                }
+            } else {
+                out.write(smile);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Could not write Smile: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0 || bytes[0] == JDK_STREAM_MAGIC) return null;
+        try {
+            if (bytes[0] == DEFLATED) {
+                try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1))) {
+                    return objectMapper.readValue(in, Object.class);
+                }
+            }
+            return objectMapper.readValue(bytes, 1, bytes.length - 1, Object.class);
+        } catch (IOException e) {
+            throw new SerializationException("Could not read Smile: " + e.getMessage(), e);
+        }
+    }
+
+    private static ObjectMapper createObjectMapper() {
+        // 역직렬화할 수 있는 타입을 프로젝트 DTO와 기본 값 타입으로 제한
+        PolymorphicTypeValidator typeValidator = BasicPolymorphicTypeValidator.builder()
+                .allowIfSubType("com.mpnp.baechelin.")
+                .allowIfSubType("java.util.")
+                .allowIfSubType("java.time.")
+                .allowIfSubType("java.math.")
+                .build();
+
+        ObjectMapper objectMapper = new ObjectMapper(new SmileFactory());
+        objectMapper.registerModule(new JavaTimeModule());
+        // DTO는 setter가 없으므로 필드로 읽고 쓴다 - withBookmark 같은 메서드는 프로퍼티로 보지 않음
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        objectMapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        objectMapper.activateDefaultTyping(typeValidator, ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        return objectMapper;
+    }
+}
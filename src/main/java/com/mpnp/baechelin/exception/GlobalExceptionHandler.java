@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.reactive.function.client.WebClientException;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 @Slf4j
@@ -57,6 +58,12 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         log.error("API 로드에 실패했습니다");
         return ErrorResponse.toResponseEntity(ErrorCode.API_LOAD_FAILURE);
     }
+
+    @ExceptionHandler(value = WebClientException.class)
+    protected ResponseEntity<ErrorResponse> handleWebClientException(WebClientException e) {
+        log.error("API 로드에 실패했습니다 : {}", e.getMessage());
+        return ErrorResponse.toResponseEntity(ErrorCode.API_LOAD_FAILURE);
+    }
     @ExceptionHandler(MaxUploadSizeExceededException.class)
     public ResponseEntity<ErrorResponse> handleMaxUploadSizeExceededException(Exception ex){
         log.warn("파일 용량 초과 문제: {}",ex.getMessage());
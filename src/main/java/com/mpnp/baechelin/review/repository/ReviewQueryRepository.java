@@ -29,7 +29,7 @@ public class ReviewQueryRepository extends QuerydslRepositorySupport {
                                           int limit) {
         BooleanBuilder builder = new BooleanBuilder();
         if (lat != null && lng != null) {
-            BigDecimal[] location = QuerydslLocation.getRange(lat, lng, 10);
+            int[] location = QuerydslLocation.getRangeE6(lat.doubleValue(), lng.doubleValue(), 10);
             builder = QuerydslLocation.locationBuilder(location[0], location[1], location[2], location[3]);
         }
         // 위도 경도에 해당하는 가게를 찾음 -> 해당 댓글을 다 가져옴 -> 내림차순 정렬 -> limit
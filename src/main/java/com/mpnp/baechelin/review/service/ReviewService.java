@@ -86,8 +86,8 @@ public class ReviewService {
 
         tagRepository.saveAll(tagList);
         reviewImageRepository.saveAll(reviewImageUrlList);
-        reviewRepository.save(review); // 아래의 {store.updatePointAvg()} 보다 리뷰가 먼저 처리되게 해야한다.
-        storeService.updateAvg(store, socialId);
+        reviewRepository.save(review);
+        storeService.addReviewPoint(store, review.getPoint());
     }
 
 
@@ -212,11 +212,12 @@ public class ReviewService {
             tagRepository.saveAll(tagList);
         }
 
+        double oldPoint = review.getPoint();
         review.update(reviewRequestDto);
-        reviewRepository.save(review); // 아래의 store.updatePointAvg() 보다 리뷰가 먼저 처리되게 해야한다.
+        reviewRepository.save(review);
         reviewImageRepository.saveAll(reviewImageUrlList);
         // REDIS CACHE
-        storeService.updateAvg(store, socialId);
+        storeService.changeReviewPoint(store, oldPoint, review.getPoint());
     }
 
 
@@ -244,9 +245,8 @@ public class ReviewService {
                 awsS3Manager.deleteFile(reviewImage.getReviewImageUrl().substring(reviewImage.getReviewImageUrl().indexOf("com/") + 4));
             }
         }
-        store.removeReview(review);
         // REDIS CACHE
-        storeService.updateAvg(store, socialId);
+        storeService.removeReviewPoint(store, review.getPoint());
     }
 
 
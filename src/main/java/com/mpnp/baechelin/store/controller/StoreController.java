@@ -6,8 +6,10 @@ import com.mpnp.baechelin.exception.ErrorCode;
 import com.mpnp.baechelin.login.jwt.AuthToken;
 import com.mpnp.baechelin.login.jwt.AuthTokenProvider;
 import com.mpnp.baechelin.store.domain.Store;
+import com.mpnp.baechelin.store.dto.StoreClusterResponseDto;
 import com.mpnp.baechelin.store.dto.StoreDetailResponseDto;
 import com.mpnp.baechelin.store.dto.StorePagedResponseDto;
+import com.mpnp.baechelin.store.dto.StoreSuggestResponseDto;
 import com.mpnp.baechelin.store.repository.StoreRepository;
 import com.mpnp.baechelin.store.service.StoreService;
 import io.swagger.annotations.Api;
@@ -25,6 +27,8 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.Size;
 import java.math.BigDecimal;
 import java.util.List;
@@ -48,8 +52,9 @@ public class StoreController {
                                                  @RequestParam(required = false) String category,
                                                  @RequestParam(required = false) List<String> facility,
                                                  @PageableDefault Pageable pageable,
+                                                 @RequestParam(required = false, defaultValue = "true") boolean withTotal,
                                                  @AuthenticationPrincipal User user) {
-        return storeService.getStoreInOnePointRange(lat, lng, category, facility, pageable, user == null ? null : user.getUsername());
+        return storeService.getStoreInOnePointRange(lat, lng, category, facility, pageable, user == null ? null : user.getUsername(), withTotal);
     }
 
     @ApiOperation(value = "지도에서 조건에 맞는 업장 목록을 반환하는 메소드")
@@ -61,10 +66,24 @@ public class StoreController {
                                                  @RequestParam(required = false) String category,
                                                  @RequestParam(required = false) List<String> facility,
                                                  @PageableDefault Pageable pageable,
+                                                 @RequestParam(required = false, defaultValue = "true") boolean withTotal,
                                                  @AuthenticationPrincipal User user) {
-        return storeService.getStoreInTwoPointRange(latStart, latEnd, lngStart, lngEnd, category, facility, pageable, user == null ? null : user.getUsername());
+        return storeService.getStoreInTwoPointRange(latStart, latEnd, lngStart, lngEnd, category, facility, pageable, user == null ? null : user.getUsername(), withTotal);
     }
 
+    @ApiOperation(value = "지도 화면 범위의 업장을 줌 레벨에 맞는 칸으로 묶어 칸별 업장 수, 중심점, 시설별 업장 수를 반환하는 메소드")
+    @GetMapping("/cluster")
+    public StoreClusterResponseDto getStoreClusters(@RequestParam BigDecimal latStart,
+                                                    @RequestParam BigDecimal latEnd,
+                                                    @RequestParam BigDecimal lngStart,
+                                                    @RequestParam BigDecimal lngEnd,
+                                                    @RequestParam @Min(1) @Max(21) int zoom,
+                                                    @RequestParam(required = false) String category,
+                                                    @RequestParam(required = false) List<String> facility) {
+        return storeService.getStoreClusters(latStart, latEnd, lngStart, lngEnd, category, facility, zoom);
+    }
+
+    // cursor 파라미터가 있으면 커서 페이징 - 첫 페이지는 빈 값(cursor=), 다음 페이지부터는 응답의 nextCursor
     @GetMapping("/point")
     public StorePagedResponseDto getStoreInRangeHighPoint(@RequestParam(required = false) BigDecimal lat,
 //    public List<StoreCardResponseDto> getStoreInRangeHighPoint(@RequestParam(required = false) BigDecimal lat,
@@ -72,8 +91,12 @@ public class StoreController {
                                                           @RequestParam(required = false) String category,
                                                           @RequestParam(required = false) List<String> facility,
                                                           @PageableDefault Pageable pageable,
+                                                          @RequestParam(required = false, defaultValue = "true") boolean withTotal,
+                                                          @RequestParam(required = false) String cursor,
                                                           @AuthenticationPrincipal User user) {
-        return storeService.getStoreInRangeHighPoint(lat, lng, category, facility, pageable, user == null ? null : user.getUsername());
+        if (cursor != null)
+            return storeService.getStoreInRangeHighPoint(lat, lng, category, facility, cursor, pageable.getPageSize(), user == null ? null : user.getUsername());
+        return storeService.getStoreInRangeHighPoint(lat, lng, category, facility, pageable, user == null ? null : user.getUsername(), withTotal);
     }
 
     @GetMapping("/bookmark")
@@ -82,8 +105,12 @@ public class StoreController {
                                                              @RequestParam(required = false) String category,
                                                              @RequestParam(required = false) List<String> facility,
                                                              @PageableDefault Pageable pageable,
+                                                             @RequestParam(required = false, defaultValue = "true") boolean withTotal,
+                                                             @RequestParam(required = false) String cursor,
                                                              @AuthenticationPrincipal User user) {
-        return storeService.getStoreInRangeHighBookmark(lat, lng, category, facility, pageable, user == null ? null : user.getUsername());
+        if (cursor != null)
+            return storeService.getStoreInRangeHighBookmark(lat, lng, category, facility, cursor, pageable.getPageSize(), user == null ? null : user.getUsername());
+        return storeService.getStoreInRangeHighBookmark(lat, lng, category, facility, pageable, user == null ? null : user.getUsername(), withTotal);
     }
     @ApiOperation(value = "업장 상세정보를 조회하는 메소드")
     @GetMapping("/detail/{storeId}")
@@ -106,6 +133,13 @@ public class StoreController {
         return storeService.getSigungu(sido);
     }
 
+    @ApiOperation(value = "입력 중인 검색어로 지역, 업장 이름 자동완성 목록을 조회하는 메소드")
+    @GetMapping("/suggest")
+    public StoreSuggestResponseDto suggest(@RequestParam String keyword,
+                                           @RequestParam(required = false, defaultValue = "10") @Min(1) @Max(20) int size) {
+        return storeService.suggest(keyword, size);
+    }
+
     @ApiOperation(value = "시/도, 시/군/구, 검색어를 이용해 업장 리스트를 조회하는 메소드")
     @GetMapping("/search")
     public StorePagedResponseDto searchStoresByKeyword(
@@ -115,12 +149,16 @@ public class StoreController {
             @RequestParam(required = false) String category,
             @RequestParam(required = false) List<String> facility,
             @PageableDefault Pageable pageable,
+            @RequestParam(required = false, defaultValue = "true") boolean withTotal,
+            @RequestParam(required = false) String cursor,
             @AuthenticationPrincipal User user) {
 
         if (StringUtils.isEmpty(sido) && StringUtils.isEmpty(sigungu) && StringUtils.isEmpty(keyword) && StringUtils.isEmpty(category) && ObjectUtils.isEmpty(facility)) {
             throw new CustomException(ErrorCode.KEYWORD_ARE_NEEDED);
         }
 
-        return storeService.searchStores(sido, sigungu, keyword, category, facility, user == null ? null : user.getUsername(), pageable);
+        if (cursor != null)
+            return storeService.searchStores(sido, sigungu, keyword, category, facility, cursor, pageable.getPageSize(), user == null ? null : user.getUsername());
+        return storeService.searchStores(sido, sigungu, keyword, category, facility, user == null ? null : user.getUsername(), pageable, withTotal);
     }
 }
\ No newline at end of file
@@ -1,4 +1,95 @@
 package com.mpnp.baechelin.store.domain;
 
+import com.mpnp.baechelin.exception.CustomException;
+import com.mpnp.baechelin.exception.ErrorCode;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 배리어 프리 시설 - 업장의 시설 정보는 ordinal 순서의 비트마스크(Store.facilityMask)로도 저장된다
+ */
+@Getter
 public enum Facility {
+    ELEVATOR("elevator", "elevator"),
+    TOILET("toilet", "toilet"),
+    PARKING("parking", "parking"),
+    HEIGHT_DIFFERENT("heightDifferent", "height_different"),
+    APPROACH("approach", "approach");
+
+    // API 요청 파라미터로 들어오는 이름 (facility=heightDifferent)
+    private final String tag;
+    // BarrierCode의 columnName
+    private final String columnName;
+
+    Facility(String tag, String columnName) {
+        this.tag = tag;
+        this.columnName = columnName;
+    }
+
+    public int getBit() {
+        return 1 << ordinal();
+    }
+
+    public boolean in(int mask) {
+        return (mask & getBit()) != 0;
+    }
+
+    public static Facility giveFacility(String tag) {
+        return Arrays.stream(Facility.values())
+                .filter(facility -> facility.tag.equals(tag)).findAny()
+                .orElseThrow(() -> new CustomException(ErrorCode.INVALID_BARRIER_TAG));
+    }
+
+    /**
+     * @param tags 요청한 배리어 프리 태그
+     * @return 필요한 시설의 비트마스크 - 업장은 (facilityMask & required) == required 이면 조건을 만족
+     */
+    public static int maskOf(List<String> tags) {
+        int mask = 0;
+        if (tags == null) return mask;
+        for (String tag : tags) {
+            if (tag == null || tag.isEmpty()) continue;
+            mask |= giveFacility(tag).getBit();
+        }
+        return mask;
+    }
+
+    /**
+     * @param columnNames BarrierCode.getColumnFromDesc로 변환된 시설 이름
+     */
+    public static int maskOfColumns(Collection<String> columnNames) {
+        int mask = 0;
+        for (Facility facility : Facility.values()) {
+            if (columnNames.contains(facility.columnName)) mask |= facility.getBit();
+        }
+        return mask;
+    }
+
+    /**
+     * @return Store의 "Y"/"N" 컬럼 값으로 만든 비트마스크
+     */
+    public static int maskOf(String elevator, String toilet, String parking, String heightDifferent, String approach) {
+        return ("Y".equals(elevator) ? ELEVATOR.getBit() : 0)
+                | ("Y".equals(toilet) ? TOILET.getBit() : 0)
+                | ("Y".equals(parking) ? PARKING.getBit() : 0)
+                | ("Y".equals(heightDifferent) ? HEIGHT_DIFFERENT.getBit() : 0)
+                | ("Y".equals(approach) ? APPROACH.getBit() : 0);
+    }
+
+    /**
+     * (mask & required) == required 를 만족하는 모든 mask
+     * 비트 연산 조건은 인덱스를 탈 수 없으므로, DB에서는 facilityMask IN (...)으로 같은 조건을 인덱스 범위 조회로 처리한다
+     */
+    public static List<Integer> supersetsOf(int required) {
+        int all = (1 << values().length) - 1;
+        List<Integer> supersets = new ArrayList<>();
+        for (int mask = required; mask <= all; mask = (mask + 1) | required) {
+            supersets.add(mask);
+        }
+        return supersets;
+    }
 }
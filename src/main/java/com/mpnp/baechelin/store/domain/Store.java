@@ -4,7 +4,9 @@ import com.mpnp.baechelin.api.dto.LocationInfoDto;
 import com.mpnp.baechelin.api.model.PublicApiV1Form;
 import com.mpnp.baechelin.api.model.PublicApiV2Form;
 import com.mpnp.baechelin.bookmark.domain.Bookmark;
+import com.mpnp.baechelin.common.ContentHash;
 import com.mpnp.baechelin.common.DataClarification;
+import com.mpnp.baechelin.common.QuerydslLocation;
 import com.mpnp.baechelin.review.domain.Review;
 import com.mpnp.baechelin.storeApiUpdate.StoreApiUpdate;
 import lombok.AllArgsConstructor;
@@ -12,14 +14,28 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity(name="Store")
+@Table(indexes = {
+        @Index(name = "idx_store_aggregate_modified_at", columnList = "aggregateModifiedAt"),
+        // 커서 페이징 정렬 키
+        @Index(name = "idx_store_point_avg_id", columnList = "pointAvg, id"),
+        @Index(name = "idx_store_book_mark_count_id", columnList = "bookMarkCount, id"),
+        @Index(name = "idx_store_facility_mask", columnList = "facilityMask"),
+        @Index(name = "idx_store_lat_e6_lng_e6", columnList = "latE6, lngE6"),
+        // 수집 데이터와 바뀐 업장 비교 - 테이블을 읽지 않고 인덱스만으로 비교
+        @Index(name = "idx_store_id_content_hash", columnList = "id, contentHash")
+})
+// 집계 컬럼은 SQL 증감으로만 바뀌므로, 엔티티 저장 시 변경된 컬럼만 UPDATE 해서 덮어쓰지 않게 한다
+@DynamicUpdate
 @Getter
 @NoArgsConstructor
 @Builder
@@ -40,6 +56,13 @@ public class Store implements Serializable {
     @Column(nullable = false, precision = 25, scale = 22)
     private BigDecimal longitude;
 
+    // 위도, 경도 * 1,000,000 - 범위 조회, 거리 계산용 정수 좌표 (위의 BigDecimal 컬럼에서 만들어진다)
+    @Column(nullable = false)
+    private int latE6;
+
+    @Column(nullable = false)
+    private int lngE6;
+
     @Column(nullable = false)
     private String address;
 
@@ -61,6 +84,13 @@ public class Store implements Serializable {
     @Column(nullable = false)
     private String approach;
 
+    // 배리어 프리 시설 비트마스크 - 비트 순서는 Facility 참고, 위의 "Y"/"N" 컬럼에서 만들어진다
+    @Column(nullable = false)
+    private int facilityMask;
+
+    // API에서 받아오는 컬럼의 지문(ContentHash) - null이면 계산 전에 저장된 행
+    private Long contentHash;
+
     @Column(nullable = false)
     private int bookMarkCount = 0;
 
@@ -70,6 +100,13 @@ public class Store implements Serializable {
     @Column(nullable = false)
     private double pointAvg = 0.0;
 
+    // 별점 합계 - pointAvg는 리뷰 목록을 다시 읽지 않고 pointSum / reviewCount로 갱신한다
+    @Column(nullable = false)
+    private double pointSum = 0.0;
+
+    // 리뷰, 북마크 집계가 마지막으로 바뀐 시각 - 정합성 스케줄러가 이 시각 이후에 바뀐 업장만 다시 계산한다
+    private LocalDateTime aggregateModifiedAt;
+
     // 연관관계 매핑
     @OneToMany(mappedBy = "store", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<StoreImage> storeImageList = new ArrayList<>();
@@ -102,11 +139,6 @@ public class Store implements Serializable {
         this.category = row.getCategory();
     }
 
-    public Store updateBookmarkCount() {
-        this.bookMarkCount = this.getBookmarkList().size();
-        return this;
-    }
-
     public void removeReview(Review review) {
         this.reviewList.remove(review);
     }
@@ -115,27 +147,18 @@ public class Store implements Serializable {
         this.bookmarkList.remove(bookmark);
     }
 
-    public Store updatePointAvg() {
-        this.reviewCount = reviewList.size();
-        double totalPoint = 0.0;
-        for (Review review : reviewList) {
-            totalPoint += review.getPoint();
-        }
-        this.pointAvg = reviewCount == 0 ? 0 : Double.parseDouble(String.format("%.1f", totalPoint / reviewList.size()));
-        return this;
-    }
-
     public Store(LocationInfoDto.LocationResponse sr, PublicApiV2Form.ServList servList, List<String> barrierTagList) {
         this.id = sr.getStoreId();
         this.name = sr.getStoreName();
         this.latitude = new BigDecimal(servList.getFaclLat());
         this.longitude = new BigDecimal(servList.getFaclLng());
         this.address = DataClarification.clarifyString(servList.getLcMnad());
-        this.elevator = barrierTagList.contains("elevator") ? "Y" : "N";
-        this.heightDifferent = barrierTagList.contains("height_different") ? "Y" : "N";
-        this.toilet = barrierTagList.contains("toilet") ? "Y" : "N";
-        this.parking = barrierTagList.contains("parking") ? "Y" : "N";
-        this.approach = barrierTagList.contains("approach") ? "Y" : "N";
+        this.facilityMask = Facility.maskOfColumns(barrierTagList);
+        this.elevator = Facility.ELEVATOR.in(facilityMask) ? "Y" : "N";
+        this.heightDifferent = Facility.HEIGHT_DIFFERENT.in(facilityMask) ? "Y" : "N";
+        this.toilet = Facility.TOILET.in(facilityMask) ? "Y" : "N";
+        this.parking = Facility.PARKING.in(facilityMask) ? "Y" : "N";
+        this.approach = Facility.APPROACH.in(facilityMask) ? "Y" : "N";
 
         this.phoneNumber = sr.getPhoneNumber();
         this.category = sr.getCategory();
@@ -186,6 +209,18 @@ public class Store implements Serializable {
         this.category  = row.getCategory();
         this.latitude  = row.getLatitude();
         this.longitude = row.getLongitude();
+        updateDerivedColumns();
+    }
+
+    // 어떤 생성자, 수정 경로로 저장되더라도 비트마스크, 정수 좌표, 지문이 원본 컬럼과 맞도록 저장 직전에 다시 계산
+    @PrePersist
+    @PreUpdate
+    public void updateDerivedColumns() {
+        this.facilityMask = Facility.maskOf(elevator, toilet, parking, heightDifferent, approach);
+        if (latitude != null) this.latE6 = QuerydslLocation.toE6(latitude.doubleValue());
+        if (longitude != null) this.lngE6 = QuerydslLocation.toE6(longitude.doubleValue());
+        this.contentHash = ContentHash.of(category, name, latitude, longitude, address,
+                elevator, toilet, parking, phoneNumber, heightDifferent, approach);
     }
 
     public void removeReviewImage(Review review) {
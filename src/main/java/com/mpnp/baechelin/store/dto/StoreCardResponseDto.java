@@ -37,7 +37,12 @@ public class StoreCardResponseDto {
     @Builder.Default
     private double pointAvg = 0.0;
 
-    public StoreCardResponseDto(Store store, String isBookMark) {
+    /**
+     * @param store        업장
+     * @param isBookMark   북마크 여부
+     * @param storeImgList 페이지 단위로 미리 조회해 둔 업장 이미지 URL
+     */
+    public StoreCardResponseDto(Store store, String isBookMark, List<String> storeImgList) {
         this.storeId = store.getId();
         this.category = store.getCategory();
         this.name = store.getName();
@@ -51,10 +56,8 @@ public class StoreCardResponseDto {
         this.heightDifferent = store.getHeightDifferent();
         this.approach = store.getApproach();
         this.bookmarkCount = store.getBookMarkCount();
-        this.storeImgList = new ArrayList<>();
-        store.getStoreImageList().parallelStream()
-                .forEachOrdered(s -> storeImgList.add(s.getStoreImageUrl()));
-        this.pointAvg = store.getPointAvg();
+        this.storeImgList = storeImgList;
+        this.pointAvg = Math.round(store.getPointAvg() * 10) / 10.0;
         this.bookmark = isBookMark;
     }
 }
@@ -0,0 +1,50 @@
+package com.mpnp.baechelin.store.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.mpnp.baechelin.store.domain.Facility;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 지도 축소 화면용 업장 군집 - 화면을 줌 레벨에 맞는 칸으로 나누고 칸마다 업장 수, 중심점, 시설별 업장 수를 내려준다
+ */
+@Getter
+@AllArgsConstructor
+public class StoreClusterResponseDto {
+    private int zoom;
+    // 칸 한 변의 크기(도)
+    private double tileSize;
+    private long totalCount;
+    private List<Cluster> clusters;
+
+    @Getter
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Cluster {
+        // 칸에 속한 업장 좌표의 평균
+        private final double lat;
+        private final double lng;
+        private final int count;
+        // 배리어 프리 태그(elevator, toilet, ...) -> 해당 시설이 있는 업장 수
+        private final Map<String, Integer> facilities;
+        // 업장이 하나뿐인 칸은 바로 핀을 그릴 수 있도록 업장 id를 함께 내려준다
+        private final Long storeId;
+
+        /**
+         * @param facilityCounts Facility ordinal 순서의 시설별 업장 수
+         */
+        public Cluster(double lat, double lng, int count, int[] facilityCounts, long storeId) {
+            this.lat = lat;
+            this.lng = lng;
+            this.count = count;
+            this.facilities = new LinkedHashMap<>();
+            for (Facility facility : Facility.values()) {
+                facilities.put(facility.getTag(), facilityCounts[facility.ordinal()]);
+            }
+            this.storeId = count == 1 ? storeId : null;
+        }
+    }
+}
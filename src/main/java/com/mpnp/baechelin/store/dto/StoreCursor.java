@@ -0,0 +1,66 @@
+package com.mpnp.baechelin.store.dto;
+
+import com.mpnp.baechelin.exception.CustomException;
+import com.mpnp.baechelin.exception.ErrorCode;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 커서 페이징에서 마지막으로 내려준 업장의 정렬 키 - (별점, id), (북마크 수, id), (id), (검색 점수, id)
+ * 클라이언트에는 정렬 종류를 앞에 붙여 Base64로 인코딩한 문자열로 전달한다
+ */
+@Getter
+@AllArgsConstructor
+public class StoreCursor {
+    private static final String SEPARATOR = ":";
+
+    /**
+     * 커서의 정렬 종류 - 다른 정렬로 만든 커서를 받으면 정렬 키의 의미가 달라지므로 INVALID_CURSOR
+     */
+    @Getter
+    @AllArgsConstructor
+    public enum Type {
+        POINT("p"),
+        BOOKMARK("b"),
+        ID("i"),
+        // 검색 색인의 (점수, id)
+        SCORE("s");
+
+        private final String prefix;
+
+        private static Type of(String prefix) {
+            for (Type type : values()) {
+                if (type.prefix.equals(prefix)) return type;
+            }
+            throw new CustomException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+
+    private final Type type;
+    private final double sortValue;
+    private final long storeId;
+
+    /**
+     * @param cursor 이전 응답의 nextCursor - 비어 있으면 첫 페이지
+     * @param type   지금 조회하는 정렬 종류
+     * @return 디코딩된 커서, 첫 페이지면 null
+     */
+    public static StoreCursor decode(String cursor, Type type) {
+        if (cursor == null || cursor.isEmpty()) return null;
+        try {
+            String[] values = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR);
+            if (values.length != 3 || Type.of(values[0]) != type) throw new CustomException(ErrorCode.INVALID_CURSOR);
+            return new StoreCursor(type, Double.parseDouble(values[1]), Long.parseLong(values[2]));
+        } catch (IllegalArgumentException e) {
+            throw new CustomException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+
+    public String encode() {
+        String value = type.getPrefix() + SEPARATOR + sortValue + SEPARATOR + storeId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -52,4 +52,12 @@ public class StoreDetailResponseDto implements Serializable {
         this.pointAvg = Math.round(store.getPointAvg()*10)/10.0;
         this.bookmark = isBookMark;
     }
+
+    /**
+     * 캐시에 공유되는 상세 정보는 그대로 두고, 유저별 북마크 여부만 채운 복사본을 반환
+     */
+    public StoreDetailResponseDto withBookmark(String isBookMark) {
+        return new StoreDetailResponseDto(storeId, category, name, latitude, longitude, address, elevator, toilet, parking,
+                phoneNumber, heightDifferent, approach, storeImgList, bookmarkCount, isBookMark, pointAvg);
+    }
 }
@@ -1,32 +1,41 @@
 package com.mpnp.baechelin.store.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.mpnp.baechelin.store.domain.Store;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
 @Getter
 @Setter
 @NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class StorePagedResponseDto {
     private boolean hasNextPage;
-    private long totalCount;
-    private long leftElement;
+    // 전체 개수를 세지 않는 Slice 모드(무한 스크롤)에서는 null
+    private Long totalCount;
+    private Long leftElement;
     private int page;
-    private int totalPage;
+    private Integer totalPage;
     private List<StoreCardResponseDto> cards;
+    // 커서 페이징에서 다음 페이지를 요청할 때 보낼 값 - 다음 페이지가 없거나 커서 페이징이 아니면 null
+    private String nextCursor;
 
-    public StorePagedResponseDto(Page<Store> resultStoreList, List<StoreCardResponseDto> cards) {
+    public StorePagedResponseDto(Slice<Store> resultStoreList, List<StoreCardResponseDto> cards) {
         this.hasNextPage = resultStoreList.hasNext();
-        this.totalPage = resultStoreList.getTotalPages() - 1;
         this.cards = cards;
-        this.totalCount = resultStoreList.getTotalElements();
         this.page = resultStoreList.getNumber();
-        this.leftElement = totalCount - (long) page * resultStoreList.getSize() - resultStoreList.getNumberOfElements();
-        this.leftElement = this.leftElement < 0 ? 0 : this.leftElement;
+        if (resultStoreList instanceof Page) {
+            Page<Store> resultStorePage = (Page<Store>) resultStoreList;
+            this.totalPage = resultStorePage.getTotalPages() - 1;
+            this.totalCount = resultStorePage.getTotalElements();
+            long left = totalCount - (long) page * resultStorePage.getSize() - resultStorePage.getNumberOfElements();
+            this.leftElement = left < 0 ? 0 : left;
+        }
     }
-}
\ No newline at end of file
+}
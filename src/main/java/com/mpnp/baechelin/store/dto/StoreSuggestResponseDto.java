@@ -0,0 +1,29 @@
+package com.mpnp.baechelin.store.dto;
+
+import com.mpnp.baechelin.store.index.StoreSuggestIndex;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Getter
+public class StoreSuggestResponseDto {
+    private final List<String> regions;
+    private final List<StoreSuggest> stores;
+
+    public StoreSuggestResponseDto(List<StoreSuggestIndex.Suggestion> regions, List<StoreSuggestIndex.Suggestion> stores) {
+        this.regions = regions.stream().map(StoreSuggestIndex.Suggestion::getText).collect(Collectors.toList());
+        this.stores = stores.stream().map(suggestion -> new StoreSuggest(suggestion.getStoreId(), suggestion.getText())).collect(Collectors.toList());
+    }
+
+    @Getter
+    public static class StoreSuggest {
+        private final Long storeId;
+        private final String name;
+
+        StoreSuggest(Long storeId, String name) {
+            this.storeId = storeId;
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.mpnp.baechelin.store.index;
+
+import com.mpnp.baechelin.common.QuerydslLocation;
+import com.mpnp.baechelin.store.domain.Category;
+import com.mpnp.baechelin.store.domain.Facility;
+import com.mpnp.baechelin.store.dto.StoreClusterResponseDto;
+import com.mpnp.baechelin.store.repository.StoreNearQueryCache;
+import com.mpnp.baechelin.store.repository.StoreRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * 업장 위치를 균등 격자(Uniform Grid)로 나눠 메모리에 들고 있는 공간 인덱스
+ * 박스 범위 + 거리순 정렬을 DB 대신 처리하고, DB는 최종 페이지의 업장 id만 조회한다
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StoreGridIndex {
+    // 격자 한 칸의 크기 - 위도/경도 0.01도 ≒ 1.1km
+    private static final double CELL_SIZE = 0.01;
+    // 음수 좌표도 양수 칸 번호가 되도록 더해주는 값
+    private static final int ROW_OFFSET = 9_000;
+    private static final int COL_OFFSET = 18_000;
+
+    private final StoreRepository storeRepository;
+    private final StoreNearQueryCache storeNearQueryCache;
+
+    // 조회 중에 교체될 수 있으므로 항상 스냅샷 단위로 통째로 바꾼다
+    private volatile Snapshot snapshot;
+
+    /**
+     * 애플리케이션 시작 시, 이후 주기적으로 DB의 업장 위치 정보를 다시 읽어 인덱스를 교체
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${store.index.refresh-delay:600000}", fixedDelayString = "${store.index.refresh-delay:600000}")
+    public void refresh() {
+        long start = System.currentTimeMillis();
+        List<Object[]> rows = storeRepository.findAllLocations();
+        this.snapshot = Snapshot.of(rows);
+        // 이전 스냅샷으로 만든 거리순 조회 결과는 버린다
+        storeNearQueryCache.invalidateAll();
+        log.info("STORE GRID INDEX REFRESHED - {} stores, {}ms", rows.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * @param latStart 남서쪽 위도
+     * @param latEnd   북동쪽 위도
+     * @param lngStart 남서쪽 경도
+     * @param lngEnd   북동쪽 경도
+     * @param lat      거리 계산 기준 위도
+     * @param lng      거리 계산 기준 경도
+     * @param category 업장 카테고리
+     * @param facility 배리어 프리 태그
+     * @param offset   페이지 시작 위치
+     * @param limit    페이지 크기
+     * @return 범위와 조건을 만족하는 업장 중 기준점과 가까운 순으로 잘라낸 id 목록과 전체 개수
+     */
+    public NearResult findNear(double latStart, double latEnd, double lngStart, double lngEnd,
+                               double lat, double lng, String category, List<String> facility,
+                               long offset, int limit) {
+        Snapshot snap = this.snapshot;
+        if (snap == null) throw new IllegalStateException("store grid index is not loaded");
+        return snap.findNear(latStart, latEnd, lngStart, lngEnd, lat, lng,
+                categoryCode(category), Facility.maskOf(facility), offset, limit);
+    }
+
+    /**
+     * @param tileE6 군집 칸 한 변의 크기(마이크로도) - 칸 번호는 floor(latE6 / tileE6), floor(lngE6 / tileE6)
+     * @return 범위와 조건을 만족하는 업장을 칸별로 묶은 군집
+     */
+    public List<StoreClusterResponseDto.Cluster> cluster(double latStart, double latEnd, double lngStart, double lngEnd,
+                                                         String category, List<String> facility, int tileE6) {
+        Snapshot snap = this.snapshot;
+        if (snap == null) throw new IllegalStateException("store grid index is not loaded");
+        return snap.cluster(latStart, latEnd, lngStart, lngEnd, categoryCode(category), Facility.maskOf(facility), tileE6);
+    }
+
+    /**
+     * @return 카테고리 필터 코드, 필터가 없으면 -1
+     */
+    private static int categoryCode(String category) {
+        if (category == null || category.equalsIgnoreCase("ALL")) return -1;
+        return Category.giveCategory(Category.giveCategoryDesc(category.toUpperCase())).ordinal();
+    }
+
+    private static long cellKey(double lat, double lng) {
+        long row = (long) Math.floor(lat / CELL_SIZE) + ROW_OFFSET;
+        long col = (long) Math.floor(lng / CELL_SIZE) + COL_OFFSET;
+        return (row << 32) | col;
+    }
+
+    // 군집 칸 하나의 누적값
+    private static final class Tile {
+        private final long storeId;
+        private final int[] facilityCounts = new int[Facility.values().length];
+        private int count;
+        private double latSum;
+        private double lngSum;
+
+        Tile(long storeId) {
+            this.storeId = storeId;
+        }
+
+        void add(double lat, double lng, int facilityMask) {
+            count++;
+            latSum += lat;
+            lngSum += lng;
+            for (Facility facility : Facility.values()) {
+                if (facility.in(facilityMask)) facilityCounts[facility.ordinal()]++;
+            }
+        }
+    }
+
+    @Getter
+    public static class NearResult {
+        private final long[] storeIds;
+        private final int totalCount;
+
+        NearResult(long[] storeIds, int totalCount) {
+            this.storeIds = storeIds;
+            this.totalCount = totalCount;
+        }
+    }
+
+    /**
+     * 한 번 만들어지면 바뀌지 않는 인덱스 본체
+     * 업장들은 칸 번호 순으로 정렬되어 있고, cellStart[i] ~ cellStart[i + 1] 이 cellKeys[i] 칸의 업장들이다
+     */
+    private static final class Snapshot {
+        private final long[] cellKeys;
+        private final int[] cellStart;
+        private final long[] ids;
+        private final double[] lats;
+        private final double[] lngs;
+        // 거리 계산용으로 미리 구해둔 sin(위도), cos(위도), 라디안 경도
+        private final double[] sinLats;
+        private final double[] cosLats;
+        private final double[] radLngs;
+        private final byte[] categories;
+        private final byte[] facilities;
+
+        private Snapshot(long[] cellKeys, int[] cellStart, long[] ids, double[] lats, double[] lngs,
+                         byte[] categories, byte[] facilities) {
+            this.cellKeys = cellKeys;
+            this.cellStart = cellStart;
+            this.ids = ids;
+            this.lats = lats;
+            this.lngs = lngs;
+            this.sinLats = new double[ids.length];
+            this.cosLats = new double[ids.length];
+            this.radLngs = new double[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                sinLats[i] = Math.sin(Math.toRadians(lats[i]));
+                cosLats[i] = Math.cos(Math.toRadians(lats[i]));
+                radLngs[i] = Math.toRadians(lngs[i]);
+            }
+            this.categories = categories;
+            this.facilities = facilities;
+        }
+
+        /**
+         * @param rows id, 위도, 경도, 카테고리, 승강기, 화장실, 주차장, 높이차이, 접근로 순서의 행
+         */
+        static Snapshot of(List<Object[]> rows) {
+            int n = rows.size();
+            long[] keys = new long[n];
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                Object[] row = rows.get(i);
+                keys[i] = cellKey(degree(row[1]), degree(row[2]));
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+
+            long[] ids = new long[n];
+            double[] lats = new double[n];
+            double[] lngs = new double[n];
+            byte[] categories = new byte[n];
+            byte[] facilities = new byte[n];
+            long[] cellKeys = new long[n];
+            int[] cellStart = new int[n + 1];
+            int cells = 0;
+            for (int i = 0; i < n; i++) {
+                Object[] row = rows.get(order[i]);
+                ids[i] = ((Number) row[0]).longValue();
+                lats[i] = degree(row[1]);
+                lngs[i] = degree(row[2]);
+                categories[i] = (byte) categoryOf((String) row[3]);
+                facilities[i] = ((Number) row[4]).byteValue();
+                long key = keys[order[i]];
+                if (cells == 0 || cellKeys[cells - 1] != key) {
+                    cellKeys[cells] = key;
+                    cellStart[cells] = i;
+                    cells++;
+                }
+            }
+            cellStart[cells] = n;
+            return new Snapshot(Arrays.copyOf(cellKeys, cells), Arrays.copyOf(cellStart, cells + 1),
+                    ids, lats, lngs, categories, facilities);
+        }
+
+        // latE6, lngE6 -> 도 단위
+        private static double degree(Object e6) {
+            return ((Number) e6).intValue() / QuerydslLocation.E6;
+        }
+
+        // DB 값과 정확히 일치하는 카테고리만 인정한다 - 일치하지 않으면 어떤 카테고리 필터에도 걸리지 않음
+        private static int categoryOf(String desc) {
+            for (Category category : Category.values()) {
+                if (category.getDesc().equals(desc)) return category.ordinal();
+            }
+            return -1;
+        }
+
+        NearResult findNear(double latStart, double latEnd, double lngStart, double lngEnd,
+                            double lat, double lng, int category, int facilityMask,
+                            long offset, int limit) {
+            // 힙 크기를 요청한 offset이 아니라 실제 후보 수로 제한하기 위해 먼저 개수만 센다
+            int[] total = {0};
+            scan(latStart, latEnd, lngStart, lngEnd, category, facilityMask, i -> total[0]++);
+            if (offset >= total[0] || limit <= 0) return new NearResult(new long[0], total[0]);
+
+            int k = (int) Math.min(total[0], offset + limit);
+            // 가장 먼 업장이 루트에 오는 크기 k의 최대 힙 (값은 거리 대신 거리와 순서가 같은 값)
+            double[] heapDist = new double[k];
+            int[] heapIdx = new int[k];
+            int[] heapSize = {0};
+            double sinLat = Math.sin(Math.toRadians(lat));
+            double cosLat = Math.cos(Math.toRadians(lat));
+            double radLng = Math.toRadians(lng);
+
+            scan(latStart, latEnd, lngStart, lngEnd, category, facilityMask, i -> {
+                // DB의 구면 코사인 법칙 거리 acos(x) * 6371 은 x가 클수록 가까우므로 -x 로 순서만 비교한다
+                double d = -(sinLat * sinLats[i] + cosLat * cosLats[i] * Math.cos(radLng - radLngs[i]));
+                if (heapSize[0] < k) {
+                    heapDist[heapSize[0]] = d;
+                    heapIdx[heapSize[0]] = i;
+                    siftUp(heapDist, heapIdx, heapSize[0]++);
+                } else if (farther(heapDist[0], ids[heapIdx[0]], d, ids[i])) {
+                    heapDist[0] = d;
+                    heapIdx[0] = i;
+                    siftDown(heapDist, heapIdx, k);
+                }
+            });
+
+            // 힙에서 먼 순서로 꺼내 뒤에서부터 채우면 가까운 순 정렬이 된다
+            long[] sorted = new long[heapSize[0]];
+            for (int size = heapSize[0]; size > 0; size--) {
+                sorted[size - 1] = ids[heapIdx[0]];
+                heapDist[0] = heapDist[size - 1];
+                heapIdx[0] = heapIdx[size - 1];
+                siftDown(heapDist, heapIdx, size - 1);
+            }
+            return new NearResult(Arrays.copyOfRange(sorted, (int) offset, sorted.length), total[0]);
+        }
+
+        List<StoreClusterResponseDto.Cluster> cluster(double latStart, double latEnd, double lngStart, double lngEnd,
+                                                      int category, int facilityMask, int tileE6) {
+            Map<Long, Tile> tiles = new HashMap<>();
+            scan(latStart, latEnd, lngStart, lngEnd, category, facilityMask, i -> {
+                long tileKey = (Math.floorDiv(QuerydslLocation.toE6(lats[i]), tileE6) << 32)
+                        ^ (Math.floorDiv(QuerydslLocation.toE6(lngs[i]), tileE6) & 0xFFFFFFFFL);
+                Tile tile = tiles.get(tileKey);
+                if (tile == null) tiles.put(tileKey, tile = new Tile(ids[i]));
+                tile.add(lats[i], lngs[i], facilities[i]);
+            });
+            List<StoreClusterResponseDto.Cluster> clusters = new ArrayList<>(tiles.size());
+            for (Tile tile : tiles.values()) {
+                clusters.add(new StoreClusterResponseDto.Cluster(tile.latSum / tile.count, tile.lngSum / tile.count,
+                        tile.count, tile.facilityCounts, tile.storeId));
+            }
+            return clusters;
+        }
+
+        /**
+         * 범위에 걸친 칸들만 훑어서 범위와 조건을 만족하는 업장의 위치를 넘겨준다
+         */
+        private void scan(double latStart, double latEnd, double lngStart, double lngEnd,
+                          int category, int facilityMask, IntConsumer visitor) {
+            long rowStart = (long) Math.floor(latStart / CELL_SIZE) + ROW_OFFSET;
+            long rowEnd = (long) Math.floor(latEnd / CELL_SIZE) + ROW_OFFSET;
+            long colStart = (long) Math.floor(lngStart / CELL_SIZE) + COL_OFFSET;
+            long colEnd = (long) Math.floor(lngEnd / CELL_SIZE) + COL_OFFSET;
+
+            for (long row = rowStart; row <= rowEnd; row++) {
+                long endKey = (row << 32) | colEnd;
+                int c = lowerBound(cellKeys, (row << 32) | colStart);
+                for (; c < cellKeys.length && cellKeys[c] <= endKey; c++) {
+                    for (int i = cellStart[c]; i < cellStart[c + 1]; i++) {
+                        if (lats[i] < latStart || lats[i] > latEnd || lngs[i] < lngStart || lngs[i] > lngEnd) continue;
+                        if (category >= 0 && categories[i] != category) continue;
+                        if ((facilities[i] & facilityMask) != facilityMask) continue;
+                        visitor.accept(i);
+                    }
+                }
+            }
+        }
+
+        // 거리가 같으면 id로 순서를 고정한다
+        private boolean farther(double d1, long id1, double d2, long id2) {
+            return d1 > d2 || (d1 == d2 && id1 > id2);
+        }
+
+        private void siftUp(double[] dist, int[] idx, int pos) {
+            while (pos > 0) {
+                int parent = (pos - 1) >>> 1;
+                if (!farther(dist[pos], ids[idx[pos]], dist[parent], ids[idx[parent]])) break;
+                swap(dist, idx, pos, parent);
+                pos = parent;
+            }
+        }
+
+        private void siftDown(double[] dist, int[] idx, int size) {
+            int pos = 0;
+            while (true) {
+                int left = pos * 2 + 1;
+                if (left >= size) break;
+                int right = left + 1;
+                int child = right < size && farther(dist[right], ids[idx[right]], dist[left], ids[idx[left]]) ? right : left;
+                if (!farther(dist[child], ids[idx[child]], dist[pos], ids[idx[pos]])) break;
+                swap(dist, idx, pos, child);
+                pos = child;
+            }
+        }
+
+        private static void swap(double[] dist, int[] idx, int a, int b) {
+            double d = dist[a];
+            dist[a] = dist[b];
+            dist[b] = d;
+            int i = idx[a];
+            idx[a] = idx[b];
+            idx[b] = i;
+        }
+
+        private static int lowerBound(long[] keys, long key) {
+            int lo = 0, hi = keys.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid] < key) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.mpnp.baechelin.store.index;
+
+import com.mpnp.baechelin.store.repository.StoreRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 시/도 -> 업장이 있는 시/군/구 목록 사전
+ * static/sigungu.csv의 행정구역과 저장된 업장 주소로 만들고, 조회는 DB 없이 불변 Map에서 처리한다
+ * 애플리케이션 시작 시, 업장 수집 배치가 끝났을 때 다시 만든다
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StoreRegionIndex {
+    private static final String SIGUNGU_CSV = "static/sigungu.csv";
+
+    private final StoreRepository storeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // 시/도 -> 정렬된 시/군/구 목록, 통째로 교체한다
+    private volatile Map<String, List<String>> regions = Map.of();
+    // "시/도 시/군/구" -> 업장 수
+    private volatile Map<String, Integer> storeCounts = Map.of();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+        long start = System.currentTimeMillis();
+        Map<String, Set<String>> cities = readSigunguCsv();
+        Map<String, TreeSet<String>> builder = new HashMap<>();
+        Map<String, Integer> counts = new HashMap<>();
+
+        for (Object[] row : storeRepository.findAddressPrefixCounts()) {
+            if (row[0] == null) continue;
+            String[] address = ((String) row[0]).trim().split("\\s+"); // [0] : 시/도, [1] : 시/군/구, [2] : 구
+            if (address.length < 2 || !isKnownRegion(address, cities)) continue;
+            String sigungu = sigunguOf(address);
+            builder.computeIfAbsent(address[0], sido -> new TreeSet<>()).add(sigungu);
+            counts.merge(address[0] + " " + sigungu, ((Number) row[1]).intValue(), Integer::sum);
+        }
+
+        Map<String, List<String>> result = new HashMap<>();
+        builder.forEach((sido, sigungu) -> result.put(sido, List.copyOf(sigungu)));
+        this.regions = Map.copyOf(result);
+        this.storeCounts = Map.copyOf(counts);
+        log.info("STORE REGION INDEX REFRESHED - {} sido, {}ms", result.size(), System.currentTimeMillis() - start);
+        // 지역 업장 수를 쓰는 자동완성 사전을 다시 만들도록 알린다
+        eventPublisher.publishEvent(new RefreshedEvent());
+    }
+
+    /**
+     * @param sido 시/도 - 주소의 시/도에 포함되는 이름이면 된다 (ex. 서울 -> 서울특별시)
+     * @return 정렬된 시/군/구 목록
+     */
+    public List<String> getSigungu(String sido) {
+        Map<String, List<String>> current = regions;
+        List<String> exact = current.get(sido);
+        if (exact != null) return exact;
+
+        TreeSet<String> sigungu = new TreeSet<>();
+        current.forEach((name, list) -> {
+            if (name.contains(sido)) sigungu.addAll(list);
+        });
+        return List.copyOf(sigungu);
+    }
+
+    /**
+     * @return "시/도 시/군/구" -> 업장 수
+     */
+    public Map<String, Integer> getStoreCounts() {
+        return storeCounts;
+    }
+
+    /**
+     * [경기도 성남시 분당구]처럼 도 - 시 - 구 로 나눠지는 경우 시 + 구로 반환
+     */
+    private static String sigunguOf(String[] address) {
+        if (address.length > 2 && address[1].endsWith("시") && address[2].endsWith("구"))
+            return address[1] + " " + address[2];
+        return address[1];
+    }
+
+    /**
+     * CSV에 있는 시/도인데 시/군/구가 CSV에 없으면 잘못 저장된 주소로 보고 제외한다
+     */
+    private static boolean isKnownRegion(String[] address, Map<String, Set<String>> cities) {
+        Set<String> sidoCities = cities.get(address[0]);
+        return sidoCities == null || sidoCities.contains(address[1]);
+    }
+
+    /**
+     * @return 시/도 -> CSV에 있는 시/군/구 이름
+     */
+    private static Map<String, Set<String>> readSigunguCsv() {
+        Map<String, Set<String>> cities = new HashMap<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                new ClassPathResource(SIGUNGU_CSV).getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] lineContents = line.split(",", -1);
+                if (lineContents.length < 2) continue;
+                cities.computeIfAbsent(lineContents[0].trim(), sido -> new HashSet<>()).add(lineContents[1].trim());
+            }
+        } catch (IOException e) {
+            log.warn("{} 을 읽지 못했습니다 - 주소만으로 시/군/구를 구분합니다", SIGUNGU_CSV, e);
+        }
+        return cities;
+    }
+
+    /**
+     * 사전 교체가 끝났을 때 발행
+     */
+    public static class RefreshedEvent {
+    }
+}
@@ -0,0 +1,339 @@
+package com.mpnp.baechelin.store.index;
+
+import com.mpnp.baechelin.store.domain.Category;
+import com.mpnp.baechelin.store.domain.Facility;
+import com.mpnp.baechelin.store.domain.Store;
+import com.mpnp.baechelin.store.dto.StoreCursor;
+import com.mpnp.baechelin.store.repository.StoreRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 업장 이름, 카테고리, 주소에 대한 2-gram 역색인
+ * MySQL 전문 검색(MATCH ... AGAINST) 대신 메모리에서 후보를 찾고 점수순으로 정렬한 뒤, DB는 최종 페이지의 업장 id만 조회한다
+ * - 점수 : 검색어의 2-gram마다 이름 3점, 카테고리 2점, 주소 1점 + 이름 완전 일치 / 앞부분 일치 가산점
+ * - 오타 허용 : 검색어 2-gram의 60% 이상이 일치하면 결과에 포함 (한 글자 오타는 2-gram 두 개만 틀어진다)
+ * - 수집으로 추가, 수정된 업장은 다음 전체 재생성 전까지 별도 Map에 두고 함께 검색한다
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StoreSearchIndex {
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int ADDRESS_WEIGHT = 1;
+    private static final int EXACT_NAME_BONUS = 10;
+    private static final int PREFIX_NAME_BONUS = 5;
+    private static final double MIN_MATCH_RATIO = 0.6;
+
+    private final StoreRepository storeRepository;
+
+    private volatile Snapshot snapshot;
+    // 마지막 재생성 이후 수집된 업장 - 같은 id의 스냅샷 문서를 덮어쓴다
+    private final Map<Long, Doc> recentDocs = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${store.search-index.refresh-delay:3600000}", fixedDelayString = "${store.search-index.refresh-delay:3600000}")
+    public void refresh() {
+        long start = System.currentTimeMillis();
+        long readAt = System.nanoTime();
+        List<Object[]> rows = storeRepository.findAllSearchFields();
+        List<Doc> docs = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            docs.add(new Doc((Long) row[0], (String) row[1], (String) row[2], (String) row[3], (Integer) row[4], readAt));
+        }
+        this.snapshot = Snapshot.of(docs);
+        // 스냅샷을 읽기 전에 반영된 업장은 스냅샷에 포함되어 있다
+        recentDocs.values().removeIf(doc -> doc.indexedAt < readAt);
+        log.info("STORE SEARCH INDEX REFRESHED - {} stores, {}ms", docs.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * 수집으로 저장된 업장을 바로 검색되도록 반영
+     */
+    public void upsert(Store store) {
+        recentDocs.put(store.getId(), new Doc(store.getId(), store.getName(), store.getCategory(), store.getAddress(),
+                store.getFacilityMask(), System.nanoTime()));
+    }
+
+    /**
+     * @param offset 페이지 시작 위치
+     * @param limit  페이지 크기
+     * @return 점수 내림차순, id 오름차순으로 잘라낸 업장 id와 전체 개수
+     */
+    public SearchResult search(String sido, String sigungu, String keyword, String category, List<String> facility,
+                               long offset, int limit) {
+        List<Hit> hits = findHits(sido, sigungu, keyword, category, facility);
+        int from = (int) Math.min(offset, hits.size());
+        return new SearchResult(hits.subList(from, Math.min(hits.size(), from + limit)), hits.size());
+    }
+
+    /**
+     * @param cursor 이전 페이지 마지막 업장의 (점수, id) - null이면 첫 페이지
+     */
+    public SearchResult search(String sido, String sigungu, String keyword, String category, List<String> facility,
+                               StoreCursor cursor, int limit) {
+        List<Hit> hits = findHits(sido, sigungu, keyword, category, facility);
+        int from = 0;
+        if (cursor != null) {
+            Hit after = new Hit(cursor.getStoreId(), (int) cursor.getSortValue());
+            from = Collections.binarySearch(hits, after, Hit.ORDER);
+            from = from >= 0 ? from + 1 : -from - 1;
+        }
+        return new SearchResult(hits.subList(from, Math.min(hits.size(), from + limit)), hits.size());
+    }
+
+    /**
+     * @return 업장의 검색 점수 - 다음 페이지 커서를 만들 때 사용, 색인에 없으면 0
+     */
+    public int scoreOf(long storeId, String keyword) {
+        Snapshot snap = this.snapshot;
+        Doc doc = recentDocs.get(storeId);
+        if (doc == null && snap != null) doc = snap.find(storeId);
+        if (doc == null) return 0;
+        Query query = Query.of(keyword);
+        return query.isEmpty() ? 0 : Math.max(query.score(doc), 0);
+    }
+
+    private List<Hit> findHits(String sido, String sigungu, String keyword, String category, List<String> facility) {
+        Snapshot snap = this.snapshot;
+        if (snap == null) throw new IllegalStateException("store search index is not loaded");
+        Filter filter = new Filter(sido, sigungu, category, Facility.maskOf(facility));
+        Query query = Query.of(keyword);
+        Map<Long, Doc> recent = new HashMap<>(recentDocs);
+
+        List<Hit> hits = new ArrayList<>();
+        BitSet candidates = snap.candidates(query);
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            Doc doc = snap.docs[i];
+            if (recent.containsKey(doc.id)) continue;
+            addHit(hits, doc, query, filter);
+        }
+        for (Doc doc : recent.values()) {
+            addHit(hits, doc, query, filter);
+        }
+        hits.sort(Hit.ORDER);
+        return hits;
+    }
+
+    private static void addHit(List<Hit> hits, Doc doc, Query query, Filter filter) {
+        if (!filter.test(doc)) return;
+        int score = query.isEmpty() ? 0 : query.score(doc);
+        if (score >= 0) hits.add(new Hit(doc.id, score));
+    }
+
+    /**
+     * 색인, 검색어 공통 정규화 - 소문자, 글자/숫자/공백만 남긴다
+     */
+    static String normalize(String text) {
+        if (text == null) return "";
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isLetterOrDigit(c)) sb.append(c);
+            else if (sb.length() > 0 && sb.charAt(sb.length() - 1) != ' ') sb.append(' ');
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * @return 단어별 2-gram - 한 글자 단어는 그대로
+     */
+    static Set<String> grams(String normalized) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String word : normalized.split(" ")) {
+            if (word.length() == 1) grams.add(word);
+            for (int i = 0; i + 2 <= word.length(); i++) grams.add(word.substring(i, i + 2));
+        }
+        return grams;
+    }
+
+    @Getter
+    public static class SearchResult {
+        private final long[] storeIds;
+        private final int totalCount;
+
+        SearchResult(List<Hit> page, int totalCount) {
+            this.storeIds = page.stream().mapToLong(hit -> hit.storeId).toArray();
+            this.totalCount = totalCount;
+        }
+    }
+
+    private static final class Hit {
+        static final Comparator<Hit> ORDER = Comparator.<Hit>comparingInt(hit -> -hit.score).thenComparingLong(hit -> hit.storeId);
+
+        private final long storeId;
+        private final int score;
+
+        Hit(long storeId, int score) {
+            this.storeId = storeId;
+            this.score = score;
+        }
+    }
+
+    private static final class Doc {
+        private final long id;
+        private final String name;
+        private final String category;
+        private final String address;
+        private final String rawCategory;
+        private final String rawAddress;
+        private final int facilityMask;
+        private final long indexedAt;
+
+        Doc(long id, String name, String category, String address, Integer facilityMask, long indexedAt) {
+            this.id = id;
+            this.name = normalize(name);
+            this.category = normalize(category);
+            this.address = normalize(address);
+            this.rawCategory = category;
+            this.rawAddress = address == null ? "" : address;
+            this.facilityMask = facilityMask == null ? 0 : facilityMask;
+            this.indexedAt = indexedAt;
+        }
+    }
+
+    /**
+     * 시/도, 시/군/구, 카테고리, 시설 조건
+     */
+    private static final class Filter {
+        private final String sido;
+        private final String[] sigungu;
+        private final String category;
+        private final int requiredFacility;
+
+        Filter(String sido, String sigungu, String category, int requiredFacility) {
+            this.sido = sido == null || sido.isEmpty() ? null : sido;
+            // sido가 없으면 sigungu는 무시한다
+            this.sigungu = this.sido == null || sigungu == null || sigungu.isEmpty() ? new String[0] : sigungu.split(" ");
+            this.category = category == null || category.equalsIgnoreCase("ALL") ? null : Category.giveCategoryDesc(category.toUpperCase());
+            this.requiredFacility = requiredFacility;
+        }
+
+        boolean test(Doc doc) {
+            if (category != null && !category.equals(doc.rawCategory)) return false;
+            if ((doc.facilityMask & requiredFacility) != requiredFacility) return false;
+            if (sido != null && !doc.rawAddress.contains(sido)) return false;
+            for (String word : sigungu) {
+                if (!doc.rawAddress.contains(word)) return false;
+            }
+            return true;
+        }
+    }
+
+    private static final class Query {
+        private final String keyword;
+        private final Set<String> grams;
+        private final int minMatch;
+
+        private Query(String keyword) {
+            this.keyword = keyword;
+            this.grams = grams(keyword);
+            this.minMatch = grams.size() <= 2 ? grams.size() : (int) Math.ceil(grams.size() * MIN_MATCH_RATIO);
+        }
+
+        static Query of(String keyword) {
+            return new Query(normalize(keyword));
+        }
+
+        boolean isEmpty() {
+            return grams.isEmpty();
+        }
+
+        /**
+         * @return 점수, 일치하는 2-gram이 부족하면 -1
+         */
+        int score(Doc doc) {
+            int score = 0;
+            int matched = 0;
+            for (String gram : grams) {
+                int gramScore = (doc.name.contains(gram) ? NAME_WEIGHT : 0)
+                        + (doc.category.contains(gram) ? CATEGORY_WEIGHT : 0)
+                        + (doc.address.contains(gram) ? ADDRESS_WEIGHT : 0);
+                if (gramScore > 0) matched++;
+                score += gramScore;
+            }
+            if (matched < minMatch) return -1;
+            if (doc.name.equals(keyword)) score += EXACT_NAME_BONUS;
+            else if (doc.name.startsWith(keyword)) score += PREFIX_NAME_BONUS;
+            return score;
+        }
+    }
+
+    /**
+     * 한 번 만들어지면 바뀌지 않는 색인 본체 - docs는 id 순, postings는 2-gram -> docs 위치 목록
+     */
+    private static final class Snapshot {
+        private final Doc[] docs;
+        private final long[] ids;
+        private final Map<String, int[]> postings;
+
+        private Snapshot(Doc[] docs, Map<String, int[]> postings) {
+            this.docs = docs;
+            this.postings = postings;
+            this.ids = Arrays.stream(docs).mapToLong(doc -> doc.id).toArray();
+        }
+
+        static Snapshot of(List<Doc> docList) {
+            Doc[] docs = docList.toArray(new Doc[0]);
+            Arrays.sort(docs, Comparator.comparingLong(doc -> doc.id));
+
+            Map<String, int[]> postings = new HashMap<>();
+            Map<String, Integer> sizes = new HashMap<>();
+            for (int i = 0; i < docs.length; i++) {
+                for (String gram : docGrams(docs[i])) {
+                    int[] list = postings.get(gram);
+                    int size = sizes.getOrDefault(gram, 0);
+                    if (list == null) list = new int[4];
+                    else if (size == list.length) list = Arrays.copyOf(list, size * 2);
+                    list[size] = i;
+                    postings.put(gram, list);
+                    sizes.put(gram, size + 1);
+                }
+            }
+            postings.replaceAll((gram, list) -> Arrays.copyOf(list, sizes.get(gram)));
+            return new Snapshot(docs, postings);
+        }
+
+        private static Set<String> docGrams(Doc doc) {
+            Set<String> grams = grams(doc.name);
+            grams.addAll(grams(doc.category));
+            grams.addAll(grams(doc.address));
+            return grams;
+        }
+
+        /**
+         * @return 검색어 2-gram이 하나라도 있는 문서 위치, 검색어가 없으면 전체 문서
+         */
+        BitSet candidates(Query query) {
+            BitSet candidates = new BitSet(docs.length);
+            if (query.isEmpty()) {
+                candidates.set(0, docs.length);
+                return candidates;
+            }
+            for (String gram : query.grams) {
+                int[] list = postings.get(gram);
+                if (list == null) continue;
+                for (int slot : list) candidates.set(slot);
+            }
+            return candidates;
+        }
+
+        Doc find(long storeId) {
+            int slot = Arrays.binarySearch(ids, storeId);
+            return slot >= 0 ? docs[slot] : null;
+        }
+    }
+}
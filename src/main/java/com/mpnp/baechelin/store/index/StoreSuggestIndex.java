@@ -0,0 +1,204 @@
+package com.mpnp.baechelin.store.index;
+
+import com.mpnp.baechelin.common.Hangul;
+import com.mpnp.baechelin.store.repository.StoreRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 검색어 자동완성 사전 - 업장 이름, 시/군/구 이름
+ * 이름을 자모로 분해한 키를 정렬된 배열로 들고, 접두어에 해당하는 키 범위에서 가중치가 큰 순으로 N개를 뽑는다
+ * - 업장 가중치 : 북마크 수 + 별점 * POINT_WEIGHT (같은 이름의 업장은 가장 큰 값)
+ * - 지역 가중치 : 업장 수
+ * 이름의 두 번째 단어부터 시작하는 키도 넣어서 "강남점"으로 "스타벅스 강남점"을 찾을 수 있다
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StoreSuggestIndex {
+    private static final double POINT_WEIGHT = 2.0;
+
+    private final StoreRepository storeRepository;
+    private final StoreRegionIndex storeRegionIndex;
+
+    private volatile Dictionary stores;
+    private volatile Dictionary regions;
+
+    /**
+     * 지역 업장 수를 쓰므로 시작 시에는 시/군/구 사전이 만들어진 뒤에 실행
+     */
+    @EventListener(StoreRegionIndex.RefreshedEvent.class)
+    @Scheduled(initialDelayString = "${store.search-index.refresh-delay:3600000}", fixedDelayString = "${store.search-index.refresh-delay:3600000}")
+    public void refresh() {
+        long start = System.currentTimeMillis();
+        // 이름별로 가중치가 가장 큰 업장을 대표로 사용
+        Map<String, Object[]> bestByName = new HashMap<>();
+        for (Object[] row : storeRepository.findAllSuggestFields()) {
+            String name = (String) row[1];
+            if (name == null || name.isBlank()) continue;
+            double weight = ((Number) row[2]).intValue() + ((Number) row[3]).doubleValue() * POINT_WEIGHT;
+            Object[] best = bestByName.get(name.trim());
+            if (best == null || (double) best[1] < weight) bestByName.put(name.trim(), new Object[]{row[0], weight});
+        }
+        Dictionary.Builder storeBuilder = new Dictionary.Builder();
+        bestByName.forEach((name, best) -> storeBuilder.add(name, (Long) best[0], (double) best[1]));
+        this.stores = storeBuilder.build();
+
+        Dictionary.Builder regionBuilder = new Dictionary.Builder();
+        storeRegionIndex.getStoreCounts().forEach((region, count) -> regionBuilder.add(region, null, count));
+        this.regions = regionBuilder.build();
+        log.info("STORE SUGGEST INDEX REFRESHED - {} names, {} regions, {}ms",
+                bestByName.size(), storeRegionIndex.getStoreCounts().size(), System.currentTimeMillis() - start);
+    }
+
+    public List<Suggestion> suggestStores(String keyword, int size) {
+        Dictionary dictionary = this.stores;
+        return dictionary == null ? List.of() : dictionary.top(keyword, size);
+    }
+
+    public List<Suggestion> suggestRegions(String keyword, int size) {
+        Dictionary dictionary = this.regions;
+        return dictionary == null ? List.of() : dictionary.top(keyword, size);
+    }
+
+    @Getter
+    public static class Suggestion {
+        private final String text;
+        // 같은 이름 중 가중치가 가장 큰 업장 - 지역이면 null
+        private final Long storeId;
+
+        Suggestion(String text, Long storeId) {
+            this.text = text;
+            this.storeId = storeId;
+        }
+    }
+
+    /**
+     * 정렬된 자모 키 배열 + 구간 최댓값 위치를 O(1)에 찾는 Sparse Table
+     * 접두어 구간 [lo, hi)에서 최댓값을 꺼내고 양쪽 구간을 다시 후보로 넣는 방식으로 가중치 순 N개를 뽑는다
+     */
+    private static final class Dictionary {
+        private final String[] keys;
+        // keys[i]가 가리키는 사전 항목
+        private final int[] entries;
+        private final double[] weights;
+        private final String[] texts;
+        private final Long[] storeIds;
+        // sparse[k][i] : keys[i, i + 2^k) 중 가중치가 가장 큰 위치
+        private final int[][] sparse;
+
+        private Dictionary(String[] keys, int[] entries, String[] texts, Long[] storeIds, double[] entryWeights) {
+            this.keys = keys;
+            this.entries = entries;
+            this.texts = texts;
+            this.storeIds = storeIds;
+            this.weights = new double[keys.length];
+            for (int i = 0; i < keys.length; i++) weights[i] = entryWeights[entries[i]];
+
+            int levels = 1;
+            while ((1 << levels) <= keys.length) levels++;
+            this.sparse = new int[levels][];
+            sparse[0] = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) sparse[0][i] = i;
+            for (int k = 1; k < levels; k++) {
+                int width = 1 << k;
+                sparse[k] = new int[keys.length - width + 1];
+                for (int i = 0; i + width <= keys.length; i++) {
+                    sparse[k][i] = heavier(sparse[k - 1][i], sparse[k - 1][i + width / 2]);
+                }
+            }
+        }
+
+        List<Suggestion> top(String keyword, int size) {
+            String prefix = key(keyword);
+            if (prefix.isEmpty() || keys.length == 0) return List.of();
+            int lo = lowerBound(prefix);
+            int hi = lowerBound(prefix + Character.MAX_VALUE);
+
+            List<Suggestion> result = new ArrayList<>(size);
+            Set<Integer> seen = new HashSet<>();
+            // {구간 시작, 구간 끝, 최댓값 위치}
+            PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> Double.compare(weights[b[2]], weights[a[2]]));
+            if (lo < hi) ranges.add(new int[]{lo, hi, maxIn(lo, hi)});
+            while (!ranges.isEmpty() && result.size() < size) {
+                int[] range = ranges.poll();
+                int max = range[2];
+                if (seen.add(entries[max])) result.add(new Suggestion(texts[entries[max]], storeIds[entries[max]]));
+                if (range[0] < max) ranges.add(new int[]{range[0], max, maxIn(range[0], max)});
+                if (max + 1 < range[1]) ranges.add(new int[]{max + 1, range[1], maxIn(max + 1, range[1])});
+            }
+            return result;
+        }
+
+        private int maxIn(int from, int to) {
+            int k = 31 - Integer.numberOfLeadingZeros(to - from);
+            return heavier(sparse[k][from], sparse[k][to - (1 << k)]);
+        }
+
+        private int heavier(int a, int b) {
+            return weights[a] >= weights[b] ? a : b;
+        }
+
+        private int lowerBound(String key) {
+            int lo = 0, hi = keys.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].compareTo(key) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        /**
+         * 공백, 특수문자를 빼고 자모로 분해한 키
+         */
+        static String key(String text) {
+            if (text == null) return "";
+            StringBuilder sb = new StringBuilder(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (Character.isLetterOrDigit(c)) sb.append(c);
+            }
+            return Hangul.decompose(sb.toString());
+        }
+
+        static final class Builder {
+            private final List<String> texts = new ArrayList<>();
+            private final List<Long> storeIds = new ArrayList<>();
+            private final List<Double> weights = new ArrayList<>();
+            private final List<Map.Entry<String, Integer>> keys = new ArrayList<>();
+
+            void add(String text, Long storeId, double weight) {
+                int entry = texts.size();
+                texts.add(text);
+                storeIds.add(storeId);
+                weights.add(weight);
+                // 단어마다 그 단어부터 끝까지를 키로 등록
+                String[] words = text.split("\\s+");
+                Set<String> entryKeys = new HashSet<>();
+                for (int i = 0; i < words.length; i++) {
+                    String key = key(String.join("", Arrays.asList(words).subList(i, words.length)));
+                    if (!key.isEmpty() && entryKeys.add(key)) keys.add(Map.entry(key, entry));
+                }
+            }
+
+            Dictionary build() {
+                keys.sort(Map.Entry.comparingByKey());
+                String[] keyArray = new String[keys.size()];
+                int[] entryArray = new int[keys.size()];
+                for (int i = 0; i < keys.size(); i++) {
+                    keyArray[i] = keys.get(i).getKey();
+                    entryArray[i] = keys.get(i).getValue();
+                }
+                return new Dictionary(keyArray, entryArray, texts.toArray(new String[0]), storeIds.toArray(new Long[0]),
+                        weights.stream().mapToDouble(Double::doubleValue).toArray());
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.mpnp.baechelin.store.repository;
+
+import com.mpnp.baechelin.store.domain.Store;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 수집한 업장을 JDBC 배치로 한 번에 저장
+ * INSERT ... ON DUPLICATE KEY UPDATE 로 행마다 존재 여부를 확인하지 않고 추가/수정한다 - rewriteBatchedStatements=true 이면 한 묶음이 하나의 INSERT 문이 된다
+ * 리뷰, 북마크 집계 컬럼은 추가할 때만 0으로 넣고 수정할 때는 건드리지 않는다
+ */
+@Repository
+@RequiredArgsConstructor
+public class StoreBulkRepository {
+    public static final int BATCH_SIZE = 500;
+
+    // 새 값은 VALUES() 함수(MySQL 8.0.20부터 deprecated) 대신 행 별칭으로 참조한다 - MySQL 8.0.19 이상
+    private static final String UPSERT_SQL = "INSERT INTO store (id, category, name, latitude, longitude, lat_e6, lng_e6, address, " +
+            "elevator, toilet, parking, phone_number, height_different, approach, facility_mask, content_hash, " +
+            "book_mark_count, review_count, point_avg, point_sum) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0, 0, 0) AS new " +
+            "ON DUPLICATE KEY UPDATE category = new.category, name = new.name, " +
+            "latitude = new.latitude, longitude = new.longitude, lat_e6 = new.lat_e6, lng_e6 = new.lng_e6, " +
+            "address = new.address, elevator = new.elevator, toilet = new.toilet, parking = new.parking, " +
+            "phone_number = new.phone_number, height_different = new.height_different, approach = new.approach, " +
+            "facility_mask = new.facility_mask, content_hash = new.content_hash";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * @param stores 저장할 업장 - 같은 id가 여러 번 있으면 마지막 값이 남는다
+     * @return 새로 추가된 업장 id - 이미지 수집 대상
+     */
+    public List<Long> upsert(List<Store> stores) {
+        if (stores.isEmpty()) return new ArrayList<>();
+        Set<Long> existingIds = findExistingIds(stores);
+        for (Store store : stores) store.updateDerivedColumns();
+
+        jdbcTemplate.getJdbcOperations().batchUpdate(UPSERT_SQL, stores, BATCH_SIZE, StoreBulkRepository::bind);
+        return stores.stream().map(Store::getId).filter(id -> !existingIds.contains(id)).distinct().collect(Collectors.toList());
+    }
+
+    // 행마다 existsById를 호출하지 않고 묶음마다 IN 조회 한 번
+    private Set<Long> findExistingIds(List<Store> stores) {
+        List<Long> ids = stores.stream().map(Store::getId).distinct().collect(Collectors.toList());
+        Set<Long> existingIds = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + BATCH_SIZE));
+            existingIds.addAll(jdbcTemplate.queryForList("SELECT id FROM store WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", chunk), Long.class));
+        }
+        return existingIds;
+    }
+
+    private static void bind(PreparedStatement ps, Store store) throws SQLException {
+        ps.setLong(1, store.getId());
+        ps.setString(2, store.getCategory());
+        ps.setString(3, store.getName());
+        ps.setBigDecimal(4, store.getLatitude());
+        ps.setBigDecimal(5, store.getLongitude());
+        ps.setInt(6, store.getLatE6());
+        ps.setInt(7, store.getLngE6());
+        ps.setString(8, store.getAddress());
+        ps.setString(9, store.getElevator());
+        ps.setString(10, store.getToilet());
+        ps.setString(11, store.getParking());
+        if (store.getPhoneNumber() == null) ps.setNull(12, Types.VARCHAR);
+        else ps.setString(12, store.getPhoneNumber());
+        ps.setString(13, store.getHeightDifferent());
+        ps.setString(14, store.getApproach());
+        ps.setInt(15, store.getFacilityMask());
+        ps.setLong(16, store.getContentHash());
+    }
+}
@@ -0,0 +1,195 @@
+package com.mpnp.baechelin.store.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mpnp.baechelin.common.GeoHash;
+import com.mpnp.baechelin.common.QuerydslLocation;
+import com.mpnp.baechelin.store.domain.Facility;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 거리순 업장 조회 후보 캐시 - geohash 칸 경계로 넓힌 화면 범위 안에서 조건을 만족하는 업장의 id와 좌표를 보관
+ * 지도를 조금씩 움직여도 같은 키가 되도록 범위를 칸 경계로 넓히고, 조회할 때마다 요청한 범위로 다시 거르고 요청한 기준점으로 정렬한다
+ * 수집, 집계 배치, 공간 인덱스 재생성 때 전체 삭제
+ */
+@Component
+public class StoreNearQueryCache {
+    // 화면 폭을 이 개수 이상의 칸으로 나누는 정밀도를 사용
+    private static final int CELLS_PER_VIEWPORT = 4;
+    private static final int MIN_PRECISION = 5;
+    private static final int MAX_PRECISION = 8;
+    // 가장 큰 칸으로도 이보다 많은 칸에 걸치는 넓은 화면은 후보가 너무 많아 캐시하지 않는다
+    private static final int MAX_CELLS = 1024;
+
+    private final Cache<String, Candidates> cache;
+
+    /**
+     * @param maxStores 모든 후보 목록에 보관할 최대 업장 수
+     * @param ttl       보관 시간(초)
+     */
+    public StoreNearQueryCache(@Value("${store.near-cache.max-stores:1000000}") long maxStores,
+                               @Value("${store.near-cache.ttl:60}") long ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxStores)
+                .<String, Candidates>weigher((key, candidates) -> candidates.size())
+                .expireAfterWrite(Duration.ofSeconds(ttl))
+                .build();
+    }
+
+    /**
+     * @return 칸 경계로 넓힌 범위(마이크로도)
+     */
+    public static Viewport quantize(int latStartE6, int latEndE6, int lngStartE6, int lngEndE6) {
+        double lngSpan = (lngEndE6 - lngStartE6) / QuerydslLocation.E6;
+        int precision = MIN_PRECISION;
+        while (precision < MAX_PRECISION && GeoHash.lngWidth(precision) > lngSpan / CELLS_PER_VIEWPORT) precision++;
+
+        double height = GeoHash.latHeight(precision);
+        double width = GeoHash.lngWidth(precision);
+        double latStart = floor(latStartE6 / QuerydslLocation.E6 + 90, height) - 90;
+        double latEnd = ceil(latEndE6 / QuerydslLocation.E6 + 90, height) - 90;
+        double lngStart = floor(lngStartE6 / QuerydslLocation.E6 + 180, width) - 180;
+        double lngEnd = ceil(lngEndE6 / QuerydslLocation.E6 + 180, width) - 180;
+
+        String key = GeoHash.encode(latStart + height / 2, lngStart + width / 2, precision) + ":"
+                + GeoHash.encode(latEnd - height / 2, lngEnd - width / 2, precision);
+        boolean cacheable = Math.round((latEnd - latStart) / height) * Math.round((lngEnd - lngStart) / width) <= MAX_CELLS;
+        return new Viewport(QuerydslLocation.toE6(latStart), QuerydslLocation.toE6(latEnd),
+                QuerydslLocation.toE6(lngStart), QuerydslLocation.toE6(lngEnd), key, cacheable);
+    }
+
+    public static String key(Viewport viewport, String category, List<String> facility) {
+        String categoryKey = category == null ? "ALL" : category.toUpperCase();
+        return viewport.getKey() + ":" + categoryKey + ":" + Facility.maskOf(facility);
+    }
+
+    /**
+     * @param loader 캐시에 없을 때 넓힌 범위의 후보를 조회
+     */
+    public Candidates get(String key, Supplier<Candidates> loader) {
+        return cache.get(key, k -> loader.get());
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static double floor(double value, double cell) {
+        return Math.floor(value / cell) * cell;
+    }
+
+    private static double ceil(double value, double cell) {
+        return Math.ceil(value / cell) * cell;
+    }
+
+    @Getter
+    public static class Viewport {
+        private final int latStartE6;
+        private final int latEndE6;
+        private final int lngStartE6;
+        private final int lngEndE6;
+        private final String key;
+        private final boolean cacheable;
+
+        Viewport(int latStartE6, int latEndE6, int lngStartE6, int lngEndE6, String key, boolean cacheable) {
+            this.latStartE6 = latStartE6;
+            this.latEndE6 = latEndE6;
+            this.lngStartE6 = lngStartE6;
+            this.lngEndE6 = lngEndE6;
+            this.key = key;
+            this.cacheable = cacheable;
+        }
+    }
+
+    /**
+     * 넓힌 범위 안에서 카테고리, 시설 조건을 만족하는 업장들 - 한 번 만들어지면 바뀌지 않는다
+     */
+    public static class Candidates {
+        private final long[] ids;
+        private final int[] latE6s;
+        private final int[] lngE6s;
+
+        /**
+         * @param rows id, latE6, lngE6 순서의 행
+         */
+        public static Candidates of(List<Object[]> rows) {
+            long[] ids = new long[rows.size()];
+            int[] latE6s = new int[rows.size()];
+            int[] lngE6s = new int[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                Object[] row = rows.get(i);
+                ids[i] = ((Number) row[0]).longValue();
+                latE6s[i] = ((Number) row[1]).intValue();
+                lngE6s[i] = ((Number) row[2]).intValue();
+            }
+            return new Candidates(ids, latE6s, lngE6s);
+        }
+
+        private Candidates(long[] ids, int[] latE6s, int[] lngE6s) {
+            this.ids = ids;
+            this.latE6s = latE6s;
+            this.lngE6s = lngE6s;
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        /**
+         * 요청한 범위(경계 포함) 안의 업장만 남기고 기준점과 가까운 순, 거리가 같으면 id 순으로 정렬해서 잘라낸다
+         *
+         * @return 페이지의 업장 id와 범위 안의 전체 개수
+         */
+        public NearIds findNear(int latStartE6, int latEndE6, int lngStartE6, int lngEndE6,
+                                double lat, double lng, long offset, long limit) {
+            int[] inside = new int[ids.length];
+            int count = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (latE6s[i] < latStartE6 || latE6s[i] > latEndE6 || lngE6s[i] < lngStartE6 || lngE6s[i] > lngEndE6) continue;
+                inside[count++] = i;
+            }
+            if (offset >= count || limit <= 0) return new NearIds(new long[0], count);
+
+            // DB의 구면 코사인 법칙 거리 acos(x) * 6371 은 x가 클수록 가까우므로 -x 로 순서만 비교한다
+            double sinLat = Math.sin(Math.toRadians(lat));
+            double cosLat = Math.cos(Math.toRadians(lat));
+            double radLng = Math.toRadians(lng);
+            Integer[] order = new Integer[count];
+            double[] dist = new double[count];
+            for (int j = 0; j < count; j++) {
+                int i = inside[j];
+                double storeLat = Math.toRadians(latE6s[i] / QuerydslLocation.E6);
+                double storeLng = Math.toRadians(lngE6s[i] / QuerydslLocation.E6);
+                dist[j] = -(sinLat * Math.sin(storeLat) + cosLat * Math.cos(storeLat) * Math.cos(radLng - storeLng));
+                order[j] = j;
+            }
+            Arrays.sort(order, Comparator.<Integer>comparingDouble(j -> dist[j]).thenComparingLong(j -> ids[inside[j]]));
+
+            int end = (int) Math.min(count, offset + limit);
+            long[] page = new long[end - (int) offset];
+            for (int j = (int) offset; j < end; j++) {
+                page[j - (int) offset] = ids[inside[order[j]]];
+            }
+            return new NearIds(page, count);
+        }
+    }
+
+    @Getter
+    public static class NearIds {
+        private final long[] storeIds;
+        private final long totalCount;
+
+        NearIds(long[] storeIds, long totalCount) {
+            this.storeIds = storeIds;
+            this.totalCount = totalCount;
+        }
+    }
+}
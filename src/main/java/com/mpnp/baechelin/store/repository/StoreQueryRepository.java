@@ -1,34 +1,49 @@
 package com.mpnp.baechelin.store.repository;
 
-import com.mpnp.baechelin.common.QueryDslSearch;
 import com.mpnp.baechelin.common.QuerydslLocation;
 import com.mpnp.baechelin.store.domain.QStore;
 import com.mpnp.baechelin.store.domain.Store;
+import com.mpnp.baechelin.store.dto.StoreClusterResponseDto;
+import com.mpnp.baechelin.store.dto.StoreCursor;
+import com.mpnp.baechelin.store.index.StoreGridIndex;
+import com.mpnp.baechelin.store.index.StoreSearchIndex;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.Tuple;
 import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.Path;
 import com.querydsl.core.types.dsl.*;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 
 import javax.transaction.Transactional;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.mpnp.baechelin.common.QueryDslSearch.getSearchBooleanBuilder;
 import static com.mpnp.baechelin.common.QuerydslLocation.locTwoPointAndConditions;
 import static com.mpnp.baechelin.store.domain.QStore.store;
+import static com.mpnp.baechelin.store.domain.QStoreImage.storeImage;
 import static com.querydsl.core.types.dsl.Expressions.constant;
 import static com.querydsl.core.types.dsl.MathExpressions.*;
 
@@ -37,46 +52,208 @@ import static com.querydsl.core.types.dsl.MathExpressions.*;
 @Slf4j
 public class StoreQueryRepository extends QuerydslRepositorySupport {
     private final JPAQueryFactory queryFactory;
+    private final StoreGridIndex storeGridIndex;
+    private final StoreSpatialQueryRepository storeSpatialQueryRepository;
+    private final StoreSearchIndex storeSearchIndex;
+    private final StoreNearQueryCache storeNearQueryCache;
+    // 거리순 조회 경로 - index(메모리 격자 인덱스), spatial(MySQL 공간 인덱스), sql(삼각함수 거리 계산)
+    private final String nearQueryMode;
 
-    public StoreQueryRepository(JPAQueryFactory queryFactory) {
+    public StoreQueryRepository(JPAQueryFactory queryFactory, StoreGridIndex storeGridIndex,
+                                StoreSpatialQueryRepository storeSpatialQueryRepository, StoreSearchIndex storeSearchIndex,
+                                StoreNearQueryCache storeNearQueryCache, @Value("${store.near-query.mode:index}") String nearQueryMode) {
         super(Store.class);
         this.queryFactory = queryFactory;
+        this.storeGridIndex = storeGridIndex;
+        this.storeSpatialQueryRepository = storeSpatialQueryRepository;
+        this.storeSearchIndex = storeSearchIndex;
+        this.storeNearQueryCache = storeNearQueryCache;
+        this.nearQueryMode = nearQueryMode;
     }
 
-    public Page<Store> findBetweenTwoPointOrder(BigDecimal latStart,
-                                                BigDecimal latEnd,
-                                                BigDecimal lngStart,
-                                                BigDecimal lngEnd,
-                                                String category,
-                                                List<String> facility,
-                                                Pageable pageable) {
-        BooleanBuilder builder = QuerydslLocation.locAndConditions(latStart, latEnd, lngStart, lngEnd, category, facility);
+    public Slice<Store> findBetweenTwoPointOrder(BigDecimal latStart,
+                                                 BigDecimal latEnd,
+                                                 BigDecimal lngStart,
+                                                 BigDecimal lngEnd,
+                                                 String category,
+                                                 List<String> facility,
+                                                 Pageable pageable,
+                                                 boolean withTotal) {
         if (latStart == null || lngStart == null || lngEnd == null || latEnd == null)
-            return findBetweenOnePointOrderNullCase(builder, pageable);
-        BigDecimal nowLat = (latStart.add(latEnd)).divide(new BigDecimal("2"), 22, RoundingMode.HALF_UP);
-        BigDecimal nowLng = (lngStart.add(lngEnd)).divide(new BigDecimal("2"), 22, RoundingMode.HALF_UP);
+            return findBetweenOnePointOrderNullCase(QuerydslLocation.locAndConditions(latStart, latEnd, lngStart, lngEnd, category, facility), pageable);
+        int latStartE6 = QuerydslLocation.toE6(latStart.doubleValue());
+        int latEndE6 = QuerydslLocation.toE6(latEnd.doubleValue());
+        int lngStartE6 = QuerydslLocation.toE6(lngStart.doubleValue());
+        int lngEndE6 = QuerydslLocation.toE6(lngEnd.doubleValue());
+        // 화면 중심에서 가까운 순
+        double nowLat = ((long) latStartE6 + latEndE6) / 2.0 / QuerydslLocation.E6;
+        double nowLng = ((long) lngStartE6 + lngEndE6) / 2.0 / QuerydslLocation.E6;
+        return findBetweenOnePointOrder(latStartE6, latEndE6, lngStartE6, lngEndE6, nowLat, nowLng, category, facility, pageable, withTotal);
+    }
+
+
+    public Slice<Store> findBetweenOnePointOrder(BigDecimal latStart,
+                                                 BigDecimal latEnd,
+                                                 BigDecimal lngStart,
+                                                 BigDecimal lngEnd,
+                                                 BigDecimal lat,
+                                                 BigDecimal lng,
+                                                 String category,
+                                                 List<String> facility,
+                                                 Pageable pageable,
+                                                 boolean withTotal) {
+        if (latStart == null || lngStart == null || lngEnd == null || latEnd == null || lat == null || lng == null)
+            return findBetweenOnePointOrderNullCase(QuerydslLocation.locAndConditions(latStart, latEnd, lngStart, lngEnd, category, facility), pageable);
+        return findBetweenOnePointOrder(QuerydslLocation.toE6(latStart.doubleValue()), QuerydslLocation.toE6(latEnd.doubleValue()),
+                QuerydslLocation.toE6(lngStart.doubleValue()), QuerydslLocation.toE6(lngEnd.doubleValue()),
+                lat.doubleValue(), lng.doubleValue(), category, facility, pageable, withTotal);
+    }
+
+    /**
+     * 범위는 마이크로도 정수, 기준점은 double로 받아 BigDecimal 연산 없이 조회
+     *
+     * @param lat 거리 기준 위도
+     * @param lng 거리 기준 경도
+     */
+    public Slice<Store> findBetweenOnePointOrder(int latStartE6,
+                                                 int latEndE6,
+                                                 int lngStartE6,
+                                                 int lngEndE6,
+                                                 double lat,
+                                                 double lng,
+                                                 String category,
+                                                 List<String> facility,
+                                                 Pageable pageable,
+                                                 boolean withTotal) {
+        // 비슷한 화면 범위, 같은 조건이면 같은 후보 목록을 쓰도록 범위를 geohash 칸 경계로 넓힌다
+        StoreNearQueryCache.Viewport viewport = StoreNearQueryCache.quantize(latStartE6, latEndE6, lngStartE6, lngEndE6);
+        if (!viewport.isCacheable())
+            return findNearStores(latStartE6, latEndE6, lngStartE6, lngEndE6, lat, lng, category, facility, pageable, withTotal);
+        StoreNearQueryCache.Candidates candidates = storeNearQueryCache.get(StoreNearQueryCache.key(viewport, category, facility),
+                () -> findNearCandidates(viewport, category, facility));
+        // 후보는 넓힌 범위 기준이므로 요청한 범위로 다시 거르고 요청한 기준점으로 정렬한다
+        StoreNearQueryCache.NearIds nearIds = candidates.findNear(latStartE6, latEndE6, lngStartE6, lngEndE6, lat, lng,
+                pageable.getOffset(), limitOf(pageable, withTotal));
+        return toSlice(findAllByIdInOrder(nearIds.getStoreIds()), pageable, nearIds.getTotalCount(), withTotal);
+    }
+
+    /**
+     * @return 넓힌 범위 안에서 조건을 만족하는 모든 업장의 id와 좌표
+     */
+    private StoreNearQueryCache.Candidates findNearCandidates(StoreNearQueryCache.Viewport viewport, String category, List<String> facility) {
+        BooleanBuilder builder = QuerydslLocation.locAndConditions(viewport.getLatStartE6(), viewport.getLatEndE6(),
+                viewport.getLngStartE6(), viewport.getLngEndE6(), category, facility);
+        List<Object[]> rows = queryFactory
+                .select(store.id, store.latE6, store.lngE6)
+                .from(store)
+                .where(builder)
+                .fetch()
+                .stream()
+                .map(Tuple::toArray)
+                .collect(Collectors.toList());
+        return StoreNearQueryCache.Candidates.of(rows);
+    }
+
+    private Slice<Store> findNearStores(int latStartE6, int latEndE6, int lngStartE6, int lngEndE6, double lat, double lng,
+                                        String category, List<String> facility, Pageable pageable, boolean withTotal) {
+        if (StoreSpatialQueryRepository.MODE.equalsIgnoreCase(nearQueryMode) && storeSpatialQueryRepository.isAvailable())
+            return getNearStoresFromSpatialIndex(latStartE6, latEndE6, lngStartE6, lngEndE6, lat, lng, category, facility, pageable, withTotal);
+        if ("index".equalsIgnoreCase(nearQueryMode) && storeGridIndex.isReady())
+            return getNearStoresFromIndex(latStartE6 / QuerydslLocation.E6, latEndE6 / QuerydslLocation.E6,
+                    lngStartE6 / QuerydslLocation.E6, lngEndE6 / QuerydslLocation.E6, lat, lng, category, facility, pageable);
+        BooleanBuilder builder = QuerydslLocation.locAndConditions(latStartE6, latEndE6, lngStartE6, lngEndE6, category, facility);
         NumberPath<Double> path = Expressions.numberPath(Double.class, "realdist");
-        return getNearStores(nowLat, nowLng, pageable, builder, path);
+        return getNearStores(lat, lng, pageable, withTotal, builder, path);
     }
 
+    /**
+     * 공간 인덱스에서 거리순으로 페이지에 해당하는 업장 id를 찾고, DB에서는 해당 id만 조회
+     */
+    private Page<Store> getNearStoresFromIndex(double latStart, double latEnd, double lngStart, double lngEnd,
+                                               double lat, double lng, String category, List<String> facility,
+                                               Pageable pageable) {
+        StoreGridIndex.NearResult nearResult = storeGridIndex.findNear(
+                latStart, latEnd, lngStart, lngEnd, lat, lng, category, facility, pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(findAllByIdInOrder(nearResult.getStoreIds()), pageable, nearResult.getTotalCount());
+    }
+
+    /**
+     * 지도 축소 화면용 군집 - 공간 인덱스가 있으면 메모리에서, 없으면 칸 번호 GROUP BY로 계산
+     *
+     * @param tileE6 군집 칸 한 변의 크기(마이크로도)
+     */
+    public List<StoreClusterResponseDto.Cluster> clusterStores(BigDecimal latStart,
+                                                               BigDecimal latEnd,
+                                                               BigDecimal lngStart,
+                                                               BigDecimal lngEnd,
+                                                               String category,
+                                                               List<String> facility,
+                                                               int tileE6) {
+        if (storeGridIndex.isReady())
+            return storeGridIndex.cluster(latStart.doubleValue(), latEnd.doubleValue(), lngStart.doubleValue(), lngEnd.doubleValue(),
+                    category, facility, tileE6);
 
-    public Page<Store> findBetweenOnePointOrder(BigDecimal latStart,
-                                                BigDecimal latEnd,
-                                                BigDecimal lngStart,
-                                                BigDecimal lngEnd,
-                                                BigDecimal lat,
-                                                BigDecimal lng,
-                                                String category,
-                                                List<String> facility,
-                                                Pageable pageable) {
         BooleanBuilder builder = QuerydslLocation.locAndConditions(latStart, latEnd, lngStart, lngEnd, category, facility);
-        if (latStart == null || lngStart == null || lngEnd == null || latEnd == null)
-            return findBetweenOnePointOrderNullCase(builder, pageable);
-        NumberPath<Double> path = Expressions.numberPath(Double.class, "realdist");
-        return getNearStores(lat, lng, pageable, builder, path);
+        // 파라미터로 바인딩하면 SELECT와 GROUP BY의 식이 다른 식으로 취급되므로 칸 크기는 정수 리터럴로 넣는다
+        NumberExpression<Integer> latTile = Expressions.numberTemplate(Integer.class, "floor({0} / " + tileE6 + ")", store.latE6);
+        NumberExpression<Integer> lngTile = Expressions.numberTemplate(Integer.class, "floor({0} / " + tileE6 + ")", store.lngE6);
+        List<StringPath> facilityColumns = Arrays.asList(store.elevator, store.toilet, store.parking, store.heightDifferent, store.approach);
+        // Facility ordinal 순서
+        List<NumberExpression<Long>> facilityCounts = facilityColumns.stream()
+                .map(column -> new CaseBuilder().when(column.eq("Y")).then(1L).otherwise(0L).sum())
+                .collect(Collectors.toList());
+
+        List<Expression<?>> select = new ArrayList<>(Arrays.asList(store.count(), store.latE6.avg(), store.lngE6.avg(), store.id.min()));
+        select.addAll(facilityCounts);
+        return queryFactory
+                .select(select.toArray(new Expression<?>[0]))
+                .from(store)
+                .where(builder)
+                .groupBy(latTile, lngTile)
+                .fetch()
+                .stream()
+                .map(tuple -> {
+                    int[] counts = new int[facilityCounts.size()];
+                    for (int i = 0; i < counts.length; i++) {
+                        Long count = tuple.get(facilityCounts.get(i));
+                        counts[i] = count == null ? 0 : count.intValue();
+                    }
+                    return new StoreClusterResponseDto.Cluster(
+                            tuple.get(store.latE6.avg()) / QuerydslLocation.E6, tuple.get(store.lngE6.avg()) / QuerydslLocation.E6,
+                            tuple.get(store.count()).intValue(), counts, tuple.get(store.id.min()));
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * MySQL 공간 인덱스(MBRCovers + ST_Distance_Sphere)로 페이지에 해당하는 업장 id를 찾고, 해당 id만 조회
+     */
+    private Slice<Store> getNearStoresFromSpatialIndex(int latStartE6, int latEndE6, int lngStartE6, int lngEndE6,
+                                                       double lat, double lng, String category, List<String> facility,
+                                                       Pageable pageable, boolean withTotal) {
+        StoreSpatialQueryRepository.NearResult nearResult = storeSpatialQueryRepository.findNear(
+                latStartE6, latEndE6, lngStartE6, lngEndE6, lat, lng, category, facility,
+                pageable.getOffset(), (int) limitOf(pageable, withTotal), withTotal);
+        return toSlice(findAllByIdInOrder(nearResult.getStoreIds()), pageable, nearResult.getTotalCount(), withTotal);
+    }
+
+    /**
+     * @param storeIds 조회할 업장 id - 순서대로
+     * @return id 순서를 유지한 업장 리스트
+     */
+    private List<Store> findAllByIdInOrder(long[] storeIds) {
+        if (storeIds.length == 0) return new ArrayList<>();
+        List<Long> idList = Arrays.stream(storeIds).boxed().collect(Collectors.toList());
+        Map<Long, Store> storeMap = queryFactory
+                .selectFrom(store)
+                .where(store.id.in(idList))
+                .fetch()
+                .stream()
+                .collect(Collectors.toMap(Store::getId, Function.identity()));
+        return idList.stream().map(storeMap::get).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
-    private Page<Store> getNearStores(BigDecimal lat, BigDecimal lng, Pageable pageable, BooleanBuilder builder, NumberPath<Double> path) {
+    private Slice<Store> getNearStores(double lat, double lng, Pageable pageable, boolean withTotal, BooleanBuilder builder, NumberPath<Double> path) {
         List<Tuple> tupleList =
                 queryFactory
                         .select(store,
@@ -88,12 +265,11 @@ public class StoreQueryRepository extends QuerydslRepositorySupport {
                         .from(store)
                         .where(builder)
                         .orderBy(path.asc())
-                        .limit(pageable.getPageSize())
+                        .limit(limitOf(pageable, withTotal))
                         .offset(pageable.getOffset())
                         .fetch();
         List<Store> storeList = tupleList.stream().map(tuple -> tuple.get(store)).collect(Collectors.toList());
-        int fetchCount = queryFactory.selectFrom(store).where(builder).fetch().size();
-        return new PageImpl<>(storeList, pageable, fetchCount);
+        return toSlice(storeList, builder, pageable, withTotal);
     }
 
     private Page<Store> findBetweenOnePointOrderNullCase(BooleanBuilder builder,
@@ -107,11 +283,12 @@ public class StoreQueryRepository extends QuerydslRepositorySupport {
         return new PageImpl<>(storeList, pageable, storeList.size());
     }
 
-    public Page<Store> findStoreOrderByPoint(BigDecimal lat,
-                                             BigDecimal lng,
-                                             String category,
-                                             List<String> facility,
-                                             Pageable pageable) {
+    public Slice<Store> findStoreOrderByPoint(BigDecimal lat,
+                                              BigDecimal lng,
+                                              String category,
+                                              List<String> facility,
+                                              Pageable pageable,
+                                              boolean withTotal) {
 
         BooleanBuilder builder = locTwoPointAndConditions(lat, lng, category, facility);
         if (lat == null || lng == null) return findStoreOrderByPointNullCase(builder, pageable);
@@ -119,11 +296,10 @@ public class StoreQueryRepository extends QuerydslRepositorySupport {
                 .selectFrom(store)
                 .where(builder)
                 .orderBy(store.pointAvg.desc())
-                .limit(pageable.getPageSize())
+                .limit(limitOf(pageable, withTotal))
                 .offset(pageable.getOffset())
                 .fetch();
-        int fetchCount = queryFactory.selectFrom(store).where(builder).fetch().size();
-        return new PageImpl<>(storeList, pageable, fetchCount);
+        return toSlice(storeList, builder, pageable, withTotal);
     }
 
     private Page<Store> findStoreOrderByPointNullCase(BooleanBuilder builder,
@@ -137,20 +313,21 @@ public class StoreQueryRepository extends QuerydslRepositorySupport {
         return new PageImpl<>(storeList, pageable, storeList.size());
     }
 
-    public Page<Store> findStoreOrderByBookmark(BigDecimal lat,
-                                                BigDecimal lng,
-                                                String category,
-                                                List<String> facility,
-                                                Pageable pageable) {
+    public Slice<Store> findStoreOrderByBookmark(BigDecimal lat,
+                                                 BigDecimal lng,
+                                                 String category,
+                                                 List<String> facility,
+                                                 Pageable pageable,
+                                                 boolean withTotal) {
         BooleanBuilder builder = locTwoPointAndConditions(lat, lng, category, facility);
         if (lat == null || lng == null) return findStoreOrderByBookmarkNullCase(builder, pageable);
         List<Store> storeList = queryFactory.selectFrom(store)
                 .where(builder)
-                .limit(pageable.getPageSize())
+                .orderBy(store.bookMarkCount.desc())
+                .limit(limitOf(pageable, withTotal))
                 .offset(pageable.getOffset())
                 .fetch();
-        int fetchCount = queryFactory.selectFrom(store).where(builder).fetch().size();
-        return new PageImpl<>(storeList, pageable, fetchCount);
+        return toSlice(storeList, builder, pageable, withTotal);
     }
 
     public Page<Store> findStoreOrderByBookmarkNullCase(BooleanBuilder builder,
@@ -164,30 +341,165 @@ public class StoreQueryRepository extends QuerydslRepositorySupport {
         return new PageImpl<>(storeList, pageable, storeList.size());
     }
 
-    // 시/도 정보로 시/군/구 정보를 조회
-    public List<Store> getSigungu(String sido) {
-        BooleanExpression matchAddress = QueryDslSearch.matchAddressWithSido(sido);
+    /**
+     * 커서 페이징 - offset 없이 마지막 정렬 키 다음부터 조회하므로 뒤 페이지도 첫 페이지와 같은 비용
+     *
+     * @param cursor 이전 페이지 마지막 업장의 (별점, id) - 첫 페이지면 null
+     * @param size   페이지 크기
+     * @return 별점 내림차순, id 오름차순으로 정렬된 업장
+     */
+    public Slice<Store> findStoreOrderByPoint(BigDecimal lat,
+                                              BigDecimal lng,
+                                              String category,
+                                              List<String> facility,
+                                              StoreCursor cursor,
+                                              int size) {
+        BooleanBuilder builder = locTwoPointAndConditions(lat, lng, category, facility);
+        if (cursor != null)
+            builder.and(store.pointAvg.lt(cursor.getSortValue())
+                    .or(store.pointAvg.eq(cursor.getSortValue()).and(store.id.gt(cursor.getStoreId()))));
+        List<Store> storeList = queryFactory
+                .selectFrom(store)
+                .where(builder)
+                .orderBy(store.pointAvg.desc(), store.id.asc())
+                .limit(size + 1L)
+                .fetch();
+        return toCursorSlice(storeList, size);
+    }
+
+    /**
+     * @param cursor 이전 페이지 마지막 업장의 (북마크 수, id) - 첫 페이지면 null
+     * @param size   페이지 크기
+     * @return 북마크 수 내림차순, id 오름차순으로 정렬된 업장
+     */
+    public Slice<Store> findStoreOrderByBookmark(BigDecimal lat,
+                                                 BigDecimal lng,
+                                                 String category,
+                                                 List<String> facility,
+                                                 StoreCursor cursor,
+                                                 int size) {
+        BooleanBuilder builder = locTwoPointAndConditions(lat, lng, category, facility);
+        if (cursor != null) {
+            int bookmarkCount = (int) cursor.getSortValue();
+            builder.and(store.bookMarkCount.lt(bookmarkCount)
+                    .or(store.bookMarkCount.eq(bookmarkCount).and(store.id.gt(cursor.getStoreId()))));
+        }
+        List<Store> storeList = queryFactory
+                .selectFrom(store)
+                .where(builder)
+                .orderBy(store.bookMarkCount.desc(), store.id.asc())
+                .limit(size + 1L)
+                .fetch();
+        return toCursorSlice(storeList, size);
+    }
 
-        return queryFactory
+    /**
+     * @param type   SCORE면 검색 색인, ID면 색인이 준비되기 전의 전문 검색으로 조회
+     * @param cursor 이전 페이지 마지막 업장의 정렬 키 - SCORE면 (점수, id), ID면 (id), 첫 페이지면 null
+     * @param size   페이지 크기
+     * @return SCORE면 점수 내림차순, id 오름차순 / ID면 id 오름차순으로 정렬된 검색 결과
+     */
+    public Slice<Store> searchStores(String sido, String sigungu, String keyword, String category, List<String> facility,
+                                     StoreCursor.Type type, StoreCursor cursor, int size) {
+        if (type == StoreCursor.Type.SCORE) {
+            StoreSearchIndex.SearchResult result = storeSearchIndex.search(sido, sigungu, keyword, category, facility, cursor, size + 1);
+            return toCursorSlice(findAllByIdInOrder(result.getStoreIds()), size);
+        }
+        // 색인이 아직 없으면 전문 검색
+        BooleanBuilder builder = getSearchBooleanBuilder(sido, sigungu, keyword, category, facility);
+        if (cursor != null) builder.and(store.id.gt(cursor.getStoreId()));
+
+        List<Store> storeList = queryFactory
                 .selectFrom(store)
-                .where(matchAddress)
+                .where(builder)
+                .orderBy(store.id.asc())
+                .limit(size + 1L)
                 .fetch();
+        return toCursorSlice(storeList, size);
     }
 
+    /**
+     * @param storeIds 페이지에 포함된 업장 id
+     * @return 업장 id별 이미지 URL 리스트 - 업장마다 조회하지 않고 한 번의 IN 쿼리로 조회
+     */
+    public Map<Long, List<String>> findImageUrlsByStoreIds(Collection<Long> storeIds) {
+        if (storeIds.isEmpty()) return new HashMap<>();
+        return queryFactory
+                .select(storeImage.store.id, storeImage.storeImageUrl)
+                .from(storeImage)
+                .where(storeImage.store.id.in(storeIds))
+                .orderBy(storeImage.id.asc())
+                .fetch()
+                .stream()
+                .collect(Collectors.groupingBy(tuple -> tuple.get(storeImage.store.id),
+                        Collectors.mapping(tuple -> tuple.get(storeImage.storeImageUrl), Collectors.toList())));
+    }
 
-    // 주소로 검색, 검색어로 검색
-    public Page<Store> searchStores(String sido, String sigungu, String keyword, String category, List<String> facility, Pageable pageable) {
+    // 주소로 검색, 검색어로 검색 - 검색 색인에서 관련도순으로 페이지의 업장 id를 찾고 해당 id만 조회
+    public Slice<Store> searchStores(String sido, String sigungu, String keyword, String category, List<String> facility, Pageable pageable, boolean withTotal) {
+        if (storeSearchIndex.isReady()) {
+            StoreSearchIndex.SearchResult result = storeSearchIndex.search(sido, sigungu, keyword, category, facility,
+                    pageable.getOffset(), (int) limitOf(pageable, withTotal));
+            return toSlice(findAllByIdInOrder(result.getStoreIds()), pageable, result.getTotalCount(), withTotal);
+        }
         BooleanBuilder builder = getSearchBooleanBuilder(sido, sigungu, keyword, category, facility);
 
         List<Store> storeList = queryFactory
                 .selectFrom(store)
                 .where(builder)
-                .limit(pageable.getPageSize())
+                .limit(limitOf(pageable, withTotal))
                 .offset(pageable.getOffset())
                 .fetch();
-        int fetchSize = queryFactory.selectFrom(store)
+        return toSlice(storeList, builder, pageable, withTotal);
+    }
+
+    /**
+     * @param withTotal 전체 개수 필요 여부
+     * @return 전체 개수가 필요 없으면 다음 페이지 확인을 위해 한 개 더 조회
+     */
+    private long limitOf(Pageable pageable, boolean withTotal) {
+        return withTotal ? pageable.getPageSize() : pageable.getPageSize() + 1L;
+    }
+
+    /**
+     * @param storeList 조회 결과 - withTotal이 false면 페이지 크기보다 한 개 더 조회된 결과
+     * @param builder   전체 개수를 셀 때 사용할 조건
+     * @param withTotal false면 COUNT 쿼리 없이 다음 페이지 존재 여부만 확인 (무한 스크롤용)
+     * @return 전체 개수가 포함된 Page, 혹은 다음 페이지 여부만 가진 Slice
+     */
+    private Slice<Store> toSlice(List<Store> storeList, BooleanBuilder builder, Pageable pageable, boolean withTotal) {
+        if (withTotal)
+            // 첫 페이지 결과가 페이지 크기보다 작으면 COUNT 쿼리도 생략된다
+            return PageableExecutionUtils.getPage(storeList, pageable, () -> countStores(builder));
+        boolean hasNext = storeList.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? storeList.subList(0, pageable.getPageSize()) : storeList, pageable, hasNext);
+    }
+
+    /**
+     * @param storeList  색인에서 찾은 id로 조회한 결과 - withTotal이 false면 페이지 크기보다 한 개 더 조회된 결과
+     * @param totalCount 색인이 알려준 전체 개수
+     */
+    private Slice<Store> toSlice(List<Store> storeList, Pageable pageable, long totalCount, boolean withTotal) {
+        if (withTotal) return new PageImpl<>(storeList, pageable, totalCount);
+        boolean hasNext = storeList.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? storeList.subList(0, pageable.getPageSize()) : storeList, pageable, hasNext);
+    }
+
+    /**
+     * @param storeList 페이지 크기보다 한 개 더 조회된 결과
+     * @return 다음 페이지 여부만 가진 Slice
+     */
+    private Slice<Store> toCursorSlice(List<Store> storeList, int size) {
+        boolean hasNext = storeList.size() > size;
+        return new SliceImpl<>(hasNext ? storeList.subList(0, size) : storeList, PageRequest.of(0, size), hasNext);
+    }
+
+    private long countStores(BooleanBuilder builder) {
+        Long count = queryFactory
+                .select(store.count())
+                .from(store)
                 .where(builder)
-                .fetch().size();
-        return new PageImpl<>(storeList, pageable, fetchSize);
+                .fetchOne();
+        return count == null ? 0 : count;
     }
 }
@@ -8,21 +8,82 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface StoreRepository extends JpaRepository<Store, Long> {
+    // 집계 증감 쿼리 - pointAvg를 가장 먼저 SET 해서 항상 바뀌기 전의 pointSum, reviewCount로 계산되게 한다
     @Modifying
-    @Query("UPDATE Store s set s.pointAvg = :avg where s.id = :storeId")
-    void updateAvg(@Param("avg") double avg, @Param("storeId") Long storeId);
+    @Query("UPDATE Store s SET s.pointAvg = ROUND((s.pointSum + :point) / (s.reviewCount + 1), 1), " +
+            "s.pointSum = s.pointSum + :point, s.reviewCount = s.reviewCount + 1, s.aggregateModifiedAt = :now WHERE s.id = :storeId")
+    int addReviewPoint(@Param("storeId") long storeId, @Param("point") double point, @Param("now") LocalDateTime now);
 
-    @Query("SELECT AVG(p.point) FROM Store s join s.reviewList p where s.id = :id")
-    double getAvg(@Param("id") Long id);
+    @Modifying
+    @Query("UPDATE Store s SET s.pointAvg = CASE WHEN s.reviewCount > 0 THEN ROUND((s.pointSum + :newPoint - :oldPoint) / s.reviewCount, 1) ELSE s.pointAvg END, " +
+            "s.pointSum = s.pointSum + :newPoint - :oldPoint, s.aggregateModifiedAt = :now WHERE s.id = :storeId")
+    int changeReviewPoint(@Param("storeId") long storeId, @Param("oldPoint") double oldPoint, @Param("newPoint") double newPoint, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Store s SET s.pointAvg = CASE WHEN s.reviewCount > 1 THEN ROUND((s.pointSum - :point) / (s.reviewCount - 1), 1) ELSE 0 END, " +
+            "s.pointSum = CASE WHEN s.reviewCount > 1 THEN s.pointSum - :point ELSE 0 END, " +
+            "s.reviewCount = CASE WHEN s.reviewCount > 0 THEN s.reviewCount - 1 ELSE 0 END, s.aggregateModifiedAt = :now WHERE s.id = :storeId")
+    int removeReviewPoint(@Param("storeId") long storeId, @Param("point") double point, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Store s SET s.bookMarkCount = CASE WHEN s.bookMarkCount + :delta > 0 THEN s.bookMarkCount + :delta ELSE 0 END, " +
+            "s.aggregateModifiedAt = :now WHERE s.id IN :storeIds")
+    int addBookmarkCount(@Param("storeIds") Collection<Long> storeIds, @Param("delta") int delta, @Param("now") LocalDateTime now);
+
+    // 리뷰, 북마크 테이블에서 집계를 다시 계산해서 덮어쓴다 - 업장 하나씩이 아니라 id 묶음 단위로 한 번에 처리
+    @Modifying
+    @Query(value = "UPDATE store s " +
+            "LEFT JOIN (SELECT r.store_id, SUM(r.point) AS point_sum, COUNT(*) AS review_count FROM review r " +
+            "WHERE r.store_id IN (:storeIds) GROUP BY r.store_id) rv ON rv.store_id = s.id " +
+            "LEFT JOIN (SELECT b.store_id, COUNT(*) AS bookmark_count FROM bookmark b " +
+            "WHERE b.store_id IN (:storeIds) GROUP BY b.store_id) bm ON bm.store_id = s.id " +
+            "SET s.point_avg = COALESCE(ROUND(rv.point_sum / rv.review_count, 1), 0), s.point_sum = COALESCE(rv.point_sum, 0), " +
+            "s.review_count = COALESCE(rv.review_count, 0), " +
+            "s.book_mark_count = COALESCE(bm.bookmark_count, 0) " +
+            "WHERE s.id IN (:storeIds)", nativeQuery = true)
+    int reconcileAggregates(@Param("storeIds") Collection<Long> storeIds);
 
+    // 공간 인덱스 생성용 - 엔티티 대신 필요한 컬럼만 조회
+    @Query("SELECT s.id, s.latE6, s.lngE6, s.category, s.facilityMask FROM Store s")
+    List<Object[]> findAllLocations();
+
+    // 검색 색인 생성용 - 엔티티 대신 필요한 컬럼만 조회
+    @Query("SELECT s.id, s.name, s.category, s.address, s.facilityMask FROM Store s")
+    List<Object[]> findAllSearchFields();
+
+    // 자동완성 사전 생성용
+    @Query("SELECT s.id, s.name, s.bookMarkCount, s.pointAvg FROM Store s")
+    List<Object[]> findAllSuggestFields();
+
+    // 시/군/구 사전 생성용 - 주소 앞 세 단어(시/도, 시/군/구, 구)별 업장 수
+    @Query(value = "SELECT SUBSTRING_INDEX(address, ' ', 3) AS prefix, COUNT(*) FROM store WHERE address IS NOT NULL GROUP BY prefix", nativeQuery = true)
+    List<Object[]> findAddressPrefixCounts();
+
+    // facilityMask 컬럼 추가 전부터 있던 업장, SQL로 직접 수정된 업장의 비트마스크를 "Y"/"N" 컬럼에 맞춘다 - 비트 순서는 Facility와 같다
     @Modifying
-    @Query("UPDATE Store s set s.bookMarkCount = :count where s.id = :storeId")
-    void updateBookmarkCnt(@Param("count") int count, @Param("storeId") Long storeId);
+    @Query(value = "UPDATE store SET facility_mask = " +
+            "(elevator = 'Y') | (toilet = 'Y') << 1 | (parking = 'Y') << 2 | (height_different = 'Y') << 3 | (approach = 'Y') << 4 " +
+            "WHERE facility_mask <> ((elevator = 'Y') | (toilet = 'Y') << 1 | (parking = 'Y') << 2 | (height_different = 'Y') << 3 | (approach = 'Y') << 4)",
+            nativeQuery = true)
+    int syncFacilityMask();
 
-    @Query("SELECT COUNT(b) FROM Store s join s.bookmarkList b where s.id = :id")
-    int getBookmarkCnt(@Param("id") Long id);
-}
\ No newline at end of file
+    // latE6, lngE6 컬럼 추가 전부터 있던 업장, SQL로 직접 수정된 업장의 정수 좌표를 DECIMAL 좌표에 맞춘다
+    @Modifying
+    @Query(value = "UPDATE store SET lat_e6 = ROUND(latitude * 1000000), lng_e6 = ROUND(longitude * 1000000) " +
+            "WHERE lat_e6 <> ROUND(latitude * 1000000) OR lng_e6 <> ROUND(longitude * 1000000)",
+            nativeQuery = true)
+    int syncCoordinateE6();
+
+    // pointSum 컬럼 추가 전부터 리뷰가 있던 업장의 별점 합계를 리뷰 테이블에서 채운다 - 반올림된 pointAvg * reviewCount 대신 원본 합계를 사용
+    @Modifying
+    @Query(value = "UPDATE store s JOIN (SELECT r.store_id, SUM(r.point) AS point_sum FROM review r GROUP BY r.store_id) rv " +
+            "ON rv.store_id = s.id SET s.point_sum = rv.point_sum WHERE s.point_sum = 0 AND s.review_count > 0",
+            nativeQuery = true)
+    int syncPointSum();
+}
@@ -0,0 +1,128 @@
+package com.mpnp.baechelin.store.repository;
+
+import com.mpnp.baechelin.common.QuerydslLocation;
+import com.mpnp.baechelin.store.domain.Category;
+import com.mpnp.baechelin.store.domain.Facility;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * MySQL 공간 인덱스로 박스 범위 + 거리순 조회 (store.near-query.mode=spatial)
+ * - store.location : latitude, longitude로 계산되는 POINT SRID 4326 STORED 생성 컬럼 + SPATIAL INDEX
+ * - 박스 : MBRCovers(사각형, location) - 공간 인덱스 범위 조회, 다른 조회 경로처럼 경계 위의 업장도 포함
+ * - 정렬 : ST_Distance_Sphere(location, 기준점)
+ * location은 엔티티에 매핑하지 않은 컬럼이므로 네이티브 쿼리로 id만 조회한다
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class StoreSpatialQueryRepository {
+    public static final String MODE = "spatial";
+
+    // 경도, 위도 순서로 적은 WKT를 SRID 4326으로 읽는다 (MySQL 8 기본은 위도, 경도 순서)
+    private static final String GEOM_FROM_TEXT = "ST_GeomFromText(%s, 4326, 'axis-order=long-lat')";
+    private static final String FROM_WHERE = " FROM store s WHERE MBRCovers(" + String.format(GEOM_FROM_TEXT, ":box") + ", s.location)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${store.near-query.mode:index}")
+    private String nearQueryMode;
+
+    private volatile boolean available;
+
+    /**
+     * spatial 모드일 때 location 컬럼, 공간 인덱스가 없으면 만든다 - 실패하면 기존 조회 경로를 그대로 사용
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureSchema() {
+        if (!MODE.equalsIgnoreCase(nearQueryMode)) return;
+        try {
+            Integer columnCount = jdbcTemplate.getJdbcTemplate().queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.COLUMNS " +
+                            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'store' AND COLUMN_NAME = 'location'", Integer.class);
+            if (columnCount == null || columnCount == 0) {
+                jdbcTemplate.getJdbcTemplate().execute(
+                        "ALTER TABLE store " +
+                                "ADD COLUMN location POINT GENERATED ALWAYS AS (ST_SRID(POINT(longitude, latitude), 4326)) STORED NOT NULL SRID 4326, " +
+                                "ADD SPATIAL INDEX idx_store_location (location)");
+                log.info("STORE SPATIAL COLUMN CREATED");
+            }
+            available = true;
+        } catch (DataAccessException e) {
+            log.error("STORE SPATIAL COLUMN UNAVAILABLE - fallback to default near query", e);
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * @param category 업장 카테고리
+     * @param facility 배리어 프리 태그
+     * @param offset   건너뛸 업장 수
+     * @param limit    조회할 업장 수
+     * @param withTotal 전체 개수 조회 여부
+     * @return 거리순 업장 id, 전체 개수(withTotal이 아니면 -1)
+     */
+    public NearResult findNear(int latStartE6, int latEndE6, int lngStartE6, int lngEndE6,
+                               double lat, double lng, String category, List<String> facility,
+                               long offset, int limit, boolean withTotal) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("box", box(latStartE6, latEndE6, lngStartE6, lngEndE6))
+                .addValue("point", String.format(Locale.ROOT, "POINT(%.6f %.6f)", lng, lat))
+                .addValue("offset", offset)
+                .addValue("limit", limit);
+        StringBuilder where = new StringBuilder(FROM_WHERE);
+        if (category != null && !category.equalsIgnoreCase("ALL")) {
+            where.append(" AND s.category = :category");
+            params.addValue("category", Category.giveCategoryDesc(category.toUpperCase()));
+        }
+        int required = Facility.maskOf(facility);
+        if (required != 0) {
+            where.append(" AND s.facility_mask IN (:masks)");
+            params.addValue("masks", Facility.supersetsOf(required));
+        }
+
+        List<Long> storeIds = jdbcTemplate.queryForList(
+                "SELECT s.id" + where +
+                        " ORDER BY ST_Distance_Sphere(s.location, " + String.format(GEOM_FROM_TEXT, ":point") + "), s.id" +
+                        " LIMIT :limit OFFSET :offset", params, Long.class);
+        long totalCount = -1;
+        if (withTotal) {
+            Long count = jdbcTemplate.queryForObject("SELECT COUNT(*)" + where, params, Long.class);
+            totalCount = count == null ? 0 : count;
+        }
+        return new NearResult(storeIds.stream().mapToLong(Long::longValue).toArray(), totalCount);
+    }
+
+    /**
+     * @return 남서 - 남동 - 북동 - 북서 - 남서 로 닫힌 사각형 WKT (경도 위도 순서)
+     */
+    private static String box(int latStartE6, int latEndE6, int lngStartE6, int lngEndE6) {
+        double latStart = latStartE6 / QuerydslLocation.E6;
+        double latEnd = latEndE6 / QuerydslLocation.E6;
+        double lngStart = lngStartE6 / QuerydslLocation.E6;
+        double lngEnd = lngEndE6 / QuerydslLocation.E6;
+        return String.format(Locale.ROOT, "POLYGON((%.6f %.6f, %.6f %.6f, %.6f %.6f, %.6f %.6f, %.6f %.6f))",
+                lngStart, latStart, lngEnd, latStart, lngEnd, latEnd, lngStart, latEnd, lngStart, latStart);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class NearResult {
+        private final long[] storeIds;
+        private final long totalCount;
+    }
+}
@@ -0,0 +1,121 @@
+package com.mpnp.baechelin.store.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mpnp.baechelin.config.redis.RedisKV;
+import com.mpnp.baechelin.store.dto.StoreDetailResponseDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * 업장 상세 정보 2단계 캐시
+ * 유저와 무관한 상세 정보만 캐싱하고, 북마크 여부는 조회 시점에 {@link com.mpnp.baechelin.bookmark.service.BookmarkedStoreCache}로 덧씌운다
+ * L1 - 서버 메모리(Caffeine), L2 - Redis
+ */
+@Slf4j
+@Component
+public class StoreDetailCache {
+    private final Cache<Long, StoreDetailResponseDto> localCache;
+    private final org.springframework.cache.Cache redisCache;
+
+    /**
+     * @param localSize 서버 메모리에 보관할 최대 업장 수
+     * @param localTtl  서버 메모리 보관 시간(초) - 다른 서버에서 일어난 무효화는 이 시간이 지나야 반영된다
+     */
+    public StoreDetailCache(CacheManager cacheManager,
+                            @Value("${store.detail-cache.local-size:10000}") long localSize,
+                            @Value("${store.detail-cache.local-ttl:10}") long localTtl) {
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(localSize)
+                .expireAfterWrite(Duration.ofSeconds(localTtl))
+                .build();
+        this.redisCache = cacheManager.getCache(RedisKV.STORE.getName());
+    }
+
+    /**
+     * @param storeId 업장 아이디
+     * @param loader  L1, L2 모두 없을 때 DB에서 상세 정보를 만드는 함수
+     * @return 북마크 여부가 채워지지 않은 업장 상세 정보
+     */
+    public StoreDetailResponseDto get(long storeId, Supplier<StoreDetailResponseDto> loader) {
+        return localCache.get(storeId, id -> getFromRedis(id, loader));
+    }
+
+    /**
+     * 리뷰, 북마크로 업장 정보가 바뀐 트랜잭션이 커밋된 후 L1, L2에서 삭제
+     */
+    public void evict(long storeId) {
+        afterCommit(() -> evictNow(storeId));
+    }
+
+    public void evictAll(Collection<Long> storeIds) {
+        afterCommit(() -> storeIds.forEach(this::evictNow));
+    }
+
+    /**
+     * 수집 배치처럼 업장 정보가 한꺼번에 바뀐 경우 L1, L2를 통째로 비운다
+     */
+    public void clear() {
+        afterCommit(() -> {
+            localCache.invalidateAll();
+            try {
+                redisCache.clear();
+            } catch (DataAccessException e) {
+                log.warn("STORE DETAIL CACHE CLEAR FAILED - {}", e.getMessage());
+            }
+        });
+    }
+
+    private StoreDetailResponseDto getFromRedis(long storeId, Supplier<StoreDetailResponseDto> loader) {
+        String key = key(storeId);
+        try {
+            StoreDetailResponseDto cached = redisCache.get(key, StoreDetailResponseDto.class);
+            if (cached != null) return cached;
+        } catch (DataAccessException e) {
+            log.warn("STORE DETAIL CACHE UNAVAILABLE - {}", e.getMessage());
+            return loader.get();
+        }
+        StoreDetailResponseDto loaded = loader.get();
+        try {
+            redisCache.put(key, loaded);
+        } catch (DataAccessException e) {
+            log.warn("STORE DETAIL CACHE UPDATE FAILED - {}", e.getMessage());
+        }
+        return loaded;
+    }
+
+    private void evictNow(long storeId) {
+        localCache.invalidate(storeId);
+        try {
+            redisCache.evict(key(storeId));
+        } catch (DataAccessException e) {
+            log.warn("STORE DETAIL CACHE EVICT FAILED - {}", e.getMessage());
+        }
+    }
+
+    private void afterCommit(Runnable runnable) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runnable.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runnable.run();
+            }
+        });
+    }
+
+    private String key(long storeId) {
+        return "detail_" + storeId;
+    }
+}
@@ -1,13 +1,20 @@
 package com.mpnp.baechelin.store.service;
 
 import com.mpnp.baechelin.bookmark.repository.BookmarkRepository;
+import com.mpnp.baechelin.bookmark.service.BookmarkedStoreCache;
 import com.mpnp.baechelin.common.QuerydslLocation;
 import com.mpnp.baechelin.exception.CustomException;
 import com.mpnp.baechelin.exception.ErrorCode;
 import com.mpnp.baechelin.store.domain.Store;
 import com.mpnp.baechelin.store.dto.StoreCardResponseDto;
+import com.mpnp.baechelin.store.dto.StoreClusterResponseDto;
+import com.mpnp.baechelin.store.dto.StoreCursor;
 import com.mpnp.baechelin.store.dto.StoreDetailResponseDto;
 import com.mpnp.baechelin.store.dto.StorePagedResponseDto;
+import com.mpnp.baechelin.store.dto.StoreSuggestResponseDto;
+import com.mpnp.baechelin.store.index.StoreRegionIndex;
+import com.mpnp.baechelin.store.index.StoreSearchIndex;
+import com.mpnp.baechelin.store.index.StoreSuggestIndex;
 import com.mpnp.baechelin.store.repository.StoreQueryRepository;
 import com.mpnp.baechelin.store.repository.StoreRepository;
 import com.mpnp.baechelin.user.domain.User;
@@ -15,20 +22,21 @@ import com.mpnp.baechelin.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.javacrumbs.shedlock.spring.annotation.EnableSchedulerLock;
-import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
-import org.springframework.data.domain.Page;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import javax.transaction.Transactional;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 
 @Service
 @Transactional
@@ -38,10 +46,20 @@ import java.util.*;
 @Slf4j
 public class StoreService {
 
+    // 지도 타일(256px) 한 변을 나누는 군집 수 - 군집 하나가 약 64px
+    private static final int TILES_PER_MAP_TILE = 4;
+    // 최대 확대 시 군집 칸 크기 하한 - 약 100m
+    private static final int MIN_TILE_E6 = 1_000;
+
     private final StoreRepository storeRepository;
     private final StoreQueryRepository storeQueryRepository;
+    private final StoreRegionIndex storeRegionIndex;
+    private final StoreSearchIndex storeSearchIndex;
+    private final StoreSuggestIndex storeSuggestIndex;
     private final UserRepository userRepository;
     private final BookmarkRepository bookmarkRepository;
+    private final BookmarkedStoreCache bookmarkedStoreCache;
+    private final StoreDetailCache storeDetailCache;
     private final RedisTemplate<String, Object> redisTemplate;
 
     /**
@@ -55,22 +73,38 @@ public class StoreService {
      * @param facility 배리어 프리 태그
      * @param pageable 페이징 요소
      * @param socialId 유저 소셜 로그인 아이디
+     * @param withTotal 전체 개수 포함 여부 - false면 다음 페이지 여부만 반환
      * @return 조건을 만족하는 업장의 DTO
      */
 
-    public StorePagedResponseDto getStoreInTwoPointRange(BigDecimal latStart, BigDecimal latEnd, BigDecimal lngStart, BigDecimal lngEnd, String category, List<String> facility, Pageable pageable, String socialId) {
+    public StorePagedResponseDto getStoreInTwoPointRange(BigDecimal latStart, BigDecimal latEnd, BigDecimal lngStart, BigDecimal lngEnd, String category, List<String> facility, Pageable pageable, String socialId, boolean withTotal) {
 //    public List<StoreCardResponseDto> getStoreInRange(BigDecimal latStart, BigDecimal latEnd, BigDecimal lngStart, BigDecimal lngEnd, String category, List<String> facility, Pageable pageable, String socialId) {
         User targetUser = socialId == null ? null : userRepository.findBySocialId(socialId);
-        Page<Store> betweenLngLat = storeQueryRepository.findBetweenTwoPointOrder(latStart, latEnd, lngStart, lngEnd, category, facility, pageable);
+        Slice<Store> betweenLngLat = storeQueryRepository.findBetweenTwoPointOrder(latStart, latEnd, lngStart, lngEnd, category, facility, pageable, withTotal);
         // store  가져와서 dto 매핑
         return getStoreCardPagedResponseDto(targetUser, betweenLngLat);
     }
 
+    /**
+     * 지도 축소 화면용 업장 군집
+     *
+     * @param zoom 지도 줌 레벨(웹 메르카토르 기준, 클수록 확대) - 지도 타일 한 칸을 TILES_PER_MAP_TILE x TILES_PER_MAP_TILE 군집으로 나눈다
+     * @return 칸별 업장 수, 중심점, 시설별 업장 수
+     */
+    public StoreClusterResponseDto getStoreClusters(BigDecimal latStart, BigDecimal latEnd, BigDecimal lngStart, BigDecimal lngEnd,
+                                                    String category, List<String> facility, int zoom) {
+        double tileSize = 360.0 / (1L << zoom) / TILES_PER_MAP_TILE;
+        int tileE6 = Math.max(MIN_TILE_E6, QuerydslLocation.toE6(tileSize));
+        List<StoreClusterResponseDto.Cluster> clusters = storeQueryRepository.clusterStores(latStart, latEnd, lngStart, lngEnd, category, facility, tileE6);
+        long totalCount = clusters.stream().mapToLong(StoreClusterResponseDto.Cluster::getCount).sum();
+        return new StoreClusterResponseDto(zoom, tileE6 / QuerydslLocation.E6, totalCount, clusters);
+    }
+
     public StorePagedResponseDto getStoreInOnePointRange(BigDecimal latStart, BigDecimal latEnd, BigDecimal lngStart, BigDecimal lngEnd, BigDecimal lat, BigDecimal lng,
-                                                         String category, List<String> facility, Pageable pageable, String socialId) {
+                                                         String category, List<String> facility, Pageable pageable, String socialId, boolean withTotal) {
 //    public List<StoreCardResponseDto> getStoreInRange(BigDecimal latStart, BigDecimal latEnd, BigDecimal lngStart, BigDecimal lngEnd, String category, List<String> facility, Pageable pageable, String socialId) {
         User targetUser = socialId == null ? null : userRepository.findBySocialId(socialId);
-        Page<Store> betweenLngLat = storeQueryRepository.findBetweenOnePointOrder(latStart, latEnd, lngStart, lngEnd, lat, lng, category, facility, pageable);
+        Slice<Store> betweenLngLat = storeQueryRepository.findBetweenOnePointOrder(latStart, latEnd, lngStart, lngEnd, lat, lng, category, facility, pageable, withTotal);
         // store  가져와서 dto 매핑
         return getStoreCardPagedResponseDto(targetUser, betweenLngLat);
     }
@@ -83,18 +117,22 @@ public class StoreService {
      * @param facility 배리어 프리 태그
      * @param pageable 페이징 요소
      * @param socialId 유저 소셜 로그인 아이디
+     * @param withTotal 전체 개수 포함 여부 - false면 다음 페이지 여부만 반환
      * @return 위도, 경도, 카테고리, 배리어 프리, 페이징을 만족하는 배리어 프리 업장 리턴
      */
-    public StorePagedResponseDto getStoreInOnePointRange(BigDecimal lat, BigDecimal lng, String category, List<String> facility, Pageable pageable, String socialId) {
-        BigDecimal[] range = QuerydslLocation.getRange(lat, lng, 3);
-        if (range == null)
-            return getStoreInOnePointRange(null, null, null, null, lat, lng, category, facility, pageable, socialId);
-        return getStoreInOnePointRange(range[0], range[1], range[2], range[3], lat, lng, category, facility, pageable, socialId);
+    public StorePagedResponseDto getStoreInOnePointRange(BigDecimal lat, BigDecimal lng, String category, List<String> facility, Pageable pageable, String socialId, boolean withTotal) {
+        if (lat == null || lng == null)
+            return getStoreInOnePointRange(null, null, null, null, lat, lng, category, facility, pageable, socialId, withTotal);
+        int[] range = QuerydslLocation.getRangeE6(lat.doubleValue(), lng.doubleValue(), 3);
+        User targetUser = socialId == null ? null : userRepository.findBySocialId(socialId);
+        Slice<Store> betweenLngLat = storeQueryRepository.findBetweenOnePointOrder(range[0], range[1], range[2], range[3],
+                lat.doubleValue(), lng.doubleValue(), category, facility, pageable, withTotal);
+        return getStoreCardPagedResponseDto(targetUser, betweenLngLat);
     }
 
     public StorePagedResponseDto getStoreInRangeMap(BigDecimal lat, BigDecimal lng, String category, List<String> facility, Pageable pageable, String socialId) {
         User targetUser = socialId == null ? null : userRepository.findBySocialId(socialId);
-        Page<Store> betweenLngLat = storeQueryRepository.findStoreOrderByPoint(lat, lng, category, facility, pageable);
+        Slice<Store> betweenLngLat = storeQueryRepository.findStoreOrderByPoint(lat, lng, category, facility, pageable, true);
         // store  가져와서 dto 매핑
         return getStoreCardPagedResponseDto(targetUser, betweenLngLat);
     }
@@ -106,13 +144,14 @@ public class StoreService {
      * @param facility 배리어 프리 태그
      * @param pageable 페이징 요소
      * @param socialId 유저 소셜 로그인 아이디
+     * @param withTotal 전체 개수 포함 여부 - false면 다음 페이지 여부만 반환
      * @return 페이징이 적용된 높은 별점 순으로 정렬된 업장 리스트 리턴
      */
     //    public List<StoreCardResponseDto> getStoreInRangeHighPoint(BigDecimal lat, BigDecimal lng, String
     public StorePagedResponseDto getStoreInRangeHighPoint(BigDecimal lat, BigDecimal lng, String
-            category, List<String> facility, Pageable pageable, String socialId) {
+            category, List<String> facility, Pageable pageable, String socialId, boolean withTotal) {
         User targetUser = socialId == null ? null : userRepository.findBySocialId(socialId);
-        Page<Store> pagedResultList = storeQueryRepository.findStoreOrderByPoint(lat, lng, category, facility, pageable);
+        Slice<Store> pagedResultList = storeQueryRepository.findStoreOrderByPoint(lat, lng, category, facility, pageable, withTotal);
         return getStoreCardPagedResponseDto(targetUser, pagedResultList);
     }
 
@@ -122,25 +161,93 @@ public class StoreService {
      * @param category 업장 카테고리
      * @param facility 배리어 프리 태그
      * @param socialId 유저 소셜 아이디
+     * @param withTotal 전체 개수 포함 여부 - false면 다음 페이지 여부만 반환
      * @return 위도, 경도, 카테고리, 배리어 프리 태그에 해당하는 북마크가 높은 업장 리스트를 설정한 숫자만큼 리턴
      */
     public StorePagedResponseDto getStoreInRangeHighBookmark(BigDecimal lat, BigDecimal lng, String
-            category, List<String> facility, Pageable pageable, String socialId) {
+            category, List<String> facility, Pageable pageable, String socialId, boolean withTotal) {
         User targetUser = socialId == null ? null : userRepository.findBySocialId(socialId);
-        Page<Store> highBookmarkResultList = storeQueryRepository.findStoreOrderByBookmark(lat, lng, category, facility, pageable);
+        Slice<Store> highBookmarkResultList = storeQueryRepository.findStoreOrderByBookmark(lat, lng, category, facility, pageable, withTotal);
         return getStoreCardPagedResponseDto(targetUser, highBookmarkResultList);
     }
 
+    /**
+     * 커서 페이징 - 별점 높은 순
+     *
+     * @param cursor 이전 응답의 nextCursor - 비어 있으면 첫 페이지
+     * @param size   페이지 크기
+     */
+    public StorePagedResponseDto getStoreInRangeHighPoint(BigDecimal lat, BigDecimal lng, String category, List<String> facility,
+                                                          String cursor, int size, String socialId) {
+        User targetUser = socialId == null ? null : userRepository.findBySocialId(socialId);
+        Slice<Store> resultList = storeQueryRepository.findStoreOrderByPoint(lat, lng, category, facility, StoreCursor.decode(cursor, StoreCursor.Type.POINT), size);
+        return getStoreCardCursorResponseDto(targetUser, resultList, store -> new StoreCursor(StoreCursor.Type.POINT, store.getPointAvg(), store.getId()));
+    }
+
+    /**
+     * 커서 페이징 - 북마크 많은 순
+     *
+     * @param cursor 이전 응답의 nextCursor - 비어 있으면 첫 페이지
+     * @param size   페이지 크기
+     */
+    public StorePagedResponseDto getStoreInRangeHighBookmark(BigDecimal lat, BigDecimal lng, String category, List<String> facility,
+                                                             String cursor, int size, String socialId) {
+        User targetUser = socialId == null ? null : userRepository.findBySocialId(socialId);
+        Slice<Store> resultList = storeQueryRepository.findStoreOrderByBookmark(lat, lng, category, facility, StoreCursor.decode(cursor, StoreCursor.Type.BOOKMARK), size);
+        return getStoreCardCursorResponseDto(targetUser, resultList, store -> new StoreCursor(StoreCursor.Type.BOOKMARK, store.getBookMarkCount(), store.getId()));
+    }
+
+    /**
+     * 커서 페이징 - 검색
+     *
+     * @param cursor 이전 응답의 nextCursor - 비어 있으면 첫 페이지
+     * @param size   페이지 크기
+     */
+    public StorePagedResponseDto searchStores(String sido, String sigungu, String keyword, String category, List<String> facility,
+                                              String cursor, int size, String socialId) {
+        User targetUser = socialId == null ? null : userRepository.findBySocialId(socialId);
+        // 색인 준비 여부에 따라 정렬 키가 (점수, id)와 (id)로 달라지므로 한 번만 확인해서 조회 경로와 커서 종류를 맞춘다
+        StoreCursor.Type type = storeSearchIndex.isReady() ? StoreCursor.Type.SCORE : StoreCursor.Type.ID;
+        Slice<Store> resultList = storeQueryRepository.searchStores(sido, sigungu, keyword, category, facility,
+                type, StoreCursor.decode(cursor, type), size);
+        return getStoreCardCursorResponseDto(targetUser, resultList, store -> type == StoreCursor.Type.SCORE
+                ? new StoreCursor(type, storeSearchIndex.scoreOf(store.getId(), keyword), store.getId())
+                : new StoreCursor(type, store.getId(), store.getId()));
+    }
+
+    /**
+     * @param cursorOf 업장의 정렬 키로 커서를 만드는 함수
+     * @return 다음 페이지가 있으면 마지막 업장의 커서를 nextCursor로 담아서 리턴
+     */
+    private StorePagedResponseDto getStoreCardCursorResponseDto(User targetUser, Slice<Store> resultStoreList, Function<Store, StoreCursor> cursorOf) {
+        StorePagedResponseDto responseDto = getStoreCardPagedResponseDto(targetUser, resultStoreList);
+        if (resultStoreList.hasNext()) {
+            List<Store> content = resultStoreList.getContent();
+            responseDto.setNextCursor(cursorOf.apply(content.get(content.size() - 1)).encode());
+        }
+        return responseDto;
+    }
+
     /**
      * @param targetUser      현재 접근하고 있는 유저
      * @param resultStoreList 업장 리스트
      * @return 접근하고 있는 유저가 보는 페이징된 업장을 가공(북마크 등)하여 DTO로 리턴
      */
-    private StorePagedResponseDto getStoreCardPagedResponseDto(User targetUser, Page<Store> resultStoreList) {
+    private StorePagedResponseDto getStoreCardPagedResponseDto(User targetUser, Slice<Store> resultStoreList) {
+        // 페이지의 업장들에 대한 북마크 여부를 한 번에 조회
+        List<Long> storeIds = new ArrayList<>();
+        for (Store store : resultStoreList) {
+            storeIds.add(store.getId());
+        }
+        Set<Long> bookmarkedStoreIds = bookmarkedStoreCache.findBookmarkedStoreIds(targetUser, storeIds);
+        // 페이지의 업장 이미지도 한 번에 조회
+        Map<Long, List<String>> storeImageUrls = storeQueryRepository.findImageUrlsByStoreIds(storeIds);
+
         List<StoreCardResponseDto> mappingResult = new ArrayList<>();
         for (Store store : resultStoreList) {
-            boolean isBookmark = targetUser != null && bookmarkRepository.existsByStoreIdAndUserId(store, targetUser);
-            mappingResult.add(new StoreCardResponseDto(store, isBookmark ? "Y" : "N"));
+            boolean isBookmark = bookmarkedStoreIds.contains(store.getId());
+            List<String> storeImgList = storeImageUrls.getOrDefault(store.getId(), new ArrayList<>());
+            mappingResult.add(new StoreCardResponseDto(store, isBookmark ? "Y" : "N", storeImgList));
         }
         return new StorePagedResponseDto(resultStoreList, mappingResult);
     }
@@ -153,8 +260,17 @@ public class StoreService {
      * @param socialId 유저 social 아이디
      * @return 업장 상세 정보
      */
-    @Cacheable(value = "store", key = "'id_'+#storeId+'user_'+#socialId", cacheManager = "cacheManager")
     public StoreDetailResponseDto getStore(long storeId, String socialId) {
+        StoreDetailResponseDto storeDetail = storeDetailCache.get(storeId, () -> loadStoreDetail(storeId));
+
+        User targetUser = socialId == null ? null : userRepository.findBySocialId(socialId);
+
+        boolean isBookmark = bookmarkedStoreCache.findBookmarkedStoreIds(targetUser, Collections.singletonList(storeId)).contains(storeId);
+        return storeDetail.withBookmark(isBookmark ? "Y" : "N");
+    }
+
+    // 유저와 무관한 상세 정보 - 북마크 여부는 getStore에서 덧씌운다
+    private StoreDetailResponseDto loadStoreDetail(long storeId) {
         Store store = storeRepository.findById(storeId).orElseThrow(() -> new CustomException(ErrorCode.NO_STORE_FOUND));
 
         List<String> storeImageList = new ArrayList<>();
@@ -163,10 +279,19 @@ public class StoreService {
         store.getReviewList().forEach(review -> review.getReviewImageList()
                 .forEach(reviewImage -> storeImageList.add(reviewImage.getReviewImageUrl())));
 
-        User targetUser = socialId == null ? null : userRepository.findBySocialId(socialId);
+        return new StoreDetailResponseDto(store, null, storeImageList);
+    }
 
-        boolean isBookmark = bookmarkRepository.existsByStoreIdAndUserId(store, targetUser);
-        return new StoreDetailResponseDto(store, isBookmark ? "Y" : "N", storeImageList);
+    /**
+     * 검색어 자동완성 - DB를 조회하지 않으므로 트랜잭션도 열지 않는다
+     *
+     * @param keyword 입력 중인 검색어 (ex. "스타ㅂ")
+     * @param size    지역, 업장 각각 최대 개수
+     * @return 업장 수가 많은 지역, 북마크/별점 가중치가 큰 업장 순
+     */
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public StoreSuggestResponseDto suggest(String keyword, int size) {
+        return new StoreSuggestResponseDto(storeSuggestIndex.suggestRegions(keyword, size), storeSuggestIndex.suggestStores(keyword, size));
     }
 
     /**
@@ -176,35 +301,9 @@ public class StoreService {
      * @return json 형태의 시/군/구 리스트
      */
     public Map<String, List<String>> getSigungu(String sido) {
-        // FullText Search
-        List<Store> foundAddress = storeQueryRepository.getSigungu(sido);
-
-        // 결과를 json 형태로 리턴
+        // 결과를 json 형태로 리턴 - 시/군/구 목록은 배치, 시작 시점에 만들어 둔 사전에서 조회
         Map<String, List<String>> result = new HashMap<>();
-        // 중복 제거를 위해 Set 생성
-        Set<String> sigunguSet = new HashSet<>();
-
-        for (Store store : foundAddress) {
-            String[] address = store.getAddress().split(" "); // [0] : 시/도, [1] : 시/군/구, [2] : 구
-
-            // 인자값인 sido와 주소의 첫번째 "시"가 같을 때
-            if (address[0].contains(sido)) {
-                // [경기도 성남시 분당구]처럼 도 - 시 - 구 로 나눠지는 경우 시 + 구로 반환
-                if (address[2].charAt(address[2].length() - 1) == '구') {
-                    sigunguSet.add(address[1] + " " + address[2]);
-                } else {
-                    sigunguSet.add(address[1]);
-                }
-            }
-        }
-
-        // 정렬을 위해 Set -> List로 변환
-        List<String> sigungu = new ArrayList<>(sigunguSet);
-        // List 정렬
-        Collections.sort(sigungu);
-
-        result.put("sigungu", sigungu);
-
+        result.put("sigungu", storeRegionIndex.getSigungu(sido));
         return result;
     }
 
@@ -218,45 +317,54 @@ public class StoreService {
      * @param facility 배리어 프리 시설
      * @param socialId 사용자 소셜 아이디
      * @param pageable 페이징
+     * @param withTotal 전체 개수 포함 여부 - false면 다음 페이지 여부만 반환
      * @return 페이징이 적용된 검색 결과 리턴
      */
-    public StorePagedResponseDto searchStores(String sido, String sigungu, String keyword, String category, List<String> facility, String socialId, Pageable pageable) {
-        Page<Store> searchStores = storeQueryRepository.searchStores(sido, sigungu, keyword, category, facility, pageable);
+    public StorePagedResponseDto searchStores(String sido, String sigungu, String keyword, String category, List<String> facility, String socialId, Pageable pageable, boolean withTotal) {
+        Slice<Store> searchStores = storeQueryRepository.searchStores(sido, sigungu, keyword, category, facility, pageable, withTotal);
 
         User targetUser = socialId == null ? null : userRepository.findBySocialId(socialId);
 
         return getStoreCardPagedResponseDto(targetUser, searchStores);
     }
 
-    @Scheduled(cron = "0 0 0-23 * * *") // 1시간에 한 번
-    @SchedulerLock(name = "updateScheduler", lockAtLeastFor = "PT50M", lockAtMostFor = "PT58M")
-    public void updateSchedule() {
-        log.info("AVG, BOOKMARK COUNT SCHEDULING");
-        List<Store> storeList = storeRepository.findAll();
-        for (Store store : storeList) {
-            if (!store.getReviewList().isEmpty()) {
-                double storeAvg = Double.parseDouble(String.format("%.1f", storeRepository.getAvg(store.getId())));
-                storeRepository.updateAvg(storeAvg, store.getId());
-            }
-            if (!store.getBookmarkList().isEmpty()) {
-                int bookmarkCnt = storeRepository.getBookmarkCnt(store.getId());
-                storeRepository.updateBookmarkCnt(bookmarkCnt, store.getId());
-            }
+    /**
+     * 서버 시작 시 facilityMask, latE6/lngE6, pointSum을 원본 컬럼에 맞춘다 - 공간 인덱스가 읽기 전에 실행되도록 가장 먼저 실행
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void syncDerivedColumns() {
+        int facilityUpdated = storeRepository.syncFacilityMask();
+        int coordinateUpdated = storeRepository.syncCoordinateE6();
+        int pointSumUpdated = storeRepository.syncPointSum();
+        if (facilityUpdated > 0 || coordinateUpdated > 0 || pointSumUpdated > 0)
+            log.info("STORE DERIVED COLUMN SYNC - facility {}, coordinate {}, point sum {} stores updated",
+                    facilityUpdated, coordinateUpdated, pointSumUpdated);
+    }
+
+    public void addReviewPoint(Store store, double point) {
+        storeRepository.addReviewPoint(store.getId(), point, LocalDateTime.now());
+        storeDetailCache.evict(store.getId());
+    }
+
+    public void changeReviewPoint(Store store, double oldPoint, double newPoint) {
+        if (oldPoint != newPoint) {
+            storeRepository.changeReviewPoint(store.getId(), oldPoint, newPoint, LocalDateTime.now());
         }
+        // 별점이 같아도 리뷰 이미지가 바뀌었을 수 있다
+        storeDetailCache.evict(store.getId());
     }
-    @Caching(evict = {
-            @CacheEvict(cacheNames = "store", key="'id_'+#store.id+'user_'+#socialId",cacheManager = "cacheManager"),
-            @CacheEvict(cacheNames = "store", key="'id_'+#store.id+'user_null'",cacheManager = "cacheManager")
-    })
-    public void updateAvg(Store store, String socialId) {
-        storeRepository.save(store.updatePointAvg());
+
+    public void removeReviewPoint(Store store, double point) {
+        storeRepository.removeReviewPoint(store.getId(), point, LocalDateTime.now());
+        storeDetailCache.evict(store.getId());
     }
 
-    @Caching(evict = {
-            @CacheEvict(cacheNames = "store", key="'id_'+#store.id+'user_'+#socialId",cacheManager = "cacheManager"),
-            @CacheEvict(cacheNames = "store", key="'id_'+#store.id+'user_null'",cacheManager = "cacheManager")
-    })
-    public void updateBookmarkCnt(Store store, String socialId) {
-        storeRepository.save(store.updateBookmarkCount());
+    /**
+     * @param delta 북마크 추가는 1, 삭제는 -1
+     */
+    public void addBookmarkCount(Store store, int delta) {
+        storeRepository.addBookmarkCount(Collections.singletonList(store.getId()), delta, LocalDateTime.now());
+        storeDetailCache.evict(store.getId());
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.mpnp.baechelin.storeApiUpdate;
 
+import com.mpnp.baechelin.common.ContentHash;
 import com.mpnp.baechelin.config.batch.requestDto.StoreDTO;
 import com.mpnp.baechelin.store.domain.Store;
 import lombok.*;
@@ -8,6 +9,7 @@ import javax.persistence.*;
 import java.math.BigDecimal;
 
 @Entity(name = "Store_api_update")
+@Table(indexes = @Index(name = "idx_store_api_update_id_content_hash", columnList = "id, contentHash"))
 @Getter
 @NoArgsConstructor
 @Builder
@@ -59,6 +61,9 @@ public class StoreApiUpdate {
     @Column(nullable = false)
     private double pointAvg = 0.0;
 
+    // API에서 받아오는 컬럼의 지문(ContentHash) - store.content_hash와 비교해서 바뀐 업장만 수정 단계로 넘긴다
+    private Long contentHash;
+
 
 
 //    public StoreApiUpdate(PublicApiResponseDto.Row row) {
@@ -136,4 +141,11 @@ public class StoreApiUpdate {
         this.longitude = row.getLongitude();
         this.category  = row.getCategory();
     }
-}
\ No newline at end of file
+
+    @PrePersist
+    @PreUpdate
+    public void updateContentHash() {
+        this.contentHash = ContentHash.of(category, name, latitude, longitude, address,
+                elevator, toilet, parking, phoneNumber, heightDifferent, approach);
+    }
+}
@@ -0,0 +1,54 @@
+package com.mpnp.baechelin.storeApiUpdate.repository;
+
+import com.mpnp.baechelin.storeApiUpdate.StoreApiUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * API 응답으로 만든 store_api_update 행을 JDBC 배치 + INSERT ... ON DUPLICATE KEY UPDATE 로 저장
+ */
+@Repository
+@RequiredArgsConstructor
+public class StoreApiUpdateBulkRepository {
+    public static final int BATCH_SIZE = 500;
+
+    private static final String UPSERT_SQL = "INSERT INTO store_api_update (id, category, name, latitude, longitude, address, " +
+            "elevator, toilet, parking, phone_number, height_different, approach, content_hash, book_mark_count, review_count, point_avg) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0, 0) AS new " +
+            "ON DUPLICATE KEY UPDATE category = new.category, name = new.name, " +
+            "latitude = new.latitude, longitude = new.longitude, address = new.address, " +
+            "elevator = new.elevator, toilet = new.toilet, parking = new.parking, " +
+            "phone_number = new.phone_number, height_different = new.height_different, approach = new.approach, " +
+            "content_hash = new.content_hash";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void upsert(List<StoreApiUpdate> rows) {
+        if (rows.isEmpty()) return;
+        for (StoreApiUpdate row : rows) row.updateContentHash();
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, BATCH_SIZE, StoreApiUpdateBulkRepository::bind);
+    }
+
+    private static void bind(PreparedStatement ps, StoreApiUpdate row) throws SQLException {
+        ps.setLong(1, row.getId());
+        ps.setString(2, row.getCategory());
+        ps.setString(3, row.getName());
+        ps.setBigDecimal(4, row.getLatitude());
+        ps.setBigDecimal(5, row.getLongitude());
+        ps.setString(6, row.getAddress());
+        ps.setString(7, row.getElevator());
+        ps.setString(8, row.getToilet());
+        ps.setString(9, row.getParking());
+        if (row.getPhoneNumber() == null) ps.setNull(10, Types.VARCHAR);
+        else ps.setString(10, row.getPhoneNumber());
+        ps.setString(11, row.getHeightDifferent());
+        ps.setString(12, row.getApproach());
+        ps.setLong(13, row.getContentHash());
+    }
+}
@@ -1,12 +1,13 @@
 package com.mpnp.baechelin;
 
 import com.mpnp.baechelin.common.httpclient.HttpConfig;
+import com.mpnp.baechelin.common.httpclient.UpstreamThrottleFilter;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ContextConfiguration;
 
 @SpringBootTest
-@ContextConfiguration(classes = { HttpConfig.class })
+@ContextConfiguration(classes = { HttpConfig.class, UpstreamThrottleFilter.class })
 class BaechelinApplicationTests {
 
 	@Test
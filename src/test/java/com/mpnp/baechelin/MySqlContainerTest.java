@@ -0,0 +1,38 @@
+package com.mpnp.baechelin;
+
+import com.mpnp.baechelin.config.QuerydslConfig;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.batch.BatchAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+
+/**
+ * MySQL 전용 SQL(증감 UPDATE, 공간 함수, upsert 등)을 실제 MySQL에서 확인하는 Repository 테스트 - Docker 필요
+ * - 컨테이너는 테스트 클래스들이 함께 쓰도록 한 번만 띄운다 (종료는 Testcontainers가 처리)
+ * - @EnableBatchProcessing의 DataSourceTransactionManager 대신 JPA 트랜잭션을 쓰도록 BatchAutoConfiguration을 함께 올린다
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=com.mpnp.baechelin.config.mysql.MySqlDialectCustom"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(BatchAutoConfiguration.class)
+@Import(QuerydslConfig.class)
+public abstract class MySqlContainerTest {
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0.32");
+
+    static {
+        MYSQL.start();
+    }
+
+    @DynamicPropertySource
+    static void mysqlProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+    }
+}
@@ -0,0 +1,138 @@
+package com.mpnp.baechelin.api.service;
+
+import com.mpnp.baechelin.api.domain.KakaoLookup;
+import com.mpnp.baechelin.api.model.LocationKeywordSearchForm;
+import com.mpnp.baechelin.api.repository.KakaoLookupRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class KakaoLookupCacheTest {
+    private static final String KEY = KakaoLookupCache.keywordKey("37.5", "127.03", "서울특별시 강남구", "FD6", 1);
+
+    private final KakaoLookupRepository kakaoLookupRepository = mock(KakaoLookupRepository.class);
+    private final KakaoLookupCache kakaoLookupCache = new KakaoLookupCache(kakaoLookupRepository, 30, 24);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    @DisplayName("공백, 좌표 뒤의 0만 다른 조회는 같은 키")
+    void normalizedKeys() {
+        assertThat(KakaoLookupCache.addressKey("  서울특별시   강남구 ")).isEqualTo(KakaoLookupCache.addressKey("서울특별시 강남구"));
+        assertThat(KakaoLookupCache.keywordKey("37.50", "127.030", " 서울특별시  강남구", "FD6", 1)).isEqualTo(KEY);
+        assertThat(KakaoLookupCache.keywordKey("37.5", "127.03", "서울특별시 강남구", "FD6", 2)).isNotEqualTo(KEY);
+        assertThat(KakaoLookupCache.coordinateKey("37.500", "127")).isEqualTo(KakaoLookupCache.coordinateKey("37.5", "127.0"));
+    }
+
+    @Test
+    @DisplayName("만료 전의 저장된 응답은 API를 호출하지 않고 그대로 쓴다")
+    void hitSkipsLoader() {
+        stored("{\"documents\":[{\"id\":\"1\",\"place_name\":\"업장1\"}]}", LocalDateTime.now().plusDays(1));
+
+        LocationKeywordSearchForm form = get(() -> form("2"));
+
+        assertThat(form.getDocuments()).extracting(LocationKeywordSearchForm.Documents::getId).containsExactly("1");
+        assertThat(calls).hasValue(0);
+        verify(kakaoLookupRepository, never()).upsert(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("결과가 없다고 저장된 응답(negative)은 만료 전까지 API를 호출하지 않고 null")
+    void negativeHit() {
+        stored(null, LocalDateTime.now().plusHours(1));
+
+        assertThat(get(() -> form("2"))).isNull();
+        assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("만료된 응답은 다시 호출하고, 결과가 있으면 ttl-days 동안 저장한다")
+    void expiredIsReloadedWithTtl() {
+        stored("{\"documents\":[]}", LocalDateTime.now().minusSeconds(1));
+
+        LocationKeywordSearchForm form = get(() -> form("2"));
+
+        assertThat(form.getDocuments()).extracting(LocationKeywordSearchForm.Documents::getId).containsExactly("2");
+        assertThat(calls).hasValue(1);
+        assertThat(savedExpiry()).isCloseTo(LocalDateTime.now().plusDays(30), within(1, ChronoUnit.MINUTES));
+    }
+
+    @Test
+    @DisplayName("결과가 없는 응답은 negative-ttl-hours 동안만 저장한다")
+    void emptyResultGetsNegativeTtl() {
+        when(kakaoLookupRepository.findById(anyString())).thenReturn(Optional.empty());
+
+        get(() -> form());
+
+        assertThat(savedExpiry()).isCloseTo(LocalDateTime.now().plusHours(24), within(1, ChronoUnit.MINUTES));
+    }
+
+    @Test
+    @DisplayName("API 호출이 실패하면 저장하지 않는다")
+    void failureIsNotCached() {
+        when(kakaoLookupRepository.findById(anyString())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> get(() -> {
+            throw new IllegalStateException("kakao down");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> kakaoLookupCache.getAsync(KEY, LocationKeywordSearchForm.class, KakaoLookupCache::hasNoDocuments,
+                () -> Mono.error(new IllegalStateException("kakao down"))).block()).isInstanceOf(IllegalStateException.class);
+
+        verify(kakaoLookupRepository, never()).upsert(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("WebClient용 조회도 저장된 응답이 있으면 API를 구독하지 않는다")
+    void asyncHitSkipsLoader() {
+        stored("{\"documents\":[{\"id\":\"1\"}]}", LocalDateTime.now().plusDays(1));
+
+        LocationKeywordSearchForm form = kakaoLookupCache.getAsync(KEY, LocationKeywordSearchForm.class, KakaoLookupCache::hasNoDocuments,
+                () -> Mono.fromCallable(() -> {
+                    calls.incrementAndGet();
+                    return form("2");
+                })).block();
+
+        assertThat(form.getDocuments()).extracting(LocationKeywordSearchForm.Documents::getId).containsExactly("1");
+        assertThat(calls).hasValue(0);
+    }
+
+    private LocationKeywordSearchForm get(Supplier<LocationKeywordSearchForm> api) {
+        return kakaoLookupCache.get(KEY, LocationKeywordSearchForm.class, KakaoLookupCache::hasNoDocuments, () -> {
+            calls.incrementAndGet();
+            return api.get();
+        });
+    }
+
+    private void stored(String body, LocalDateTime expiresAt) {
+        when(kakaoLookupRepository.findById(anyString())).thenReturn(Optional.of(new KakaoLookup("hash", body, expiresAt)));
+    }
+
+    private LocalDateTime savedExpiry() {
+        ArgumentCaptor<LocalDateTime> expiresAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(kakaoLookupRepository).upsert(anyString(), any(), expiresAt.capture());
+        return expiresAt.getValue();
+    }
+
+    private static LocationKeywordSearchForm form(String... ids) {
+        LocationKeywordSearchForm form = new LocationKeywordSearchForm();
+        LocationKeywordSearchForm.Documents[] documents = new LocationKeywordSearchForm.Documents[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            documents[i] = new LocationKeywordSearchForm.Documents();
+            documents[i].setId(ids[i]);
+        }
+        form.setDocuments(documents);
+        return form;
+    }
+}
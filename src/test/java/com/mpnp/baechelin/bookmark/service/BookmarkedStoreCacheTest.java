@@ -0,0 +1,114 @@
+package com.mpnp.baechelin.bookmark.service;
+
+import com.mpnp.baechelin.bookmark.repository.BookmarkRepository;
+import com.mpnp.baechelin.user.domain.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 실제 Redis에서 Set 적재 스크립트와 비우기 스크립트가 엇갈리는 경우를 확인 - Docker 필요
+ */
+class BookmarkedStoreCacheTest {
+    private static final GenericContainer<?> REDIS = new GenericContainer<>(DockerImageName.parse("redis:6.2-alpine"))
+            .withExposedPorts(6379);
+    private static LettuceConnectionFactory connectionFactory;
+
+    private final BookmarkRepository bookmarkRepository = mock(BookmarkRepository.class);
+    private final User user = mock(User.class);
+    private BookmarkedStoreCache bookmarkedStoreCache;
+
+    @BeforeAll
+    static void startRedis() {
+        REDIS.start();
+        connectionFactory = new LettuceConnectionFactory(REDIS.getHost(), REDIS.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        connectionFactory.destroy();
+        REDIS.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        StringRedisTemplate stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+        stringRedisTemplate.afterPropertiesSet();
+        stringRedisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.flushAll();
+            return null;
+        });
+        bookmarkedStoreCache = new BookmarkedStoreCache(stringRedisTemplate, bookmarkRepository);
+        when(user.getId()).thenReturn(7);
+    }
+
+    @Test
+    @DisplayName("한 번 적재한 Set으로 이후 페이지를 DB 없이 확인한다")
+    void loadsOnce() {
+        when(bookmarkRepository.findStoreIdsByUserId(user)).thenReturn(List.of(1L, 2L));
+
+        assertThat(bookmarkedStoreCache.findBookmarkedStoreIds(user, List.of(1L, 2L, 3L))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(bookmarkedStoreCache.findBookmarkedStoreIds(user, List.of(2L, 3L))).containsExactly(2L);
+        verify(bookmarkRepository, times(1)).findStoreIdsByUserId(user);
+    }
+
+    @Test
+    @DisplayName("DB를 읽는 사이 커밋된 북마크 추가는 캐시에서 사라지지 않는다")
+    void addDuringLoadIsNotLost() {
+        // 적재가 DB를 읽은 직후(Set에 쓰기 전)에 다른 요청의 북마크 추가가 커밋된다
+        when(bookmarkRepository.findStoreIdsByUserId(user))
+                .thenAnswer(invocation -> {
+                    bookmarkedStoreCache.add(user, 2L);
+                    return List.of(1L);
+                })
+                .thenReturn(List.of(1L, 2L));
+
+        assertThat(bookmarkedStoreCache.findBookmarkedStoreIds(user, List.of(1L, 2L))).containsExactly(1L);
+        // 오래된 결과로 Set을 채우지 않았으므로 다시 읽으면 추가된 북마크가 보인다
+        assertThat(bookmarkedStoreCache.findBookmarkedStoreIds(user, List.of(1L, 2L))).containsExactlyInAnyOrder(1L, 2L);
+        verify(bookmarkRepository, times(2)).findStoreIdsByUserId(user);
+    }
+
+    @Test
+    @DisplayName("DB를 읽는 사이 커밋된 북마크 삭제는 캐시에서 되살아나지 않는다")
+    void removeDuringLoadIsNotResurrected() {
+        when(bookmarkRepository.findStoreIdsByUserId(user))
+                .thenAnswer(invocation -> {
+                    bookmarkedStoreCache.remove(user, 2L);
+                    return List.of(1L, 2L);
+                })
+                .thenReturn(List.of(1L));
+
+        bookmarkedStoreCache.findBookmarkedStoreIds(user, List.of(1L, 2L));
+
+        assertThat(bookmarkedStoreCache.findBookmarkedStoreIds(user, List.of(1L, 2L))).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("적재 후 북마크가 바뀌면 다음 조회에서 다시 적재한다")
+    void writeAfterLoadEvicts() {
+        when(bookmarkRepository.findStoreIdsByUserId(user)).thenReturn(List.of(1L), List.of());
+
+        assertThat(bookmarkedStoreCache.findBookmarkedStoreIds(user, List.of(1L))).containsExactly(1L);
+        bookmarkedStoreCache.remove(user, 1L);
+
+        assertThat(bookmarkedStoreCache.findBookmarkedStoreIds(user, List.of(1L))).isEmpty();
+        verify(bookmarkRepository, times(2)).findStoreIdsByUserId(user);
+    }
+}
@@ -0,0 +1,52 @@
+package com.mpnp.baechelin.common;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentHashTest {
+    private static final BigDecimal LAT = new BigDecimal("37.5665");
+    private static final BigDecimal LNG = new BigDecimal("126.978067199999991234");
+
+    @Test
+    @DisplayName("DECIMAL(25,22)로 저장되며 붙은 0, 반올림된 자릿수는 지문을 바꾸지 않는다")
+    void stableAcrossDecimalRounding() {
+        long raw = hash("카페", "스타벅스", LAT, LNG, "서울특별시 중구");
+
+        assertThat(hash("카페", "스타벅스", LAT.setScale(22, RoundingMode.HALF_UP), LNG.setScale(22, RoundingMode.HALF_UP), "서울특별시 중구"))
+                .isEqualTo(raw);
+        // double에서 만든 BigDecimal도 소수점 7자리에서 같은 값
+        assertThat(hash("카페", "스타벅스", new BigDecimal(37.5665), LNG, "서울특별시 중구")).isEqualTo(raw);
+    }
+
+    @Test
+    @DisplayName("앞뒤 공백, null과 빈 문자열은 같은 값으로 본다")
+    void normalizesStrings() {
+        assertThat(hash(" 카페 ", "스타벅스\t", LAT, LNG, null)).isEqualTo(hash("카페", "스타벅스", LAT, LNG, ""));
+    }
+
+    @Test
+    @DisplayName("값이 바뀌면 지문도 바뀐다")
+    void detectsChanges() {
+        long raw = hash("카페", "스타벅스", LAT, LNG, "서울특별시 중구");
+
+        assertThat(hash("카페", "스타벅스 시청점", LAT, LNG, "서울특별시 중구")).isNotEqualTo(raw);
+        assertThat(hash("카페", "스타벅스", LAT.add(new BigDecimal("0.000001")), LNG, "서울특별시 중구")).isNotEqualTo(raw);
+        assertThat(ContentHash.of("카페", "스타벅스", LAT, LNG, "서울특별시 중구", "Y", "N", "N", null, "N", "N"))
+                .isNotEqualTo(ContentHash.of("카페", "스타벅스", LAT, LNG, "서울특별시 중구", "N", "N", "N", null, "N", "N"));
+    }
+
+    @Test
+    @DisplayName("필드 경계가 달라지면 다른 값")
+    void fieldBoundary() {
+        assertThat(hash("ab", "c", LAT, LNG, "")).isNotEqualTo(hash("a", "bc", LAT, LNG, ""));
+    }
+
+    private static long hash(String category, String name, BigDecimal latitude, BigDecimal longitude, String address) {
+        return ContentHash.of(category, name, latitude, longitude, address, "Y", "N", "N", null, "N", "N");
+    }
+}
@@ -0,0 +1,46 @@
+package com.mpnp.baechelin.common;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeoHashTest {
+
+    @Test
+    @DisplayName("알려진 geohash 값")
+    void encode() {
+        assertThat(GeoHash.encode(57.64911, 10.40744, 11)).isEqualTo("u4pruydqqvj");
+        assertThat(GeoHash.encode(37.55, 127.0, 5)).isEqualTo("wydm9");
+    }
+
+    @Test
+    @DisplayName("정밀도를 높이면 앞의 칸 이름이 접두어로 유지된다")
+    void prefixByPrecision() {
+        String full = GeoHash.encode(37.5665, 126.978, 9);
+        for (int precision = 1; precision < 9; precision++) {
+            assertThat(full).startsWith(GeoHash.encode(37.5665, 126.978, precision));
+        }
+    }
+
+    @Test
+    @DisplayName("칸 크기 - 경도 ceil(5p/2)비트, 위도 floor(5p/2)비트")
+    void cellSize() {
+        assertThat(GeoHash.latHeight(5)).isEqualTo(180.0 / 4096);
+        assertThat(GeoHash.lngWidth(5)).isEqualTo(360.0 / 8192);
+        assertThat(GeoHash.latHeight(6)).isEqualTo(180.0 / 32768);
+        assertThat(GeoHash.lngWidth(6)).isEqualTo(360.0 / 32768);
+    }
+
+    @Test
+    @DisplayName("같은 칸 안의 점은 같은 이름")
+    void sameCell() {
+        double height = GeoHash.latHeight(6);
+        double width = GeoHash.lngWidth(6);
+        double latStart = Math.floor((37.55 + 90) / height) * height - 90;
+        double lngStart = Math.floor((127.0 + 180) / width) * width - 180;
+
+        assertThat(GeoHash.encode(latStart + height * 0.1, lngStart + width * 0.1, 6))
+                .isEqualTo(GeoHash.encode(latStart + height * 0.9, lngStart + width * 0.9, 6));
+    }
+}
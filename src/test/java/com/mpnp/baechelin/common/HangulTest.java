@@ -0,0 +1,40 @@
+package com.mpnp.baechelin.common;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HangulTest {
+
+    @Test
+    @DisplayName("음절을 초성, 중성, 종성 낱자로 분해")
+    void decomposeSyllables() {
+        assertThat(Hangul.decompose("뱁")).isEqualTo("ㅂㅐㅂ");
+        assertThat(Hangul.decompose("과")).isEqualTo("ㄱㅗㅏ");
+        assertThat(Hangul.decompose("닭")).isEqualTo("ㄷㅏㄹㄱ");
+        assertThat(Hangul.decompose("빵")).isEqualTo("ㅂㅂㅏㅇ");
+    }
+
+    @Test
+    @DisplayName("호환용 자모의 쌍자음, 겹받침도 낱자로")
+    void decomposeCompatibilityJamo() {
+        assertThat(Hangul.decompose("ㄲ")).isEqualTo("ㄱㄱ");
+        assertThat(Hangul.decompose("ㄺ")).isEqualTo("ㄹㄱ");
+        assertThat(Hangul.decompose("ㅘ")).isEqualTo("ㅗㅏ");
+    }
+
+    @Test
+    @DisplayName("한글이 아닌 글자는 소문자로만 바꾼다")
+    void nonHangul() {
+        assertThat(Hangul.decompose("AbC1 ")).isEqualTo("abc1 ");
+    }
+
+    @Test
+    @DisplayName("입력 중인 글자가 완성된 글자의 접두어가 된다")
+    void typingPrefix() {
+        assertThat(Hangul.decompose("배첼린")).startsWith(Hangul.decompose("뱇"));
+        assertThat(Hangul.decompose("닭갈비")).startsWith(Hangul.decompose("달"));
+        assertThat(Hangul.decompose("과자")).startsWith(Hangul.decompose("고"));
+    }
+}
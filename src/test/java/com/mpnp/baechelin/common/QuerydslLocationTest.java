@@ -0,0 +1,30 @@
+package com.mpnp.baechelin.common;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuerydslLocationTest {
+
+    @Test
+    @DisplayName("도 단위 좌표를 가장 가까운 마이크로도로 반올림한다")
+    void toE6() {
+        assertThat(QuerydslLocation.toE6(37.55)).isEqualTo(37_550_000);
+        assertThat(QuerydslLocation.toE6(37.5666667)).isEqualTo(37_566_667);
+        assertThat(QuerydslLocation.toE6(126.9783881)).isEqualTo(126_978_388);
+        // DECIMAL(25, 22) 컬럼 값도 같은 정수가 된다
+        assertThat(QuerydslLocation.toE6(new BigDecimal("37.5665000000000000000000").doubleValue())).isEqualTo(37_566_500);
+    }
+
+    @Test
+    @DisplayName("반경 박스는 기준점의 마이크로도에 반경을 더하고 뺀 값")
+    void rangeE6() {
+        int[] range = QuerydslLocation.getRangeE6(37.55, 127.0, 3);
+
+        // 3km = 위도 3 / 110.569도, 경도 3 / 111.322도
+        assertThat(range).containsExactly(37_550_000 - 27_132, 37_550_000 + 27_132, 127_000_000 - 26_949, 127_000_000 + 26_949);
+    }
+}
@@ -0,0 +1,106 @@
+package com.mpnp.baechelin.common.httpclient;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.logging.LoggingMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 공용 클라이언트로 로컬 서버를 호출해서 reactor.netty.* 지표가 로깅 레지스트리에 남는지 확인한다
+ */
+class HttpConfigTest {
+    private final HttpConfig httpConfig = new HttpConfig();
+
+    private DisposableServer server;
+    private LoggingMeterRegistry registry;
+    private ConnectionProvider connectionProvider;
+    private WebClient webClient;
+
+    @BeforeEach
+    void setUp() {
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.get("/stores", (request, response) -> response.sendString(Mono.just("ok"))))
+                .bindNow();
+
+        ReflectionTestUtils.setField(httpConfig, "maxConnections", 2);
+        ReflectionTestUtils.setField(httpConfig, "pendingAcquireTimeout", 1000L);
+        ReflectionTestUtils.setField(httpConfig, "maxIdleTime", 30000L);
+        ReflectionTestUtils.setField(httpConfig, "connectTimeout", 1000);
+        ReflectionTestUtils.setField(httpConfig, "responseTimeout", 1000L);
+        ReflectionTestUtils.setField(httpConfig, "metricsLogStep", Duration.ofMinutes(1));
+        registry = httpConfig.outboundMeterRegistry();
+        connectionProvider = httpConfig.outboundConnectionProvider(registry);
+        UpstreamThrottleFilter upstreamThrottleFilter = new UpstreamThrottleFilter(0, 200, 5000);
+        ReflectionTestUtils.setField(upstreamThrottleFilter, "defaultRate", 50);
+        ReflectionTestUtils.setField(upstreamThrottleFilter, "defaultMaxConcurrency", 32);
+        webClient = httpConfig.outboundWebClient(httpConfig.httpClient(connectionProvider), upstreamThrottleFilter);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Metrics.removeRegistry(registry);
+        registry.close();
+        connectionProvider.disposeLater().block();
+        server.disposeNow();
+    }
+
+    @Test
+    @DisplayName("요청 시간은 호스트, 경로별로 기록하고 쿼리스트링은 태그에 남기지 않는다")
+    void recordsResponseTimeByHostAndPath() throws InterruptedException {
+        String body = webClient.get()
+                .uri("http://localhost:" + server.port() + "/stores?serviceKey=secret&query=카페")
+                .retrieve()
+                .bodyToMono(String.class)
+                .block();
+        assertThat(body).isEqualTo("ok");
+
+        Timer responseTime = awaitTimer("reactor.netty.http.client.response.time");
+        assertThat(responseTime.getId().getTag("uri")).isEqualTo("/stores");
+        assertThat(responseTime.getId().getTag("remote.address")).contains(String.valueOf(server.port()));
+        assertThat(registry.getMeters().stream()
+                .flatMap(meter -> meter.getId().getTags().stream())
+                .map(Tag::getValue))
+                .noneMatch(value -> value.contains("secret"));
+    }
+
+    @Test
+    @DisplayName("풀 지표는 이름 붙은 커넥션 풀로 기록하고, reactor.netty 밖의 지표는 받지 않는다")
+    void recordsOnlyReactorNettyMeters() throws InterruptedException {
+        webClient.get().uri("http://localhost:" + server.port() + "/stores").retrieve().bodyToMono(String.class).block();
+        awaitTimer("reactor.netty.http.client.response.time");
+        Metrics.counter("store.other.metric").increment();
+
+        assertThat(registry.find("reactor.netty.connection.provider.total.connections").tag("name", "outbound").gauge())
+                .isNotNull();
+        assertThat(registry.getMeters()).extracting(meter -> meter.getId().getName())
+                .allMatch(name -> name.startsWith("reactor.netty"));
+    }
+
+    // 응답 시간은 응답이 끝난 뒤 이벤트 루프에서 기록된다
+    private Timer awaitTimer(String name) throws InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            Timer timer = registry.find(name).timer();
+            if (timer != null && timer.count() > 0) return timer;
+            Thread.sleep(20);
+        }
+        throw new AssertionError(name + " 지표가 기록되지 않았습니다: "
+                + registry.getMeters().stream().map(Meter::getId).map(Meter.Id::getName).distinct().collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,119 @@
+package com.mpnp.baechelin.common.httpclient;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpstreamLimiterTest {
+
+    @Test
+    @DisplayName("동시 요청 수는 상한의 절반에서 시작")
+    void startsAtHalf() {
+        assertThat(new UpstreamLimiter("host", 100, 8).getLimit()).isEqualTo(4);
+        assertThat(new UpstreamLimiter("host", 100, 1).getLimit()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("성공하면 한 창(limit 개)마다 1씩 늘고 상한을 넘지 않는다")
+    void additiveIncrease() {
+        UpstreamLimiter limiter = new UpstreamLimiter("host", 1000, 8);
+
+        succeed(limiter, 4);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        succeed(limiter, 1);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+        succeed(limiter, 100);
+        assertThat(limiter.getLimit()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("과부하면 절반으로 줄이고, 직후의 과부하로는 다시 줄이지 않는다")
+    void multiplicativeDecrease() {
+        UpstreamLimiter limiter = new UpstreamLimiter("host", 1000, 8);
+
+        overload(limiter);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+        overload(limiter);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("과부하가 아닌 실패는 limit을 줄이지 않는다")
+    void nonOverloadFailure() {
+        UpstreamLimiter limiter = new UpstreamLimiter("host", 1000, 8);
+
+        limiter.execute(() -> Mono.error(new IllegalArgumentException()), e -> false)
+                .onErrorResume(e -> Mono.empty())
+                .block();
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("limit만큼 실행 중이면 다음 요청은 하나가 끝날 때까지 시작하지 않는다")
+    void concurrencyLimit() throws InterruptedException {
+        UpstreamLimiter limiter = new UpstreamLimiter("host", 1000, 2);
+        AtomicInteger started = new AtomicInteger();
+
+        Disposable first = limiter.execute(() -> {
+            started.incrementAndGet();
+            return Mono.never();
+        }, e -> false).subscribe();
+        Disposable second = limiter.execute(() -> {
+            started.incrementAndGet();
+            return Mono.never();
+        }, e -> false).subscribe();
+
+        Thread.sleep(200);
+        assertThat(started.get()).isEqualTo(1);
+
+        first.dispose();
+        assertThat(await(() -> started.get() == 2)).isTrue();
+        second.dispose();
+    }
+
+    @Test
+    @DisplayName("초당 요청 수를 넘는 요청은 토큰이 채워질 때까지 기다린다")
+    void tokenBucket() {
+        UpstreamLimiter limiter = new UpstreamLimiter("host", 5, 100);
+
+        long start = System.nanoTime();
+        Long count = Flux.range(0, 10)
+                .flatMap(i -> limiter.execute(() -> Mono.just(i), e -> false))
+                .count()
+                .block(Duration.ofSeconds(5));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        // 처음 5개는 바로, 나머지 5개는 초당 5개씩 채워지는 토큰으로 약 1초
+        assertThat(count).isEqualTo(10);
+        assertThat(elapsedMillis).isBetween(800L, 3000L);
+    }
+
+    private static void succeed(UpstreamLimiter limiter, int times) {
+        for (int i = 0; i < times; i++) {
+            limiter.execute(() -> Mono.just("ok"), e -> false).block();
+        }
+    }
+
+    private static void overload(UpstreamLimiter limiter) {
+        limiter.execute(() -> Mono.error(new IllegalStateException("429")), e -> true)
+                .onErrorResume(e -> Mono.empty())
+                .block();
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (System.nanoTime() < deadline) {
+            if (condition.getAsBoolean()) return true;
+            Thread.sleep(10);
+        }
+        return condition.getAsBoolean();
+    }
+}
@@ -0,0 +1,110 @@
+package com.mpnp.baechelin.config.batch;
+
+import com.mpnp.baechelin.MySqlContainerTest;
+import com.mpnp.baechelin.store.domain.Store;
+import com.mpnp.baechelin.store.repository.StoreRepository;
+import com.mpnp.baechelin.store.service.StoreDetailCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.database.JdbcPagingItemReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Job 실행 없이 reader의 since 조건과 writer의 보정 쿼리를 실제 MySQL에서 확인한다
+ */
+class StoreAggregateJobConfigurationTest extends MySqlContainerTest {
+    private static final LocalDateTime UNTIL = LocalDateTime.of(2022, 8, 1, 12, 0);
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private TestEntityManager em;
+
+    private final StoreDetailCache storeDetailCache = mock(StoreDetailCache.class);
+    private StoreAggregateJobConfiguration configuration;
+    private JdbcPagingItemReader<Long> reader;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= 4; id++) {
+            em.persist(store(id));
+        }
+        em.flush();
+        // 지난 실행 전에 바뀐 업장 1, 이후에 바뀐 업장 2, 3 - 업장 4는 집계가 바뀐 적 없음
+        storeRepository.addBookmarkCount(List.of(1L), 0, UNTIL.minusHours(1));
+        storeRepository.addBookmarkCount(List.of(2L, 3L), 0, UNTIL.plusMinutes(10));
+        em.clear();
+        configuration = new StoreAggregateJobConfiguration(null, null, dataSource, storeRepository, storeDetailCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (reader != null) reader.close();
+    }
+
+    @Test
+    @DisplayName("since가 없으면 전체 업장을 id 순서로 읽는다")
+    void readsAllStoresWithoutSince() throws Exception {
+        assertThat(readAll("")).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    @DisplayName("since가 있으면 지난 실행의 until 이후 집계가 바뀐 업장만 읽는다")
+    void readsOnlyStoresChangedSinceLastUntil() throws Exception {
+        assertThat(readAll(UNTIL.toString())).containsExactly(2L, 3L);
+    }
+
+    @Test
+    @DisplayName("writer는 청크의 업장 집계를 리뷰, 북마크 테이블 기준으로 덮어쓰고 상세 캐시를 비운다")
+    void writerReconcilesChunkAndEvictsCache() throws Exception {
+        // 리뷰 테이블에는 리뷰가 없는데 증감만 반영된 상태
+        storeRepository.addReviewPoint(2, 5, UNTIL);
+        storeRepository.addBookmarkCount(List.of(2L, 3L), 2, UNTIL);
+
+        configuration.storeAggregateWriter().write(List.of(2L, 3L));
+        em.clear();
+
+        for (long id : List.of(2L, 3L)) {
+            Store store = em.find(Store.class, id);
+            assertThat(store.getReviewCount()).isZero();
+            assertThat(store.getPointAvg()).isZero();
+            assertThat(store.getBookMarkCount()).isZero();
+        }
+        verify(storeDetailCache).evictAll(List.of(2L, 3L));
+    }
+
+    private List<Long> readAll(String since) throws Exception {
+        reader = configuration.storeAggregateReader(since);
+        reader.afterPropertiesSet();
+        reader.open(new ExecutionContext());
+        List<Long> ids = new ArrayList<>();
+        for (Long id = reader.read(); id != null; id = reader.read()) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private static Store store(long id) {
+        return Store.builder()
+                .id(id).name("업장" + id).category("카페").address("서울특별시 중구 세종대로 " + id)
+                .latitude(new BigDecimal("37.55")).longitude(new BigDecimal("127.0"))
+                .elevator("N").toilet("N").parking("N").heightDifferent("N").approach("N")
+                .build();
+    }
+}
@@ -0,0 +1,121 @@
+package com.mpnp.baechelin.config.batch.util;
+
+import com.mpnp.baechelin.config.batch.BatchConfiguration;
+import com.mpnp.baechelin.config.batch.StoreAggregateJobConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.batch.core.*;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+
+import java.time.Duration;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class BatchSchedulerTest {
+    private final StoreAggregateJobConfiguration storeAggregateJobConfiguration = mock(StoreAggregateJobConfiguration.class);
+    private final JobLauncher jobLauncher = mock(JobLauncher.class);
+    private final JobExplorer jobExplorer = mock(JobExplorer.class);
+    private final JobRepository jobRepository = mock(JobRepository.class);
+    private final Job job = mock(Job.class);
+    private final JobInstance lastInstance = new JobInstance(1L, StoreAggregateJobConfiguration.JOB_NAME);
+
+    private BatchScheduler batchScheduler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        batchScheduler = new BatchScheduler(mock(BatchConfiguration.class), storeAggregateJobConfiguration,
+                jobLauncher, jobExplorer, jobRepository);
+        when(storeAggregateJobConfiguration.storeAggregateJob()).thenReturn(job);
+        when(jobLauncher.run(any(), any())).thenReturn(new JobExecution(2L));
+    }
+
+    @Test
+    @DisplayName("첫 실행은 since 없이 전체 업장을 대상으로 실행한다")
+    void firstRunCoversAllStores() throws Exception {
+        JobParameters launched = runAndCaptureParameters();
+
+        assertThat(launched.getString(StoreAggregateJobConfiguration.SINCE)).isEmpty();
+        assertThat(launched.getString(StoreAggregateJobConfiguration.UNTIL)).isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("지난 실행이 완료되었으면 그 실행의 until부터 이어서 실행한다")
+    void nextRunStartsFromLastUntil() throws Exception {
+        JobExecution last = lastExecution(BatchStatus.COMPLETED, parameters("", "2022-08-01T11:55"), true, new Date());
+
+        JobParameters launched = runAndCaptureParameters();
+
+        assertThat(launched.getString(StoreAggregateJobConfiguration.SINCE)).isEqualTo("2022-08-01T11:55");
+        assertThat(launched).isNotEqualTo(last.getJobParameters());
+    }
+
+    @Test
+    @DisplayName("지난 실행이 실패했으면 같은 파라미터로 재시작한다")
+    void failedRunIsRestarted() throws Exception {
+        JobExecution last = lastExecution(BatchStatus.FAILED, parameters("2022-08-01T10:55", "2022-08-01T11:55"), true, new Date());
+
+        assertThat(runAndCaptureParameters()).isEqualTo(last.getJobParameters());
+        verify(jobRepository, never()).update(any(JobExecution.class));
+    }
+
+    @Test
+    @DisplayName("최근에 청크를 커밋한 실행이 아직 돌고 있으면 건너뛴다")
+    void liveRunIsSkipped() throws Exception {
+        lastExecution(BatchStatus.STARTED, parameters("2022-08-01T10:55", "2022-08-01T11:55"), false, new Date());
+
+        batchScheduler.storeAggregateJob();
+
+        verify(jobLauncher, never()).run(any(), any());
+        verify(jobRepository, never()).update(any(JobExecution.class));
+    }
+
+    @Test
+    @DisplayName("죽은 서버가 남긴 STARTED 실행은 FAILED로 정리하고 같은 파라미터로 재시작한다")
+    void staleRunIsAbandonedAndRestarted() throws Exception {
+        Date longAgo = new Date(System.currentTimeMillis() - Duration.ofHours(2).toMillis());
+        JobExecution last = lastExecution(BatchStatus.STARTED, parameters("2022-08-01T10:55", "2022-08-01T11:55"), false, longAgo);
+        StepExecution step = last.getStepExecutions().iterator().next();
+
+        assertThat(runAndCaptureParameters()).isEqualTo(last.getJobParameters());
+        assertThat(last.getStatus()).isEqualTo(BatchStatus.FAILED);
+        assertThat(step.getStatus()).isEqualTo(BatchStatus.FAILED);
+        verify(jobRepository).update(step);
+        verify(jobRepository).update(last);
+    }
+
+    private JobParameters runAndCaptureParameters() throws Exception {
+        batchScheduler.storeAggregateJob();
+        ArgumentCaptor<JobParameters> captor = ArgumentCaptor.forClass(JobParameters.class);
+        verify(jobLauncher).run(eq(job), captor.capture());
+        return captor.getValue();
+    }
+
+    private JobExecution lastExecution(BatchStatus status, JobParameters jobParameters, boolean ended, Date lastUpdated) {
+        JobExecution execution = new JobExecution(lastInstance, 1L, jobParameters, null);
+        execution.setStatus(status);
+        execution.setStartTime(lastUpdated);
+        execution.setLastUpdated(lastUpdated);
+        if (ended) execution.setEndTime(lastUpdated);
+
+        StepExecution step = execution.createStepExecution("storeAggregateStep");
+        step.setStatus(ended ? status : BatchStatus.STARTED);
+        step.setLastUpdated(lastUpdated);
+
+        when(jobExplorer.getLastJobInstance(StoreAggregateJobConfiguration.JOB_NAME)).thenReturn(lastInstance);
+        when(jobExplorer.getLastJobExecution(lastInstance)).thenReturn(execution);
+        return execution;
+    }
+
+    private static JobParameters parameters(String since, String until) {
+        return new JobParametersBuilder()
+                .addString(StoreAggregateJobConfiguration.SINCE, since)
+                .addString(StoreAggregateJobConfiguration.UNTIL, until)
+                .toJobParameters();
+    }
+}
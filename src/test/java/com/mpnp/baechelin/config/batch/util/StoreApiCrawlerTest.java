@@ -0,0 +1,123 @@
+package com.mpnp.baechelin.config.batch.util;
+
+import com.mpnp.baechelin.api.repository.KakaoLookupRepository;
+import com.mpnp.baechelin.api.service.KakaoLookupCache;
+import com.mpnp.baechelin.storeApiUpdate.StoreApiUpdate;
+import com.mpnp.baechelin.storeApiUpdate.repository.StoreApiUpdateBulkRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * 공공 API, 카카오 응답을 흉내 내는 ExchangeFunction으로 중복 제거와 묶음 저장을 확인한다
+ */
+class StoreApiCrawlerTest {
+    // 카카오 검색 한 번이 마지막 페이지까지 돌려주는 업장 수 - 페이지당 15개
+    private static final int KAKAO_PAGES = 40;
+    private static final int PAGE_SIZE = 15;
+
+    private final StoreApiUpdateBulkRepository storeApiUpdateBulkRepository = mock(StoreApiUpdateBulkRepository.class);
+    private final AtomicInteger kakaoCalls = new AtomicInteger();
+
+    @Test
+    @DisplayName("같은 건물 시설 두 곳에서 나온 업장은 한 번만, BATCH_SIZE 묶음으로 차례로 저장하고 실패한 지역은 건너뛴다")
+    void deduplicatesAndBuffersIntoBatches() {
+        WebClient webClient = WebClient.builder().exchangeFunction(this::exchange).build();
+        // 저장된 조회 결과가 없는 카카오 조회 캐시
+        KakaoLookupCache kakaoLookupCache = new KakaoLookupCache(mock(KakaoLookupRepository.class), 30, 24);
+        StoreApiCrawler crawler = new StoreApiCrawler(webClient, storeApiUpdateBulkRepository, kakaoLookupCache,
+                "public-key", "KakaoAK key", 4, 8);
+
+        long saved = crawler.crawl();
+
+        // 카테고리 2개 x 페이지 40개 x 15개 - 두 시설에서 같은 업장이 나온다
+        int distinct = 2 * KAKAO_PAGES * PAGE_SIZE;
+        assertThat(saved).isEqualTo(distinct);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<StoreApiUpdate>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(storeApiUpdateBulkRepository, times(3)).upsert(chunks.capture());
+        assertThat(chunks.getAllValues()).extracting(List::size)
+                .containsExactly(StoreApiUpdateBulkRepository.BATCH_SIZE, StoreApiUpdateBulkRepository.BATCH_SIZE,
+                        distinct - 2 * StoreApiUpdateBulkRepository.BATCH_SIZE);
+        Set<Long> ids = new HashSet<>();
+        chunks.getAllValues().forEach(chunk -> chunk.forEach(row -> ids.add(row.getId())));
+        assertThat(ids).hasSize(distinct);
+
+        StoreApiUpdate row = chunks.getAllValues().get(0).get(0);
+        assertThat(row.getElevator()).isEqualTo("Y");
+        assertThat(row.getToilet()).isEqualTo("Y");
+        assertThat(row.getParking()).isEqualTo("N");
+        // 시설 2곳 x 카테고리 2개 - is_end에서 멈춘다
+        assertThat(kakaoCalls).hasValue(2 * 2 * KAKAO_PAGES);
+    }
+
+    private Mono<ClientResponse> exchange(ClientRequest request) {
+        String path = request.url().getPath();
+        String query = request.url().getQuery();
+        if (path.endsWith("/getDisConvFaclList")) {
+            if (query.contains("cggNm=해운대구")) return Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build());
+            if (!query.contains("siDoNm=서울특별시") || !query.contains("cggNm=강남구")) return xml(facilities(0));
+            return xml(facilities(2));
+        }
+        if (path.endsWith("/getFacInfoOpenApiJpEvalInfoList")) {
+            return xml("<facInfoList><servList><evalInfo>계단 또는 승강설비,대변기</evalInfo></servList></facInfoList>");
+        }
+        kakaoCalls.incrementAndGet();
+        int page = Integer.parseInt(param(query, "page"));
+        int categoryOffset = param(query, "category_group_code").equals("FD6") ? 0 : 100_000;
+        String documents = IntStream.range(0, PAGE_SIZE)
+                .mapToObj(i -> document(categoryOffset + (page - 1) * PAGE_SIZE + i + 1))
+                .collect(Collectors.joining(","));
+        return Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body("{\"meta\":{\"is_end\":" + (page == KAKAO_PAGES) + "},\"documents\":[" + documents + "]}")
+                .build());
+    }
+
+    // 같은 건물(같은 주소, 좌표)의 시설 count개
+    private static String facilities(int count) {
+        StringBuilder xml = new StringBuilder("<facInfoList><totalCount>" + count + "</totalCount>");
+        for (int i = 1; i <= count; i++) {
+            xml.append("<servList><wfcltId>W").append(i).append("</wfcltId><faclNm>시설").append(i)
+                    .append("</faclNm><faclLat>37.5</faclLat><faclLng>127.03</faclLng>")
+                    .append("<lcMnad>서울특별시 강남구 테헤란로 1</lcMnad></servList>");
+        }
+        return xml.append("</facInfoList>").toString();
+    }
+
+    private static String document(long id) {
+        return "{\"id\":\"" + id + "\",\"place_name\":\"업장" + id + "\",\"category_name\":\"음식점 > 한식\","
+                + "\"x\":\"127.03\",\"y\":\"37.5\"}";
+    }
+
+    private static Mono<ClientResponse> xml(String body) {
+        return Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_XML_VALUE)
+                .body(body)
+                .build());
+    }
+
+    private static String param(String query, String name) {
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(name + "=")) return pair.substring(name.length() + 1);
+        }
+        throw new IllegalArgumentException(name);
+    }
+}
@@ -0,0 +1,103 @@
+package com.mpnp.baechelin.config.batch.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StoreIdRangePartitionerTest {
+
+    @Test
+    @DisplayName("구간들이 MIN ~ MAX를 빈틈, 겹침 없이 덮는다")
+    void coversRangeWithoutGapsOrOverlaps() {
+        List<List<Long>> cases = List.of(
+                ids(1, 10), ids(5, 5), ids(100, 103), ids(1, 7),
+                LongStream.of(1, 3, 1_000_000_000L, 2_147_483_999L).boxed().collect(Collectors.toList()));
+        for (List<Long> ids : cases) {
+            for (int gridSize : new int[]{1, 3, 4, 8, 16}) {
+                List<ExecutionContext> partitions = partition(ids, gridSize);
+
+                assertThat(partitions).isNotEmpty().hasSizeLessThanOrEqualTo(gridSize);
+                assertThat(minId(partitions.get(0))).isEqualTo(ids.get(0));
+                assertThat(maxId(partitions.get(partitions.size() - 1))).isEqualTo(ids.get(ids.size() - 1));
+                for (int i = 0; i < partitions.size(); i++) {
+                    assertThat(minId(partitions.get(i))).isLessThanOrEqualTo(maxId(partitions.get(i)));
+                    if (i > 0) assertThat(minId(partitions.get(i))).isEqualTo(maxId(partitions.get(i - 1)) + 1);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("id가 한쪽에 몰려 있어도 구간마다 행 수가 고르다")
+    void balancesRowCountsForSkewedIds() {
+        // 촘촘한 id 9000개 + 아주 넓게 퍼진 id 1000개
+        List<Long> ids = new ArrayList<>(ids(1, 9_000));
+        IntStream.range(0, 1_000).forEach(i -> ids.add(1_000_000_000L + i * 1_000_000L));
+
+        List<ExecutionContext> partitions = partition(ids, 8);
+
+        assertThat(partitions).hasSize(8);
+        for (ExecutionContext context : partitions) {
+            long rows = ids.stream().filter(id -> id >= minId(context) && id <= maxId(context)).count();
+            assertThat(rows).isBetween(1_249L, 1_250L);
+        }
+    }
+
+    @Test
+    @DisplayName("빈 테이블이면 아무것도 읽지 않는 구간 하나")
+    void emptyTable() {
+        List<ExecutionContext> partitions = partition(List.of(), 4);
+
+        assertThat(partitions).hasSize(1);
+        assertThat(minId(partitions.get(0))).isGreaterThan(maxId(partitions.get(0)));
+    }
+
+    private static List<ExecutionContext> partition(List<Long> ids, int gridSize) {
+        List<ExecutionContext> partitions = new ArrayList<>(partitioner(ids).partition(gridSize).values());
+        partitions.sort(Comparator.comparingLong(StoreIdRangePartitionerTest::minId));
+        return partitions;
+    }
+
+    /**
+     * 정렬된 ids가 저장된 store_api_update - 구간 시작 id 쿼리는 id 순서로 step 번째마다 뽑은 결과를 돌려준다
+     */
+    private static StoreIdRangePartitioner partitioner(List<Long> ids) {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForMap(anyString())).thenReturn(Map.<String, Object>of(
+                "row_count", (long) ids.size(),
+                "max_id", ids.isEmpty() ? 0L : ids.get(ids.size() - 1)));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), anyLong())).thenAnswer(invocation -> {
+            Long step = invocation.getArgument(2);
+            return IntStream.range(0, ids.size()).filter(i -> i % step == 0).mapToObj(ids::get).collect(Collectors.toList());
+        });
+        return new StoreIdRangePartitioner(jdbcTemplate);
+    }
+
+    private static List<Long> ids(long from, long to) {
+        return LongStream.rangeClosed(from, to).boxed().collect(Collectors.toList());
+    }
+
+    private static long minId(ExecutionContext context) {
+        return context.getLong(StoreIdRangePartitioner.MIN_ID);
+    }
+
+    private static long maxId(ExecutionContext context) {
+        return context.getLong(StoreIdRangePartitioner.MAX_ID);
+    }
+}
@@ -0,0 +1,42 @@
+package com.mpnp.baechelin.store.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FacilityTest {
+    private static final int ALL = (1 << Facility.values().length) - 1;
+
+    @Test
+    @DisplayName("supersetsOf는 필요한 비트를 모두 가진 마스크를 빠짐없이 오름차순으로 돌려준다")
+    void supersetsOf() {
+        for (int required = 0; required <= ALL; required++) {
+            List<Integer> expected = new ArrayList<>();
+            for (int mask = 0; mask <= ALL; mask++) {
+                if ((mask & required) == required) expected.add(mask);
+            }
+
+            assertThat(Facility.supersetsOf(required)).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("조건이 없으면 전체, 전부 필요하면 하나")
+    void supersetsOfBounds() {
+        assertThat(Facility.supersetsOf(0)).hasSize(ALL + 1);
+        assertThat(Facility.supersetsOf(ALL)).containsExactly(ALL);
+    }
+
+    @Test
+    @DisplayName("태그, Y/N 컬럼으로 만든 마스크가 같다")
+    void maskOf() {
+        assertThat(Facility.maskOf(List.of("elevator", "heightDifferent")))
+                .isEqualTo(Facility.maskOf("Y", "N", "N", "Y", "N"))
+                .isEqualTo(Facility.ELEVATOR.getBit() | Facility.HEIGHT_DIFFERENT.getBit());
+        assertThat(Facility.maskOf((List<String>) null)).isZero();
+    }
+}
@@ -0,0 +1,73 @@
+package com.mpnp.baechelin.store.dto;
+
+import com.mpnp.baechelin.exception.CustomException;
+import com.mpnp.baechelin.exception.ErrorCode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StoreCursorTest {
+
+    @Test
+    @DisplayName("인코딩한 커서를 디코딩하면 같은 값")
+    void roundTrip() {
+        for (StoreCursor cursor : new StoreCursor[]{new StoreCursor(StoreCursor.Type.POINT, 4.5, 123L),
+                new StoreCursor(StoreCursor.Type.BOOKMARK, 0, 1L), new StoreCursor(StoreCursor.Type.ID, 17, Long.MAX_VALUE)}) {
+            StoreCursor decoded = StoreCursor.decode(cursor.encode(), cursor.getType());
+
+            assertThat(decoded.getType()).isEqualTo(cursor.getType());
+            assertThat(decoded.getSortValue()).isEqualTo(cursor.getSortValue());
+            assertThat(decoded.getStoreId()).isEqualTo(cursor.getStoreId());
+        }
+    }
+
+    @Test
+    @DisplayName("URL에 그대로 쓸 수 있는 문자만 사용")
+    void urlSafe() {
+        assertThat(new StoreCursor(StoreCursor.Type.POINT, 4.5, 123456789L).encode()).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    @DisplayName("비어 있으면 첫 페이지")
+    void emptyCursor() {
+        assertThat(StoreCursor.decode(null, StoreCursor.Type.POINT)).isNull();
+        assertThat(StoreCursor.decode("", StoreCursor.Type.POINT)).isNull();
+    }
+
+    @Test
+    @DisplayName("잘못된 커서는 INVALID_CURSOR")
+    void invalidCursor() {
+        for (String cursor : new String[]{"!!!", encode("abc"), encode("1.0:2"), encode("p:1.0:2:3"),
+                encode("x:1.0:2"), encode("p:a:1"), encode("p:1.0:b")}) {
+            assertInvalid(cursor, StoreCursor.Type.POINT);
+        }
+    }
+
+    @Test
+    @DisplayName("다른 정렬로 만든 커서는 정렬 키의 의미가 다르므로 INVALID_CURSOR")
+    void cursorOfOtherType() {
+        String pointCursor = new StoreCursor(StoreCursor.Type.POINT, 4.5, 123L).encode();
+
+        assertInvalid(pointCursor, StoreCursor.Type.BOOKMARK);
+        assertInvalid(pointCursor, StoreCursor.Type.ID);
+        // 검색 색인이 준비되기 전후로 받은 커서
+        assertInvalid(new StoreCursor(StoreCursor.Type.ID, 17, 17L).encode(), StoreCursor.Type.SCORE);
+        assertInvalid(new StoreCursor(StoreCursor.Type.SCORE, 19, 17L).encode(), StoreCursor.Type.ID);
+    }
+
+    private static void assertInvalid(String cursor, StoreCursor.Type type) {
+        assertThatThrownBy(() -> StoreCursor.decode(cursor, type))
+                .isInstanceOf(CustomException.class)
+                .extracting(e -> ((CustomException) e).getErrorCode())
+                .isEqualTo(ErrorCode.INVALID_CURSOR);
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,164 @@
+package com.mpnp.baechelin.store.index;
+
+import com.mpnp.baechelin.common.QuerydslLocation;
+import com.mpnp.baechelin.store.domain.Facility;
+import com.mpnp.baechelin.store.dto.StoreClusterResponseDto;
+import com.mpnp.baechelin.store.repository.StoreNearQueryCache;
+import com.mpnp.baechelin.store.repository.StoreRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StoreGridIndexTest {
+    private static final String[] CATEGORIES = {"한식", "카페", "일식"};
+    // 승강기, 화장실, 주차장, 높이차이, 접근로 순서 - StoreGridIndex의 비트 순서와 같다
+
+    private final List<Object[]> rows = new ArrayList<>();
+    private StoreGridIndex storeGridIndex;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(42);
+        for (long id = 1; id <= 3000; id++) {
+            int latE6 = 37_400_000 + random.nextInt(300_000);
+            int lngE6 = 126_800_000 + random.nextInt(400_000);
+            rows.add(row(id, latE6, lngE6, CATEGORIES[random.nextInt(CATEGORIES.length)], random.nextInt(32)));
+        }
+        // 같은 위치의 업장은 id 순
+        rows.add(row(5000L, 37_550_000, 127_000_000, "카페", 0));
+        rows.add(row(4000L, 37_550_000, 127_000_000, "카페", 0));
+
+        StoreRepository storeRepository = mock(StoreRepository.class);
+        when(storeRepository.findAllLocations()).thenReturn(rows);
+        storeGridIndex = new StoreGridIndex(storeRepository, new StoreNearQueryCache(1000, 60));
+        storeGridIndex.refresh();
+    }
+
+    @Test
+    @DisplayName("거리순 페이지가 전체 정렬 결과와 같다")
+    void findNearMatchesBruteForce() {
+        double[][] boxes = {
+                {37.45, 37.65, 126.9, 127.1, 37.55, 127.0},
+                {37.5, 37.52, 127.0, 127.05, 37.51, 127.02},
+                {37.3, 37.8, 126.7, 127.3, 37.4, 126.8},
+        };
+        for (double[] box : boxes) {
+            for (String category : new String[]{null, "CAFE"}) {
+                for (List<String> facility : List.of(List.<String>of(), List.of("elevator"), List.of("toilet", "parking"))) {
+                    List<Long> expected = bruteForce(box, category == null ? null : "카페", facility);
+                    for (int offset : new int[]{0, 7, 40}) {
+                        StoreGridIndex.NearResult result = storeGridIndex.findNear(box[0], box[1], box[2], box[3], box[4], box[5],
+                                category, facility, offset, 20);
+
+                        List<Long> page = expected.subList(Math.min(offset, expected.size()), Math.min(offset + 20, expected.size()));
+                        assertThat(result.getStoreIds()).containsExactly(page.stream().mapToLong(Long::longValue).toArray());
+                        assertThat(result.getTotalCount()).isEqualTo(expected.size());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("거리가 같으면 id 순")
+    void tieBrokenById() {
+        StoreGridIndex.NearResult result = storeGridIndex.findNear(37.549, 37.551, 126.999, 127.001, 37.55, 127.0,
+                "CAFE", List.of(), 0, 2);
+
+        assertThat(result.getStoreIds()).containsExactly(4000L, 5000L);
+    }
+
+    @Test
+    @DisplayName("후보 수를 넘는 offset은 빈 페이지")
+    void offsetPastCandidates() {
+        StoreGridIndex.NearResult result = storeGridIndex.findNear(37.45, 37.65, 126.9, 127.1, 37.55, 127.0,
+                null, List.of(), 200_000_000_000L, 2000);
+
+        assertThat(result.getStoreIds()).isEmpty();
+        assertThat(result.getTotalCount()).isEqualTo(bruteForce(new double[]{37.45, 37.65, 126.9, 127.1, 37.55, 127.0}, null, List.of()).size());
+    }
+
+    @Test
+    @DisplayName("군집은 범위와 조건을 만족하는 업장을 칸 번호 floor(E6 / 칸 크기)로 묶은 결과와 같다")
+    void clusterMatchesBruteForce() {
+        double[] box = {37.45, 37.65, 126.9, 127.1};
+        for (int tileE6 : new int[]{1_000, 21_972, 87_890}) {
+            for (List<String> facility : List.of(List.<String>of(), List.of("elevator"))) {
+                Map<Long, int[]> expected = new HashMap<>();
+                Map<Long, Long> singleIds = new HashMap<>();
+                int required = Facility.maskOf(facility);
+                for (Object[] row : rows) {
+                    int latE6 = (int) row[1];
+                    int lngE6 = (int) row[2];
+                    int mask = (int) row[4];
+                    if (latE6 / 1e6 < box[0] || latE6 / 1e6 > box[1] || lngE6 / 1e6 < box[2] || lngE6 / 1e6 > box[3]) continue;
+                    if ((mask & required) != required) continue;
+                    long key = tileKey(latE6, lngE6, tileE6);
+                    // [0] : 업장 수, [1..] : 시설별 업장 수
+                    int[] counts = expected.computeIfAbsent(key, k -> new int[1 + Facility.values().length]);
+                    counts[0]++;
+                    for (Facility f : Facility.values()) {
+                        if (f.in(mask)) counts[1 + f.ordinal()]++;
+                    }
+                    singleIds.put(key, (Long) row[0]);
+                }
+
+                List<StoreClusterResponseDto.Cluster> clusters = storeGridIndex.cluster(box[0], box[1], box[2], box[3], null, facility, tileE6);
+
+                assertThat(clusters).hasSize(expected.size());
+                for (StoreClusterResponseDto.Cluster cluster : clusters) {
+                    // 칸 안 좌표의 평균은 같은 칸 안에 있다
+                    long key = tileKey(QuerydslLocation.toE6(cluster.getLat()), QuerydslLocation.toE6(cluster.getLng()), tileE6);
+                    int[] counts = expected.get(key);
+                    assertThat(counts).isNotNull();
+                    assertThat(cluster.getCount()).isEqualTo(counts[0]);
+                    for (Facility f : Facility.values()) {
+                        assertThat(cluster.getFacilities().get(f.getTag())).isEqualTo(counts[1 + f.ordinal()]);
+                    }
+                    assertThat(cluster.getStoreId()).isEqualTo(counts[0] == 1 ? singleIds.get(key) : null);
+                }
+            }
+        }
+    }
+
+    private static long tileKey(int latE6, int lngE6, int tileE6) {
+        return ((long) Math.floorDiv(latE6, tileE6) << 32) | (Math.floorDiv(lngE6, tileE6) & 0xFFFFFFFFL);
+    }
+
+    // findAllLocations 행 - id, 위도 * 10^6, 경도 * 10^6, 카테고리, 시설 비트마스크
+    private static Object[] row(long id, int latE6, int lngE6, String category, int mask) {
+        return new Object[]{id, latE6, lngE6, category, mask};
+    }
+
+    private List<Long> bruteForce(double[] box, String categoryDesc, List<String> facility) {
+        int required = Facility.maskOf(facility);
+        double sinLat = Math.sin(Math.toRadians(box[4]));
+        double cosLat = Math.cos(Math.toRadians(box[4]));
+        double radLng = Math.toRadians(box[5]);
+        List<double[]> matches = new ArrayList<>();
+        for (Object[] row : rows) {
+            double lat = ((Number) row[1]).intValue() / 1_000_000d;
+            double lng = ((Number) row[2]).intValue() / 1_000_000d;
+            if (lat < box[0] || lat > box[1] || lng < box[2] || lng > box[3]) continue;
+            if (categoryDesc != null && !categoryDesc.equals(row[3])) continue;
+            if ((((Number) row[4]).intValue() & required) != required) continue;
+            double d = -(sinLat * Math.sin(Math.toRadians(lat))
+                    + cosLat * Math.cos(Math.toRadians(lat)) * Math.cos(radLng - Math.toRadians(lng)));
+            matches.add(new double[]{d, (Long) row[0]});
+        }
+        matches.sort(Comparator.<double[]>comparingDouble(m -> m[0]).thenComparingDouble(m -> m[1]));
+        return matches.stream().map(m -> (long) m[1]).collect(Collectors.toList());
+    }
+}
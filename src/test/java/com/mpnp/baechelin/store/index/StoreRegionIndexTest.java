@@ -0,0 +1,87 @@
+package com.mpnp.baechelin.store.index;
+
+import com.mpnp.baechelin.store.repository.StoreRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StoreRegionIndexTest {
+    private final StoreRepository storeRepository = mock(StoreRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private StoreRegionIndex storeRegionIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(storeRepository.findAddressPrefixCounts()).thenReturn(List.of(
+                row("서울특별시 강남구 테헤란로", 3),
+                row("서울특별시 강남구 역삼로", 2),
+                row("서울특별시 강동구 천호대로", 1),
+                row("경기도 성남시 분당구", 4),
+                row("경기도 가평군 가평읍", 1),
+                // CSV에 없는 시/군/구 - 잘못 저장된 주소
+                row("서울특별시 없는구 어딘가", 1),
+                // CSV에 없는 시/도는 주소대로 사용
+                row("제주특별자치도 제주시 연동", 2),
+                row("세종특별자치시", 1)));
+        storeRegionIndex = new StoreRegionIndex(storeRepository, eventPublisher);
+        storeRegionIndex.refresh();
+    }
+
+    @Test
+    @DisplayName("업장이 있는 시/군/구만 중복 없이 정렬해서 돌려준다")
+    void sigunguOfStores() {
+        assertThat(storeRegionIndex.getSigungu("서울특별시")).containsExactly("강남구", "강동구");
+        assertThat(storeRegionIndex.getSigungu("제주특별자치도")).containsExactly("제주시");
+    }
+
+    @Test
+    @DisplayName("도 - 시 - 구 주소는 시와 구를 합친 이름")
+    void cityWithDistricts() {
+        assertThat(storeRegionIndex.getSigungu("경기도")).containsExactly("가평군", "성남시 분당구");
+    }
+
+    @Test
+    @DisplayName("시/도 이름 일부로도 찾고, 없는 시/도는 빈 목록")
+    void partialSido() {
+        assertThat(storeRegionIndex.getSigungu("서울")).containsExactly("강남구", "강동구");
+        assertThat(storeRegionIndex.getSigungu("부산광역시")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("시/군/구별 업장 수는 주소 앞부분별 개수를 합친 값")
+    void storeCounts() {
+        assertThat(storeRegionIndex.getStoreCounts()).containsOnly(
+                entry("서울특별시 강남구", 5), entry("서울특별시 강동구", 1),
+                entry("경기도 성남시 분당구", 4), entry("경기도 가평군", 1),
+                entry("제주특별자치도 제주시", 2));
+    }
+
+    @Test
+    @DisplayName("조회는 DB를 다시 읽지 않고, 다시 만들면 바뀐 주소가 반영되고 교체 완료 이벤트를 발행한다")
+    void refreshReplacesDictionary() {
+        storeRegionIndex.getSigungu("서울특별시");
+        verify(storeRepository, times(1)).findAddressPrefixCounts();
+
+        when(storeRepository.findAddressPrefixCounts()).thenReturn(List.of(row("부산광역시 해운대구 우동", 1)));
+        storeRegionIndex.refresh();
+        verify(eventPublisher, times(2)).publishEvent(any(StoreRegionIndex.RefreshedEvent.class));
+
+        assertThat(storeRegionIndex.getSigungu("부산광역시")).containsExactly("해운대구");
+        assertThat(storeRegionIndex.getSigungu("서울특별시")).isEmpty();
+    }
+
+    private static Object[] row(String prefix, long count) {
+        return new Object[]{prefix, count};
+    }
+}
@@ -0,0 +1,105 @@
+package com.mpnp.baechelin.store.index;
+
+import com.mpnp.baechelin.store.dto.StoreCursor;
+import com.mpnp.baechelin.store.repository.StoreRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StoreSearchIndexTest {
+    private StoreSearchIndex storeSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, "스타벅스", "카페", "서울특별시 강남구 역삼동", 1});
+        rows.add(new Object[]{2L, "스타벅스 강남점", "카페", "서울특별시 강남구 강남대로", 0});
+        rows.add(new Object[]{3L, "스타필드", "기타", "경기도 하남시", 0});
+        rows.add(new Object[]{4L, "블루보틀", "카페", "서울특별시 성동구", 1});
+        rows.add(new Object[]{5L, "카페 드 파리", "카페", "부산광역시 해운대구", 0});
+        for (long id = 10; id < 17; id++) {
+            rows.add(new Object[]{id, "스타벅스 " + id + "호점", "카페", "서울특별시 중구", 0});
+        }
+
+        StoreRepository storeRepository = mock(StoreRepository.class);
+        when(storeRepository.findAllSearchFields()).thenReturn(rows);
+        storeSearchIndex = new StoreSearchIndex(storeRepository);
+        storeSearchIndex.refresh();
+    }
+
+    @Test
+    @DisplayName("이름 완전 일치 > 이름 앞부분 일치, 점수가 같으면 id 순")
+    void scoring() {
+        StoreSearchIndex.SearchResult result = search("스타벅스", null, null, 0, 3);
+
+        assertThat(result.getStoreIds()).containsExactly(1L, 2L, 10L);
+        assertThat(result.getTotalCount()).isEqualTo(9);
+        // 2-gram 3개 x 이름 3점 + 완전 일치 10점 / 앞부분 일치 5점
+        assertThat(storeSearchIndex.scoreOf(1L, "스타벅스")).isEqualTo(19);
+        assertThat(storeSearchIndex.scoreOf(2L, "스타벅스")).isEqualTo(14);
+    }
+
+    @Test
+    @DisplayName("이름 3점, 카테고리 2점")
+    void fieldWeights() {
+        StoreSearchIndex.SearchResult result = search("카페", null, null, 0, 3);
+
+        // 카페 드 파리 : 이름 3 + 카테고리 2 + 앞부분 일치 5
+        assertThat(result.getStoreIds()).containsExactly(5L, 1L, 2L);
+        assertThat(storeSearchIndex.scoreOf(5L, "카페")).isEqualTo(10);
+        assertThat(storeSearchIndex.scoreOf(4L, "카페")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("한 글자 오타는 2-gram 60% 이상이 일치해서 검색되고, 일부만 겹치는 이름은 빠진다")
+    void typoThreshold() {
+        StoreSearchIndex.SearchResult typo = search("스타벅수", null, null, 0, 20);
+
+        assertThat(typo.getStoreIds()).startsWith(1L, 2L).doesNotContain(3L);
+        assertThat(typo.getTotalCount()).isEqualTo(9);
+        assertThat(storeSearchIndex.scoreOf(3L, "스타벅수")).isZero();
+    }
+
+    @Test
+    @DisplayName("지역, 시설 조건")
+    void filters() {
+        assertThat(search("카페", null, List.of("elevator"), 0, 20).getStoreIds()).containsExactly(1L, 4L);
+        assertThat(storeSearchIndex.search("부산", null, "카페", null, null, 0, 20).getStoreIds()).containsExactly(5L);
+        assertThat(storeSearchIndex.search("서울", "성동구", "카페", "CAFE", null, 0, 20).getStoreIds()).containsExactly(4L);
+    }
+
+    @Test
+    @DisplayName("커서로 이어 읽은 결과가 offset 페이지를 이어 붙인 결과와 같다")
+    void cursorContinuation() {
+        long[] all = search("스타벅스", null, null, 0, 100).getStoreIds();
+
+        List<Long> paged = new ArrayList<>();
+        StoreCursor cursor = null;
+        while (true) {
+            long[] page = storeSearchIndex.search(null, null, "스타벅스", null, null, cursor, 3).getStoreIds();
+            if (page.length == 0) break;
+            for (long id : page) paged.add(id);
+            long last = page[page.length - 1];
+            cursor = new StoreCursor(StoreCursor.Type.SCORE, storeSearchIndex.scoreOf(last, "스타벅스"), last);
+        }
+
+        assertThat(paged).containsExactly(box(all));
+    }
+
+    private StoreSearchIndex.SearchResult search(String keyword, String category, List<String> facility, long offset, int limit) {
+        return storeSearchIndex.search(null, null, keyword, category, facility, offset, limit);
+    }
+
+    private static Long[] box(long[] ids) {
+        Long[] boxed = new Long[ids.length];
+        for (int i = 0; i < ids.length; i++) boxed[i] = ids[i];
+        return boxed;
+    }
+}
@@ -0,0 +1,81 @@
+package com.mpnp.baechelin.store.index;
+
+import com.mpnp.baechelin.store.repository.StoreRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StoreSuggestIndexTest {
+    private StoreSuggestIndex storeSuggestIndex;
+
+    @BeforeEach
+    void setUp() {
+        StoreRepository storeRepository = mock(StoreRepository.class);
+        // id, 이름, 북마크 수, 별점 - 가중치는 북마크 수 + 별점 * 2
+        when(storeRepository.findAllSuggestFields()).thenReturn(List.of(
+                new Object[]{1L, "스타벅스 강남점", 10, 4.0},
+                new Object[]{2L, "스타벅스 역삼점", 1, 3.0},
+                new Object[]{3L, "스타필드", 5, 0.0},
+                new Object[]{4L, "투썸플레이스", 100, 5.0},
+                new Object[]{5L, "스타벅스 강남점", 0, 1.0}));
+        StoreRegionIndex storeRegionIndex = mock(StoreRegionIndex.class);
+        when(storeRegionIndex.getStoreCounts()).thenReturn(Map.of(
+                "서울특별시 강남구", 30, "서울특별시 강서구", 5, "부산광역시 강서구", 10));
+
+        storeSuggestIndex = new StoreSuggestIndex(storeRepository, storeRegionIndex);
+        storeSuggestIndex.refresh();
+    }
+
+    @Test
+    @DisplayName("접두어가 일치하는 이름 중 가중치가 큰 순으로 N개")
+    void topN() {
+        assertThat(texts(storeSuggestIndex.suggestStores("스타", 2))).containsExactly("스타벅스 강남점", "스타벅스 역삼점");
+        assertThat(texts(storeSuggestIndex.suggestStores("스타", 10))).containsExactly("스타벅스 강남점", "스타벅스 역삼점", "스타필드");
+    }
+
+    @Test
+    @DisplayName("같은 이름은 가중치가 가장 큰 업장 하나")
+    void sameNameKeepsHeaviest() {
+        List<StoreSuggestIndex.Suggestion> suggestions = storeSuggestIndex.suggestStores("스타벅스 강남", 10);
+
+        assertThat(suggestions).hasSize(1);
+        assertThat(suggestions.get(0).getStoreId()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("입력 중인 글자, 두 번째 단어로도 찾는다")
+    void partialInput() {
+        // "스탑" = ㅅㅡㅌㅏㅂ -> 스타벅스는 맞고 스타필드(ㅅㅡㅌㅏㅍ)는 아니다
+        assertThat(texts(storeSuggestIndex.suggestStores("스탑", 10))).containsExactly("스타벅스 강남점", "스타벅스 역삼점");
+        assertThat(texts(storeSuggestIndex.suggestStores("역삼", 10))).containsExactly("스타벅스 역삼점");
+    }
+
+    @Test
+    @DisplayName("지역은 업장 수 순, 업장 id 없음")
+    void regions() {
+        List<StoreSuggestIndex.Suggestion> suggestions = storeSuggestIndex.suggestRegions("강서", 5);
+
+        assertThat(texts(suggestions)).containsExactly("부산광역시 강서구", "서울특별시 강서구");
+        assertThat(suggestions).allMatch(suggestion -> suggestion.getStoreId() == null);
+        assertThat(texts(storeSuggestIndex.suggestRegions("서울", 1))).containsExactly("서울특별시 강남구");
+    }
+
+    @Test
+    @DisplayName("글자가 없는 검색어는 빈 목록")
+    void emptyKeyword() {
+        assertThat(storeSuggestIndex.suggestStores("", 10)).isEmpty();
+        assertThat(storeSuggestIndex.suggestStores("!!", 10)).isEmpty();
+    }
+
+    private static List<String> texts(List<StoreSuggestIndex.Suggestion> suggestions) {
+        return suggestions.stream().map(StoreSuggestIndex.Suggestion::getText).collect(Collectors.toList());
+    }
+}
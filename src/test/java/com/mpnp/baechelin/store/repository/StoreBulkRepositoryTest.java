@@ -0,0 +1,85 @@
+package com.mpnp.baechelin.store.repository;
+
+import com.mpnp.baechelin.MySqlContainerTest;
+import com.mpnp.baechelin.store.domain.Facility;
+import com.mpnp.baechelin.store.domain.Store;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 행 별칭(AS new)을 쓰는 INSERT ... ON DUPLICATE KEY UPDATE 를 실제 MySQL에서 확인한다
+ */
+class StoreBulkRepositoryTest extends MySqlContainerTest {
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private TestEntityManager em;
+
+    private StoreBulkRepository storeBulkRepository;
+
+    @BeforeEach
+    void setUp() {
+        storeBulkRepository = new StoreBulkRepository(new NamedParameterJdbcTemplate(dataSource));
+        em.persist(store(1, "업장1", "N"));
+        em.flush();
+        storeRepository.addReviewPoint(1, 5, LocalDateTime.of(2022, 8, 1, 12, 0));
+        storeRepository.addBookmarkCount(List.of(1L), 2, LocalDateTime.of(2022, 8, 1, 12, 0));
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("없는 업장은 추가하고 집계를 0으로, 있는 업장은 수집 컬럼만 고치고 집계는 그대로 둔다")
+    void upsertKeepsAggregates() {
+        List<Long> added = storeBulkRepository.upsert(List.of(
+                store(1, "바뀐 업장1", "Y"),
+                store(2, "업장2", "N"),
+                // 같은 id가 다시 오면 마지막 값
+                store(2, "다시 바뀐 업장2", "Y")));
+        em.clear();
+
+        assertThat(added).containsExactly(2L);
+
+        Store updated = em.find(Store.class, 1L);
+        assertThat(updated.getName()).isEqualTo("바뀐 업장1");
+        assertThat(updated.getElevator()).isEqualTo("Y");
+        assertThat(updated.getFacilityMask()).isEqualTo(Facility.ELEVATOR.getBit());
+        assertThat(updated.getLatE6()).isEqualTo(37_550_000);
+        assertThat(updated.getReviewCount()).isEqualTo(1);
+        assertThat(updated.getPointSum()).isEqualTo(5);
+        assertThat(updated.getBookMarkCount()).isEqualTo(2);
+
+        Store inserted = em.find(Store.class, 2L);
+        assertThat(inserted.getName()).isEqualTo("다시 바뀐 업장2");
+        assertThat(inserted.getFacilityMask()).isEqualTo(Facility.ELEVATOR.getBit());
+        assertThat(inserted.getReviewCount()).isZero();
+        assertThat(inserted.getBookMarkCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("이미 있는 업장만 다시 저장하면 새로 추가된 업장이 없다")
+    void noNewStores() {
+        assertThat(storeBulkRepository.upsert(List.of(store(1, "업장1", "N")))).isEmpty();
+        assertThat(storeBulkRepository.upsert(List.of())).isEmpty();
+    }
+
+    private static Store store(long id, String name, String elevator) {
+        return Store.builder()
+                .id(id).name(name).category("카페").address("서울특별시 중구 세종대로 " + id)
+                .latitude(new BigDecimal("37.55")).longitude(new BigDecimal("127.0"))
+                .elevator(elevator).toilet("N").parking("N").heightDifferent("N").approach("N")
+                .build();
+    }
+}
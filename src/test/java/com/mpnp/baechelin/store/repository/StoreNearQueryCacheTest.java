@@ -0,0 +1,165 @@
+package com.mpnp.baechelin.store.repository;
+
+import com.mpnp.baechelin.common.GeoHash;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StoreNearQueryCacheTest {
+
+    @Test
+    @DisplayName("같은 칸 안에서 조금 움직인 화면은 같은 키와 범위")
+    void smallPanSharesKey() {
+        StoreNearQueryCache.Viewport before = StoreNearQueryCache.quantize(37_540_000, 37_560_000, 126_980_000, 127_020_000);
+        StoreNearQueryCache.Viewport after = StoreNearQueryCache.quantize(37_540_100, 37_560_100, 126_980_100, 127_020_100);
+
+        assertThat(after.getKey()).isEqualTo(before.getKey());
+        assertThat(after.getLatStartE6()).isEqualTo(before.getLatStartE6());
+        assertThat(after.getLatEndE6()).isEqualTo(before.getLatEndE6());
+        assertThat(after.getLngStartE6()).isEqualTo(before.getLngStartE6());
+        assertThat(after.getLngEndE6()).isEqualTo(before.getLngEndE6());
+    }
+
+    @Test
+    @DisplayName("넓힌 범위는 원래 화면을 포함하고 칸 경계에 맞춰진다")
+    void snapsOutwardToCells() {
+        int[][] viewports = {
+                {37_540_000, 37_560_000, 126_980_000, 127_020_000},
+                {37_500_000, 37_600_000, 126_900_000, 127_100_000},
+                {37_549_000, 37_551_000, 126_999_000, 127_001_000},
+                {35_100_000, 35_200_000, 129_000_000, 129_050_000},
+        };
+        for (int[] v : viewports) {
+            StoreNearQueryCache.Viewport q = StoreNearQueryCache.quantize(v[0], v[1], v[2], v[3]);
+            String[] cells = q.getKey().split(":");
+            int precision = cells[0].length();
+
+            assertThat(precision).isBetween(5, 8);
+            assertThat(cells[1]).hasSize(precision);
+            assertThat(q.isCacheable()).isTrue();
+            assertThat(q.getLatStartE6()).isLessThanOrEqualTo(v[0]);
+            assertThat(q.getLatEndE6()).isGreaterThanOrEqualTo(v[1]);
+            assertThat(q.getLngStartE6()).isLessThanOrEqualTo(v[2]);
+            assertThat(q.getLngEndE6()).isGreaterThanOrEqualTo(v[3]);
+            assertOnGrid(q.getLatStartE6() / 1e6 + 90, GeoHash.latHeight(precision));
+            assertOnGrid(q.getLngEndE6() / 1e6 + 180, GeoHash.lngWidth(precision));
+        }
+    }
+
+    @Test
+    @DisplayName("가장 큰 칸으로도 너무 많은 칸에 걸치는 화면은 캐시하지 않는다")
+    void wideViewportIsNotCached() {
+        assertThat(StoreNearQueryCache.quantize(33_000_000, 38_500_000, 124_500_000, 131_000_000).isCacheable()).isFalse();
+    }
+
+    @Test
+    @DisplayName("조건이 다르면 다른 키, 페이지와 기준점은 키에 들어가지 않는다")
+    void keyIncludesConditions() {
+        StoreNearQueryCache.Viewport viewport = StoreNearQueryCache.quantize(37_540_000, 37_560_000, 126_980_000, 127_020_000);
+        String key = StoreNearQueryCache.key(viewport, null, List.of());
+
+        assertThat(StoreNearQueryCache.key(viewport, "all", null)).isEqualTo(key);
+        assertThat(StoreNearQueryCache.key(viewport, "CAFE", List.of())).isNotEqualTo(key);
+        assertThat(StoreNearQueryCache.key(viewport, null, List.of("elevator"))).isNotEqualTo(key);
+    }
+
+    @Test
+    @DisplayName("같은 키는 후보를 한 번만 조회한다")
+    void loadsCandidatesOnce() {
+        StoreNearQueryCache cache = new StoreNearQueryCache(1000, 60);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            cache.get("key", () -> {
+                loads.incrementAndGet();
+                return StoreNearQueryCache.Candidates.of(List.of());
+            });
+        }
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("같은 후보 목록을 써도 결과는 요청한 범위를 벗어나지 않고, 요청한 기준점에서 가까운 순")
+    void resultsNeverLeaveRequestedBox() {
+        Random random = new Random(7);
+        StoreNearQueryCache.Viewport viewport = StoreNearQueryCache.quantize(37_540_000, 37_560_000, 126_980_000, 127_020_000);
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            rows.add(new Object[]{id,
+                    viewport.getLatStartE6() + random.nextInt(viewport.getLatEndE6() - viewport.getLatStartE6() + 1),
+                    viewport.getLngStartE6() + random.nextInt(viewport.getLngEndE6() - viewport.getLngStartE6() + 1)});
+        }
+        StoreNearQueryCache.Candidates candidates = StoreNearQueryCache.Candidates.of(rows);
+
+        for (int n = 0; n < 50; n++) {
+            // 같은 키가 되는 화면은 넓힌 범위 안의 화면 - 넓힌 범위 안에서 임의로 고른 화면과 기준점
+            int[] box = subBox(random, viewport.getLatStartE6(), viewport.getLatEndE6(), viewport.getLngStartE6(), viewport.getLngEndE6());
+            double lat = (box[0] + random.nextInt(box[1] - box[0])) / 1e6;
+            double lng = (box[2] + random.nextInt(box[3] - box[2])) / 1e6;
+
+            List<Object[]> expected = rows.stream()
+                    .filter(row -> inside(row, box))
+                    .sorted(Comparator.<Object[]>comparingDouble(row -> distance(row, lat, lng)).thenComparingLong(row -> (long) row[0]))
+                    .collect(Collectors.toList());
+            StoreNearQueryCache.NearIds all = candidates.findNear(box[0], box[1], box[2], box[3], lat, lng, 0, rows.size());
+            StoreNearQueryCache.NearIds page = candidates.findNear(box[0], box[1], box[2], box[3], lat, lng, 10, 20);
+
+            assertThat(all.getTotalCount()).isEqualTo(expected.size());
+            assertThat(all.getStoreIds()).containsExactly(expected.stream().mapToLong(row -> (long) row[0]).toArray());
+            assertThat(page.getStoreIds()).containsExactly(expected.subList(Math.min(10, expected.size()), Math.min(30, expected.size())).stream().mapToLong(row -> (long) row[0]).toArray());
+        }
+    }
+
+    @Test
+    @DisplayName("범위 경계 위의 업장은 포함하고 1 마이크로도라도 벗어나면 제외한다")
+    void boxBoundariesAreInclusive() {
+        StoreNearQueryCache.Candidates candidates = StoreNearQueryCache.Candidates.of(List.of(
+                new Object[]{1L, 37_700_000, 127_100_000},
+                new Object[]{2L, 37_710_000, 127_110_000},
+                new Object[]{3L, 37_699_999, 127_105_000},
+                new Object[]{4L, 37_710_001, 127_105_000},
+                new Object[]{5L, 37_705_000, 127_099_999},
+                new Object[]{6L, 37_705_000, 127_110_001}));
+
+        StoreNearQueryCache.NearIds result = candidates.findNear(37_700_000, 37_710_000, 127_100_000, 127_110_000, 37.7, 127.1, 0, 10);
+
+        assertThat(result.getStoreIds()).containsExactly(1L, 2L);
+        assertThat(result.getTotalCount()).isEqualTo(2);
+    }
+
+    private static int[] subBox(Random random, int latStart, int latEnd, int lngStart, int lngEnd) {
+        int lat1 = latStart + random.nextInt(latEnd - latStart);
+        int lat2 = latStart + random.nextInt(latEnd - latStart);
+        int lng1 = lngStart + random.nextInt(lngEnd - lngStart);
+        int lng2 = lngStart + random.nextInt(lngEnd - lngStart);
+        return new int[]{Math.min(lat1, lat2), Math.max(lat1, lat2) + 1, Math.min(lng1, lng2), Math.max(lng1, lng2) + 1};
+    }
+
+    private static boolean inside(Object[] row, int[] box) {
+        int latE6 = (int) row[1];
+        int lngE6 = (int) row[2];
+        return latE6 >= box[0] && latE6 <= box[1] && lngE6 >= box[2] && lngE6 <= box[3];
+    }
+
+    private static double distance(Object[] row, double lat, double lng) {
+        double storeLat = Math.toRadians((int) row[1] / 1e6);
+        double storeLng = Math.toRadians((int) row[2] / 1e6);
+        return -(Math.sin(Math.toRadians(lat)) * Math.sin(storeLat)
+                + Math.cos(Math.toRadians(lat)) * Math.cos(storeLat) * Math.cos(Math.toRadians(lng) - storeLng));
+    }
+
+    // 마이크로도 반올림 오차 안에서 칸 크기의 배수
+    private static void assertOnGrid(double value, double cell) {
+        double cells = value / cell;
+        assertThat(Math.abs(cells - Math.round(cells)) * cell).isLessThanOrEqualTo(1e-6);
+    }
+}
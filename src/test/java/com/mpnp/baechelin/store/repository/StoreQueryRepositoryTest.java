@@ -0,0 +1,208 @@
+package com.mpnp.baechelin.store.repository;
+
+import com.mpnp.baechelin.MySqlContainerTest;
+import com.mpnp.baechelin.store.domain.Store;
+import com.mpnp.baechelin.store.domain.StoreImage;
+import com.mpnp.baechelin.store.dto.StoreClusterResponseDto;
+import com.mpnp.baechelin.store.index.StoreGridIndex;
+import com.mpnp.baechelin.store.index.StoreSearchIndex;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@Import({StoreQueryRepository.class, StoreNearQueryCache.class})
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class StoreQueryRepositoryTest extends MySqlContainerTest {
+    private static final BigDecimal LAT = new BigDecimal("37.5500000");
+    private static final BigDecimal LNG = new BigDecimal("127.0000000");
+    // 기준점 반경 3km 박스 안의 업장 수
+    private static final int INSIDE = 25;
+
+    @Autowired
+    private StoreQueryRepository storeQueryRepository;
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private StoreNearQueryCache storeNearQueryCache;
+    // 준비되지 않은 인덱스 - SQL 경로로 조회
+    @MockBean
+    private StoreGridIndex storeGridIndex;
+    @MockBean
+    private StoreSpatialQueryRepository storeSpatialQueryRepository;
+    @MockBean
+    private StoreSearchIndex storeSearchIndex;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < INSIDE; i++) {
+            em.persist(store(i + 1, LAT.add(BigDecimal.valueOf(i, 3)), LNG.add(BigDecimal.valueOf(i, 3)), i % 5));
+        }
+        // 박스 밖 업장
+        em.persist(store(100, LAT.add(new BigDecimal("0.1")), LNG, 5));
+        em.persist(store(101, LAT, LNG.subtract(new BigDecimal("0.1")), 5));
+        em.flush();
+        em.clear();
+        storeNearQueryCache.invalidateAll();
+        statistics = em.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("전체 개수는 COUNT 쿼리로 세고 페이지 크기만큼만 엔티티를 읽는다")
+    void countsWithoutLoadingEntities() {
+        Slice<Store> result = storeQueryRepository.findStoreOrderByPoint(LAT, LNG, null, null, PageRequest.of(0, 10), true);
+
+        assertThat(result).isInstanceOf(Page.class);
+        assertThat(((Page<Store>) result).getTotalElements()).isEqualTo(INSIDE);
+        assertThat(result.getContent()).hasSize(10);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(10);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("첫 페이지가 다 차지 않으면 COUNT 쿼리도 생략한다")
+    void skipsCountWhenFirstPageIsPartial() {
+        Slice<Store> result = storeQueryRepository.findStoreOrderByPoint(LAT, LNG, null, null, PageRequest.of(0, 50), true);
+
+        assertThat(((Page<Store>) result).getTotalElements()).isEqualTo(INSIDE);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("withTotal=false면 COUNT 없이 한 개 더 읽어서 다음 페이지 여부만 판단한다")
+    void sliceModeWithoutCount() {
+        Slice<Store> first = storeQueryRepository.findStoreOrderByPoint(LAT, LNG, null, null, PageRequest.of(0, 10), false);
+        Slice<Store> last = storeQueryRepository.findStoreOrderByPoint(LAT, LNG, null, null, PageRequest.of(2, 10), false);
+
+        assertThat(first).isNotInstanceOf(Page.class);
+        assertThat(first.getContent()).hasSize(10);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(last.getContent()).hasSize(INSIDE - 20);
+        assertThat(last.hasNext()).isFalse();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("박스 거리순 조회의 전체 개수는 박스 안의 업장 수")
+    void nearStoresCountedInBox() {
+        BigDecimal half = new BigDecimal("0.05");
+        Slice<Store> result = storeQueryRepository.findBetweenTwoPointOrder(LAT.subtract(half), LAT.add(half),
+                LNG.subtract(half), LNG.add(half), null, null, PageRequest.of(0, 10), true);
+
+        assertThat(((Page<Store>) result).getTotalElements()).isEqualTo(INSIDE);
+        assertThat(result.getContent()).extracting(Store::getId).startsWith(1L, 2L, 3L);
+    }
+
+    @Test
+    @DisplayName("같은 칸으로 넓혀지는 화면은 후보를 다시 조회하지 않고, 결과는 각자 요청한 범위 안에서 각자의 기준점과 가까운 순")
+    void nearQueryReusesCandidatesWithinRequestedBox() {
+        // 두 화면 모두 37.540283 ~ 37.584229, 126.979980 ~ 127.067871 로 넓혀지지만 첫 화면 밖에 있는 업장
+        em.persist(store(301, new BigDecimal("37.583000"), LNG, 0));
+        em.flush();
+        em.clear();
+        statistics.clear();
+
+        Slice<Store> first = storeQueryRepository.findBetweenOnePointOrder(37_541_000, 37_581_000, 126_981_000, 127_061_000,
+                37.574, 127.024, null, null, PageRequest.of(0, 30), true);
+        Slice<Store> second = storeQueryRepository.findBetweenOnePointOrder(37_541_000, 37_584_000, 126_981_000, 127_061_000,
+                37.55, 127.0, null, null, PageRequest.of(0, 30), true);
+
+        assertThat(((Page<Store>) first).getTotalElements()).isEqualTo(INSIDE);
+        assertThat(first.getContent()).extracting(Store::getId).doesNotContain(301L).startsWith(25L, 24L, 23L);
+        assertThat(((Page<Store>) second).getTotalElements()).isEqualTo(INSIDE + 1);
+        assertThat(second.getContent()).extracting(Store::getId).contains(301L).startsWith(1L, 2L, 3L);
+        // 후보 조회 1번 + 페이지 업장 조회 2번
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("공간 인덱스가 없으면 칸 번호 GROUP BY로 군집을 만들고, 업장이 하나인 칸만 업장 id를 내려준다")
+    void clusterByTileGroupBy() {
+        BigDecimal half = new BigDecimal("0.05");
+        // 0.01도 칸 - 업장 1 ~ 10, 11 ~ 20, 21 ~ 25가 각각 같은 칸
+        List<StoreClusterResponseDto.Cluster> clusters = storeQueryRepository.clusterStores(LAT.subtract(half), LAT.add(half),
+                LNG.subtract(half), LNG.add(half), null, null, 10_000);
+
+        assertThat(clusters).extracting(StoreClusterResponseDto.Cluster::getCount).containsExactlyInAnyOrder(10, 10, 5);
+        assertThat(clusters).allSatisfy(cluster -> {
+            assertThat(cluster.getStoreId()).isNull();
+            assertThat(cluster.getFacilities()).containsOnlyKeys("elevator", "toilet", "parking", "heightDifferent", "approach");
+        });
+        StoreClusterResponseDto.Cluster last = clusters.stream().filter(cluster -> cluster.getCount() == 5).findFirst().orElseThrow();
+        assertThat(last.getLat()).isCloseTo(37.572, within(1e-9));
+        assertThat(last.getLng()).isCloseTo(127.022, within(1e-9));
+
+        // 0.001도 칸 - 업장마다 다른 칸
+        List<StoreClusterResponseDto.Cluster> single = storeQueryRepository.clusterStores(LAT.subtract(half), LAT.add(half),
+                LNG.subtract(half), LNG.add(half), null, null, 1_000);
+        assertThat(single).hasSize(INSIDE).extracting(StoreClusterResponseDto.Cluster::getStoreId).doesNotContainNull();
+    }
+
+    @Test
+    @DisplayName("정수 좌표 박스는 경계를 포함하고 1 마이크로도라도 벗어나면 제외한다")
+    void e6BoxBoundariesAreInclusive() {
+        em.persist(store(201, new BigDecimal("37.700000"), new BigDecimal("127.100000"), 0));
+        em.persist(store(202, new BigDecimal("37.710000"), new BigDecimal("127.110000"), 0));
+        em.persist(store(203, new BigDecimal("37.699999"), new BigDecimal("127.105000"), 0));
+        em.persist(store(204, new BigDecimal("37.710001"), new BigDecimal("127.105000"), 0));
+        em.persist(store(205, new BigDecimal("37.705000"), new BigDecimal("127.099999"), 0));
+        em.persist(store(206, new BigDecimal("37.705000"), new BigDecimal("127.110001"), 0));
+        em.flush();
+        em.clear();
+
+        Slice<Store> result = storeQueryRepository.findBetweenTwoPointOrder(new BigDecimal("37.70"), new BigDecimal("37.71"),
+                new BigDecimal("127.10"), new BigDecimal("127.11"), null, null, PageRequest.of(0, 10), true);
+
+        assertThat(((Page<Store>) result).getTotalElements()).isEqualTo(2);
+        assertThat(result.getContent()).extracting(Store::getId).containsExactlyInAnyOrder(201L, 202L);
+        assertThat(result.getContent()).extracting(Store::getLatE6).containsExactlyInAnyOrder(37_700_000, 37_710_000);
+    }
+
+    @Test
+    @DisplayName("페이지 업장들의 이미지를 한 번의 쿼리로 업장별로 묶어 조회한다")
+    void imagesForPageInOneQuery() {
+        Store first = em.find(Store.class, 1L);
+        Store second = em.find(Store.class, 2L);
+        em.persist(StoreImage.builder().storeImageUrl("a1").store(first).build());
+        em.persist(StoreImage.builder().storeImageUrl("b1").store(second).build());
+        em.persist(StoreImage.builder().storeImageUrl("a2").store(first).build());
+        em.flush();
+        em.clear();
+        statistics.clear();
+
+        Map<Long, List<String>> imageUrls = storeQueryRepository.findImageUrlsByStoreIds(List.of(1L, 2L, 3L));
+
+        assertThat(imageUrls).containsOnlyKeys(1L, 2L);
+        assertThat(imageUrls.get(1L)).containsExactly("a1", "a2");
+        assertThat(imageUrls.get(2L)).containsExactly("b1");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private static Store store(long id, BigDecimal lat, BigDecimal lng, double pointAvg) {
+        return Store.builder()
+                .id(id).name("업장" + id).category("카페").address("서울특별시 중구 세종대로 " + id)
+                .latitude(lat).longitude(lng)
+                .elevator("N").toilet("N").parking("N").heightDifferent("N").approach("N")
+                .pointAvg(pointAvg)
+                .build();
+    }
+}
@@ -0,0 +1,165 @@
+package com.mpnp.baechelin.store.repository;
+
+import com.mpnp.baechelin.MySqlContainerTest;
+import com.mpnp.baechelin.bookmark.domain.Bookmark;
+import com.mpnp.baechelin.bookmark.domain.Folder;
+import com.mpnp.baechelin.login.oauth.entity.ProviderType;
+import com.mpnp.baechelin.login.oauth.entity.RoleType;
+import com.mpnp.baechelin.review.domain.Review;
+import com.mpnp.baechelin.store.domain.Store;
+import com.mpnp.baechelin.user.domain.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * 집계 증감 UPDATE의 SET 절 평가 순서와 ROUND 결과를 실제 MySQL에서 확인한다
+ */
+class StoreRepositoryTest extends MySqlContainerTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2022, 8, 1, 12, 0);
+
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private TestEntityManager em;
+
+    @BeforeEach
+    void setUp() {
+        em.persist(store(1));
+        em.persist(store(2));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("리뷰 추가, 수정, 삭제가 별점 합계와 리뷰 수를 증감하고 평균은 합계에서 소수 첫째 자리로 반올림한다")
+    void reviewPointDeltas() {
+        storeRepository.addReviewPoint(1, 4, NOW);
+        storeRepository.addReviewPoint(1, 5, NOW);
+        storeRepository.addReviewPoint(1, 3, NOW);
+        assertAggregate(1, 4.0, 12, 3);
+
+        storeRepository.changeReviewPoint(1, 3, 5, NOW);
+        assertAggregate(1, 4.7, 14, 3);
+
+        storeRepository.removeReviewPoint(1, 5, NOW);
+        assertAggregate(1, 4.5, 9, 2);
+
+        storeRepository.removeReviewPoint(1, 4, NOW);
+        storeRepository.removeReviewPoint(1, 5, NOW);
+        assertAggregate(1, 0, 0, 0);
+
+        // 이미 0이면 음수로 내려가지 않는다
+        storeRepository.removeReviewPoint(1, 5, NOW);
+        assertAggregate(1, 0, 0, 0);
+    }
+
+    @Test
+    @DisplayName("북마크 수는 0 아래로 내려가지 않는다")
+    void bookmarkCountFloorsAtZero() {
+        storeRepository.addBookmarkCount(List.of(1L, 2L), 1, NOW);
+        storeRepository.addBookmarkCount(List.of(1L), -1, NOW);
+        storeRepository.addBookmarkCount(List.of(1L), -1, NOW);
+        em.clear();
+
+        assertThat(em.find(Store.class, 1L).getBookMarkCount()).isZero();
+        assertThat(em.find(Store.class, 2L).getBookMarkCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("워터마크 이후 집계가 바뀐 업장만 id 순서로 끊어서 조회한다")
+    void changedIdsSinceWatermark() {
+        storeRepository.addBookmarkCount(List.of(1L), 1, NOW.minusHours(2));
+        storeRepository.addBookmarkCount(List.of(2L), 1, NOW);
+
+        assertThat(storeRepository.findAggregateChangedIds(NOW.minusHours(1), 0L, PageRequest.of(0, 10))).containsExactly(2L);
+        assertThat(storeRepository.findAggregateChangedIds(NOW.minusHours(3), 0L, PageRequest.of(0, 1))).containsExactly(1L);
+        assertThat(storeRepository.findAggregateChangedIds(NOW.minusHours(3), 1L, PageRequest.of(0, 1))).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("정합성 보정은 리뷰, 북마크 테이블 기준으로 집계를 덮어쓰고 리뷰가 없는 업장은 0으로 맞춘다")
+    void reconcileOverwritesFromSourceTables() {
+        // 증감이 어긋난 상태
+        storeRepository.addReviewPoint(1, 1, NOW);
+        storeRepository.addReviewPoint(2, 5, NOW);
+        storeRepository.addBookmarkCount(List.of(2L), 3, NOW);
+        em.clear();
+
+        User user = persistUser();
+        Folder folder = em.persist(Folder.builder().userId(user).folderName("폴더").build());
+        Store store = em.find(Store.class, 1L);
+        em.persist(review(store, user, 4));
+        em.persist(review(store, user, 3));
+        em.persist(Bookmark.builder().storeId(store).folderId(folder).userId(user).build());
+        em.flush();
+
+        storeRepository.reconcileAggregates(List.of(1L, 2L));
+
+        assertAggregate(1, 3.5, 7, 2);
+        assertAggregate(2, 0, 0, 0);
+        assertThat(em.find(Store.class, 1L).getBookMarkCount()).isEqualTo(1);
+        assertThat(em.find(Store.class, 2L).getBookMarkCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("pointSum 컬럼이 비어 있는 기존 업장만 리뷰 테이블의 합계로 채운다")
+    void syncPointSumBackfillsOnlyMissingSums() {
+        User user = persistUser();
+        Store legacy = em.persist(Store.builder()
+                .id(3).name("업장3").category("카페").address("서울특별시 중구 세종대로 3")
+                .latitude(new BigDecimal("37.55")).longitude(new BigDecimal("127.0"))
+                .elevator("N").toilet("N").parking("N").heightDifferent("N").approach("N")
+                .pointAvg(3.5).reviewCount(2)
+                .build());
+        em.persist(review(legacy, user, 4));
+        em.persist(review(legacy, user, 3));
+        storeRepository.addReviewPoint(1, 5, NOW);
+        em.persist(review(em.find(Store.class, 1L), user, 1));
+        em.flush();
+
+        assertThat(storeRepository.syncPointSum()).isEqualTo(1);
+
+        assertAggregate(3, 3.5, 7, 2);
+        // 이미 합계가 있는 업장은 그대로 둔다
+        assertAggregate(1, 5.0, 5, 1);
+    }
+
+    private User persistUser() {
+        return em.persist(User.builder().socialId("social").name("사용자").email("user@test.com")
+                .emailVerifiedYn("Y").providerType(ProviderType.KAKAO).roleType(RoleType.USER).build());
+    }
+
+    private void assertAggregate(long storeId, double pointAvg, double pointSum, int reviewCount) {
+        em.clear();
+        Store store = em.find(Store.class, storeId);
+        assertThat(store.getPointAvg()).isCloseTo(pointAvg, within(1e-9));
+        assertThat(store.getPointSum()).isCloseTo(pointSum, within(1e-9));
+        assertThat(store.getReviewCount()).isEqualTo(reviewCount);
+    }
+
+    private static Review review(Store store, User user, double point) {
+        return Review.builder()
+                .content("휠체어로 들어가기 편하고 화장실도 넓어요").point(point)
+                .storeId(store).userId(user)
+                .build();
+    }
+
+    private static Store store(long id) {
+        return Store.builder()
+                .id(id).name("업장" + id).category("카페").address("서울특별시 중구 세종대로 " + id)
+                .latitude(new BigDecimal("37.55")).longitude(new BigDecimal("127.0"))
+                .elevator("N").toilet("N").parking("N").heightDifferent("N").approach("N")
+                .build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.mpnp.baechelin.store.repository;
+
+import com.mpnp.baechelin.MySqlContainerTest;
+import com.mpnp.baechelin.store.domain.Store;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * location 생성 컬럼, 공간 인덱스와 MBRCovers / ST_Distance_Sphere 조회를 실제 MySQL 8에서 확인한다
+ * ALTER TABLE은 진행 중인 트랜잭션을 커밋하므로 테스트 트랜잭션 없이 실행하고 데이터는 직접 지운다
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StoreSpatialQueryRepositoryTest extends MySqlContainerTest {
+    // 37.54 ~ 37.56, 126.99 ~ 127.01
+    private static final int[] BOX = {37_540_000, 37_560_000, 126_990_000, 127_010_000};
+    private static final double LAT = 37.55;
+    private static final double LNG = 127.0;
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private StoreRepository storeRepository;
+
+    private StoreSpatialQueryRepository storeSpatialQueryRepository;
+
+    @BeforeEach
+    void setUp() {
+        storeSpatialQueryRepository = new StoreSpatialQueryRepository(new NamedParameterJdbcTemplate(dataSource));
+        ReflectionTestUtils.setField(storeSpatialQueryRepository, "nearQueryMode", StoreSpatialQueryRepository.MODE);
+        storeSpatialQueryRepository.ensureSchema();
+
+        storeRepository.saveAll(List.of(
+                store(1, "37.550000", "127.000000", "카페", "N"),
+                store(2, "37.551000", "127.000000", "카페", "Y"),
+                store(3, "37.552000", "127.001000", "한식", "Y"),
+                // 박스 경계 위
+                store(4, "37.560000", "127.010000", "카페", "N"),
+                // 박스 밖
+                store(9, "37.600000", "127.000000", "카페", "Y")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        storeRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("spatial 모드면 location 컬럼과 공간 인덱스를 만들고, 다시 실행해도 그대로 사용한다")
+    void ensureSchemaIsIdempotent() {
+        storeSpatialQueryRepository.ensureSchema();
+
+        assertThat(storeSpatialQueryRepository.isAvailable()).isTrue();
+    }
+
+    @Test
+    @DisplayName("박스 안의 업장만 기준점에서 가까운 순으로 조회하고 전체 개수를 센다")
+    void findsInsideBoxOrderedByDistance() {
+        StoreSpatialQueryRepository.NearResult result = findNear(null, List.of(), 0, 10, true);
+
+        assertThat(result.getStoreIds()).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(result.getTotalCount()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("카테고리, 시설 조건과 offset, limit을 적용한다")
+    void appliesFiltersAndPaging() {
+        assertThat(findNear("KOREAN", List.of(), 0, 10, true).getStoreIds()).containsExactly(3L);
+        assertThat(findNear(null, List.of("elevator"), 0, 10, true).getStoreIds()).containsExactly(2L, 3L);
+
+        StoreSpatialQueryRepository.NearResult page = findNear(null, List.of(), 1, 2, false);
+        assertThat(page.getStoreIds()).containsExactly(2L, 3L);
+        assertThat(page.getTotalCount()).isEqualTo(-1);
+    }
+
+    private StoreSpatialQueryRepository.NearResult findNear(String category, List<String> facility, long offset, int limit, boolean withTotal) {
+        return storeSpatialQueryRepository.findNear(BOX[0], BOX[1], BOX[2], BOX[3], LAT, LNG,
+                category, facility, offset, limit, withTotal);
+    }
+
+    private static Store store(long id, String lat, String lng, String category, String elevator) {
+        return Store.builder()
+                .id(id).name("업장" + id).category(category).address("서울특별시 중구 세종대로 " + id)
+                .latitude(new BigDecimal(lat)).longitude(new BigDecimal(lng))
+                .elevator(elevator).toilet("N").parking("N").heightDifferent("N").approach("N")
+                .build();
+    }
+}